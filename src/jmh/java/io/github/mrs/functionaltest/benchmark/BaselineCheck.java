@@ -0,0 +1,134 @@
+package io.github.mrs.functionaltest.benchmark;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+/**
+ * Compare a JMH result file against a stored baseline and fail if any benchmark got slower by more than the
+ * tolerance, or store the results as the new baseline. Run by the <tt>benchmark</tt> profile after JMH.
+ *
+ * Benchmarks are matched by name and parameters; ones only in the results are reported as new, ones only in the
+ * baseline (e.g. filtered out of this run) are ignored. Scores only compare on the machine that recorded the
+ * baseline.
+ *
+ * <pre>
+ * BaselineCheck &lt;results.json&gt; &lt;baseline.json&gt; &lt;tolerance&gt; [update]
+ * </pre>
+ */
+public class BaselineCheck {
+
+	public static void main(String[] args) throws IOException {
+		if (args.length < 3) {
+			System.err.println("Usage: BaselineCheck <results.json> <baseline.json> <tolerance> [update]");
+			System.exit(2);
+		}
+		Path results = Paths.get(args[0]);
+		Path baseline = Paths.get(args[1]);
+		double tolerance = Double.parseDouble(args[2]);
+		boolean update = args.length > 3 && "true".equalsIgnoreCase(args[3]);
+
+		if (update) {
+			Path parent = baseline.toAbsolutePath().getParent();
+			if (parent != null) {
+				Files.createDirectories(parent);
+			}
+			Map<String, JsonObject> merged = Files.exists(baseline) ? read(baseline) : new LinkedHashMap<>();
+			merged.putAll(read(results));
+			write(merged, baseline);
+			System.out.println("Stored " + merged.size() + " benchmark baselines in " + baseline);
+			return;
+		}
+		if (!Files.exists(baseline)) {
+			System.out.println("No baseline at " + baseline + ", skipping comparison; record one with"
+					+ " -Djmh.baseline.update=true");
+			return;
+		}
+		List<String> regressions = compare(read(baseline), read(results), tolerance);
+		if (!regressions.isEmpty()) {
+			System.err.println(regressions.size() + " benchmark(s) regressed by more than "
+					+ Math.round(tolerance * 100) + "%:");
+			regressions.forEach(line -> System.err.println("  " + line));
+			System.exit(1);
+		}
+	}
+
+	/**
+	 * @return one line per regression, empty if none
+	 */
+	static List<String> compare(Map<String, JsonObject> baseline, Map<String, JsonObject> results, double tolerance) {
+		List<String> regressions = new ArrayList<>();
+		System.out.println(String.format("%-70s %14s %14s %8s", "Benchmark", "baseline", "now", "change"));
+		for (Map.Entry<String, JsonObject> result : results.entrySet()) {
+			JsonObject now = result.getValue();
+			JsonObject before = baseline.get(result.getKey());
+			String unit = metric(now).get("scoreUnit").getAsString();
+			double score = metric(now).get("score").getAsDouble();
+			if (before == null) {
+				System.out.println(String.format("%-70s %14s %14.3f %8s  %s", result.getKey(), "-", score, "new", unit));
+				continue;
+			}
+			double previous = metric(before).get("score").getAsDouble();
+			// throughput modes are better when higher, time modes when lower
+			boolean higherIsBetter = "thrpt".equals(now.get("mode").getAsString());
+			double change = previous == 0 ? 0 : (score - previous) / previous;
+			double worse = higherIsBetter ? -change : change;
+			String line = String.format("%-70s %14.3f %14.3f %+7.1f%%  %s", result.getKey(), previous, score,
+					change * 100, unit);
+			System.out.println(line);
+			if (worse > tolerance) {
+				regressions.add(line);
+			}
+		}
+		return regressions;
+	}
+
+	static Map<String, JsonObject> read(Path file) throws IOException {
+		Map<String, JsonObject> byKey = new LinkedHashMap<>();
+		try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+			JsonArray runs = JsonParser.parseReader(reader).getAsJsonArray();
+			for (JsonElement run : runs) {
+				byKey.put(key(run.getAsJsonObject()), run.getAsJsonObject());
+			}
+		}
+		return byKey;
+	}
+
+	private static void write(Map<String, JsonObject> runs, Path file) throws IOException {
+		JsonArray array = new JsonArray();
+		runs.values().forEach(array::add);
+		try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+			writer.write(array.toString());
+		}
+	}
+
+	// name, mode, thread count and parameters identify a result across runs
+	private static String key(JsonObject run) {
+		StringBuilder key = new StringBuilder(run.get("benchmark").getAsString())
+				.append(" [").append(run.get("mode").getAsString())
+				.append(", ").append(run.get("threads").getAsInt()).append("t");
+		if (run.has("params")) {
+			for (Map.Entry<String, JsonElement> param : run.getAsJsonObject("params").entrySet()) {
+				key.append(", ").append(param.getKey()).append('=').append(param.getValue().getAsString());
+			}
+		}
+		return key.append(']').toString();
+	}
+
+	private static JsonObject metric(JsonObject run) {
+		return run.getAsJsonObject("primaryMetric");
+	}
+}
@@ -0,0 +1,69 @@
+package io.github.mrs.functionaltest.benchmark;
+
+import io.github.mrs.functionaltest.FakeData;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * <tt>FakeData</tt> generators from several threads sharing one instance, as tests running in parallel do, and
+ * seeded bulk generation as used for fixtures.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class FakeDataBenchmark {
+
+	private static final int ROWS = 100;
+
+	private final FakeData data = new FakeData();
+	private final FakeData seeded = new FakeData(42);
+
+	@Benchmark
+	public String email() {
+		return data.email();
+	}
+
+	@Benchmark
+	public String fullName() {
+		return data.fullName();
+	}
+
+	@Benchmark
+	public String username() {
+		return data.username();
+	}
+
+	@Benchmark
+	public String uniqueEmail() {
+		return data.uniqueEmail();
+	}
+
+	@Benchmark
+	public String uuid() {
+		return data.uuid();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(ROWS)
+	public List<String> seededEmails() {
+		return seeded.emails(ROWS).collect(Collectors.toList());
+	}
+}
@@ -0,0 +1,118 @@
+package io.github.mrs.functionaltest.benchmark;
+
+import static io.restassured.RestAssured.given;
+
+import io.github.mrs.functionaltest.Serializer;
+import io.github.mrs.functionaltest.ServiceArea;
+import io.github.mrs.functionaltest.utils.Config;
+import io.github.mrs.functionaltest.utils.HttpCaller;
+import io.github.mrs.functionaltest.utils.stub.StubResponse;
+import io.github.mrs.functionaltest.utils.stub.StubServer;
+
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import io.restassured.response.ValidatableResponse;
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.core.config.Configurator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.testng.internal.collections.Pair;
+
+/**
+ * Requests through <tt>HttpCaller</tt> against the in-process stub server, next to the same request made with
+ * bare RestAssured, so the difference is the library's own per-request cost: header maps, spec and filter chain,
+ * status validation and mapping the body.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HttpCallerBenchmark {
+
+	private static final String USER = "{\"id\":7,\"email\":\"jane.doe@example.com\",\"first_name\":\"Jane\","
+			+ "\"last_name\":\"Doe\",\"avatar\":\"https://example.com/avatars/7.png\"}";
+
+	public static class User extends Serializer {
+		int id;
+		String email;
+		String first_name;
+		String last_name;
+		String avatar;
+
+		@Override
+		public String[] getDeletionIdentifiers() {
+			return new String[] { String.valueOf(id) };
+		}
+	}
+
+	public static class UserService extends ServiceArea<User> {
+		User fetch(HttpCaller caller) throws Exception {
+			return fromJson(caller.doGet("/api/users/7", 200), User.class);
+		}
+
+		@Override
+		public ValidatableResponse remove(Pair<HttpCaller, User> item) throws Exception {
+			throw new UnsupportedOperationException("Deletion not supported: " + this.getClass().getName());
+		}
+	}
+
+	private StubServer stub;
+	private String url;
+	private HttpCaller caller;
+	private UserService users;
+
+	@Setup
+	public void setup() throws Exception {
+		// per-request INFO lines to the console would otherwise be most of what's measured
+		Configurator.setRootLevel(Level.WARN);
+		stub = StubServer.start();
+		stub.get("/api/users/{id}").respond(StubResponse.json(200, USER));
+		stub.post("/api/users").respond(StubResponse.json(201, USER));
+		Properties props = new Properties();
+		props.setProperty("base.url", stub.url());
+		props.setProperty("client.id", "");
+		props.setProperty("client.secret", "");
+		Config.assign("benchmark", props, false);
+		HttpCaller.setup(Config.port());
+		url = stub.url() + "/api/users/7";
+		caller = new HttpCaller();
+		users = new UserService();
+	}
+
+	@TearDown
+	public void stop() {
+		stub.stop();
+	}
+
+	@Benchmark
+	public byte[] restAssuredGet() {
+		return given().header("Accept", "application/json").get(url).asByteArray();
+	}
+
+	@Benchmark
+	public byte[] httpCallerGet() throws Exception {
+		return caller.doGet("/api/users/7", 200).extract().asByteArray();
+	}
+
+	@Benchmark
+	public byte[] httpCallerPost() throws Exception {
+		return caller.doPost("/api/users", USER, 201).extract().asByteArray();
+	}
+
+	@Benchmark
+	public User httpCallerGetAndMap() throws Exception {
+		return users.fetch(caller);
+	}
+}
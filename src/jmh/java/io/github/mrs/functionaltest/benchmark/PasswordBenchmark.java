@@ -0,0 +1,56 @@
+package io.github.mrs.functionaltest.benchmark;
+
+import io.github.mrs.functionaltest.utils.PasswordHelper;
+
+import java.security.SecureRandom;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * A reused <tt>PasswordHelper</tt> against building a <tt>SecureRandom</tt> and the alphabets for every password,
+ * as <tt>generatePassword</tt> used to, from several threads as when provisioning users in bulk.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class PasswordBenchmark {
+
+	@Benchmark
+	public String perCall() {
+		final char[] lowercase = "abcdefghijklmnopqrstuvwxyz".toCharArray();
+		final char[] uppercase = "ABCDEFGJKLMNPRSTUVWXYZ".toCharArray();
+		final char[] numbers = "0123456789".toCharArray();
+		final char[] symbols = "^$?!@#%&".toCharArray();
+		final char[] allAllowed = "abcdefghijklmnopqrstuvwxyzABCDEFGJKLMNPRSTUVWXYZ0123456789^$?!@#%&".toCharArray();
+		Random random = new SecureRandom();
+		StringBuilder password = new StringBuilder(12);
+		password.append(lowercase[random.nextInt(lowercase.length)]);
+		password.append(uppercase[random.nextInt(uppercase.length)]);
+		password.append(numbers[random.nextInt(numbers.length)]);
+		password.append(symbols[random.nextInt(symbols.length)]);
+		for (int i = password.length(); i < 12; i++) {
+			password.append(allAllowed[random.nextInt(allAllowed.length)]);
+		}
+		return password.toString();
+	}
+
+	@Benchmark
+	public String reused() {
+		return PasswordHelper.DEFAULT.generate(12);
+	}
+}
@@ -0,0 +1,94 @@
+package io.github.mrs.functionaltest.benchmark;
+
+import io.github.mrs.functionaltest.Serializer;
+import io.github.mrs.functionaltest.utils.JsonCodecs;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.google.gson.Gson;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Serializing and deserializing a typical list response with a Gson per call, as <tt>Serializer.toJson</tt> and
+ * <tt>ServiceArea.fromJson</tt> used to, against the shared {@link JsonCodecs}. Run with <tt>-prof gc</tt> to
+ * compare allocation per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+	public static class User {
+		int id;
+		String email;
+		String first_name;
+		String last_name;
+		String avatar;
+	}
+
+	public static class UserPage extends Serializer {
+		int page = 1;
+		int per_page = 20;
+		int total = 20;
+		int total_pages = 1;
+		List<User> data = new ArrayList<>();
+
+		@Override
+		public String[] getDeletionIdentifiers() {
+			return new String[0];
+		}
+	}
+
+	private UserPage page;
+	private String json;
+
+	@Setup
+	public void setup() {
+		page = new UserPage();
+		for (int i = 0; i < page.per_page; i++) {
+			User user = new User();
+			user.id = i;
+			user.email = "user" + i + "@example.com";
+			user.first_name = "First" + i;
+			user.last_name = "Last" + i;
+			user.avatar = "https://example.com/avatars/" + i + ".png";
+			page.data.add(user);
+		}
+		json = page.toJson();
+	}
+
+	@Benchmark
+	public String toJsonNewGson() {
+		return new Gson().toJson(page);
+	}
+
+	@Benchmark
+	public String toJsonShared() {
+		return page.toJson();
+	}
+
+	@Benchmark
+	public UserPage fromJsonNewGson() {
+		return new Gson().fromJson(json, UserPage.class);
+	}
+
+	@Benchmark
+	public UserPage fromJsonShared() {
+		return JsonCodecs.defaults().fromJson(json, UserPage.class);
+	}
+}
@@ -0,0 +1,102 @@
+package io.github.mrs.functionaltest.benchmark;
+
+import io.github.mrs.functionaltest.Serializer;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.lang3.builder.EqualsBuilder;
+import org.apache.commons.lang3.builder.HashCodeBuilder;
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * <tt>Serializer</tt>'s cached field plans against the commons-lang reflection builders they replace, on a
+ * response-sized object.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializerEqualityBenchmark {
+
+	public static class Account extends Serializer {
+		String id;
+		String email;
+		String firstName;
+		String lastName;
+		int age;
+		boolean active;
+		long createdAt;
+		List<String> roles;
+
+		@Override
+		public String[] getDeletionIdentifiers() {
+			return new String[] { id };
+		}
+	}
+
+	private Account lhs;
+	private Account rhs;
+
+	@Setup
+	public void setup() {
+		lhs = account();
+		rhs = account();
+	}
+
+	private static Account account() {
+		Account account = new Account();
+		account.id = "3f2a8c1e-9a77-4bd2-8d7e-5d0c7f6b1a22";
+		account.email = "jane.doe@example.com";
+		account.firstName = "Jane";
+		account.lastName = "Doe";
+		account.age = 34;
+		account.active = true;
+		account.createdAt = 1_650_000_000_000L;
+		account.roles = Arrays.asList("admin", "proctor");
+		return account;
+	}
+
+	@Benchmark
+	public boolean equalsReflective() {
+		return EqualsBuilder.reflectionEquals(lhs, rhs);
+	}
+
+	@Benchmark
+	public boolean equalsPlanned() {
+		return lhs.equals(rhs);
+	}
+
+	@Benchmark
+	public int hashCodeReflective() {
+		return HashCodeBuilder.reflectionHashCode(lhs);
+	}
+
+	@Benchmark
+	public int hashCodePlanned() {
+		return lhs.hashCode();
+	}
+
+	@Benchmark
+	public String toStringReflective() {
+		return ToStringBuilder.reflectionToString(lhs);
+	}
+
+	@Benchmark
+	public String toStringPlanned() {
+		return lhs.toString();
+	}
+}
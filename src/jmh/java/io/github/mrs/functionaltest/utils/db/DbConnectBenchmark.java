@@ -0,0 +1,83 @@
+package io.github.mrs.functionaltest.utils.db;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * <tt>DbConnect</tt> queries against an in-memory H2 database from several threads, so the numbers are the
+ * library's pooling, statement reuse and row mapping rather than a database server. Lives next to
+ * <tt>DbConnect</tt> because <tt>DatabaseConfig</tt> is only built from within the package.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class DbConnectBenchmark {
+
+  private static final int USERS = 10_000;
+
+  private DbConnect db;
+
+  @Setup
+  public void setup() throws Exception {
+    Properties props = new Properties();
+    props.setProperty("db.bench.jdbcUrl", "jdbc:h2:mem:bench;DB_CLOSE_DELAY=-1");
+    props.setProperty("db.bench.username", "sa");
+    props.setProperty("db.bench.password", "");
+    props.setProperty("db.bench.pool.maxSize", "4");
+    db = DbConnect.getInstance(new DatabaseConfig("bench", props));
+    db.executeUpdate("CREATE TABLE users (id INT PRIMARY KEY, name VARCHAR(50), active BOOLEAN)");
+    List<Object[]> rows = new ArrayList<>();
+    for (int i = 0; i < USERS; i++) {
+      rows.add(new Object[] { i, "user" + i, i % 3 != 0 });
+    }
+    db.batchUpdate("INSERT INTO users VALUES (?, ?, ?)", rows);
+  }
+
+  @TearDown
+  public void release() throws Exception {
+    db.executeUpdate("DROP TABLE users");
+    db.release();
+  }
+
+  @Benchmark
+  public long countById() throws Exception {
+    return db.count("SELECT * FROM users WHERE id = ?", ThreadLocalRandom.current().nextInt(USERS));
+  }
+
+  @Benchmark
+  public List<String> streamPage() throws Exception {
+    int from = ThreadLocalRandom.current().nextInt(USERS - 50);
+    try (Stream<String> names = db.stream("SELECT name FROM users WHERE id >= ? AND id < ? AND active = ?",
+        rs -> rs.getString(1), from, from + 50, true)) {
+      return names.collect(Collectors.toList());
+    }
+  }
+
+  @Benchmark
+  public int updateById() throws Exception {
+    int id = ThreadLocalRandom.current().nextInt(USERS);
+    return db.update("UPDATE users SET name = ? WHERE id = ?", "renamed" + id, id);
+  }
+}
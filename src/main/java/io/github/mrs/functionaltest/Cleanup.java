@@ -1,14 +1,22 @@
 package io.github.mrs.functionaltest;
 
+import io.github.mrs.functionaltest.utils.VirtualThreads;
+
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 public class Cleanup {
 	protected static final Logger LOGGER = LogManager.getLogger(Cleanup.class);
 
-	private static List<ServiceCleanup> cleanupImplementations = new ArrayList<>();
+	// registration is rare and may happen from any test thread, iteration happens once at the end
+	private static final List<ServiceCleanup> cleanupImplementations = new CopyOnWriteArrayList<>();
 
 	/**
 	 * Register a service-specific cleanup instance to invoke once we're all done
@@ -22,15 +30,99 @@ public class Cleanup {
 
 	/**
 	 * Run through all cleanup activities, one per Redwood service.
+	 *
+	 * Cleanups run concurrently, except that a cleanup waits for everything named in its
+	 * {@link ServiceCleanup#runsAfter()} to finish first. If those dependencies form a cycle we fall back to
+	 * running every cleanup one at a time in registration order.
 	 */
 	public static void run() {
-		// Order here shouldn't matter since every service manages its own tables and FKs, so it winds up being FIFO
-		for (ServiceCleanup sc : cleanupImplementations) {
-			try {
-				sc.run();
-			} catch (Exception e) {
-				LOGGER.error("Failed to complete cleanup activities for class: " + sc.getClass().getSimpleName(), e);
+		run(new ArrayList<>(cleanupImplementations));
+	}
+
+	static void run(List<ServiceCleanup> cleanups) {
+		if (cleanups.isEmpty()) {
+			return;
+		}
+
+		Map<ServiceCleanup, List<ServiceCleanup>> dependencies = dependencies(cleanups);
+		if (hasCycle(cleanups, dependencies)) {
+			LOGGER.error("Cleanup dependencies form a cycle, running cleanups one at a time in registration order");
+			cleanups.forEach(Cleanup::runOne);
+			return;
+		}
+
+		ExecutorService executor = VirtualThreads.newExecutor("cleanup-", cleanups.size());
+		try {
+			Map<ServiceCleanup, CompletableFuture<Void>> scheduled = new IdentityHashMap<>();
+			for (ServiceCleanup sc : cleanups) {
+				schedule(sc, dependencies, scheduled, executor);
+			}
+			CompletableFuture.allOf(scheduled.values().toArray(new CompletableFuture<?>[0])).join();
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	private static CompletableFuture<Void> schedule(ServiceCleanup sc, Map<ServiceCleanup, List<ServiceCleanup>> dependencies,
+			Map<ServiceCleanup, CompletableFuture<Void>> scheduled, ExecutorService executor) {
+		CompletableFuture<Void> future = scheduled.get(sc);
+		if (future == null) {
+			CompletableFuture<?>[] before = dependencies.get(sc).stream()
+					.map(dependency -> schedule(dependency, dependencies, scheduled, executor))
+					.toArray(CompletableFuture[]::new);
+			future = CompletableFuture.allOf(before).thenRunAsync(() -> runOne(sc), executor);
+			scheduled.put(sc, future);
+		}
+		return future;
+	}
+
+	private static void runOne(ServiceCleanup sc) {
+		try {
+			sc.run();
+		} catch (Exception | AssertionError e) {
+			LOGGER.error("Failed to complete cleanup activities for class: " + sc.getClass().getSimpleName(), e);
+		}
+	}
+
+	private static Map<ServiceCleanup, List<ServiceCleanup>> dependencies(List<ServiceCleanup> cleanups) {
+		Map<ServiceCleanup, List<ServiceCleanup>> dependencies = new IdentityHashMap<>();
+		for (ServiceCleanup sc : cleanups) {
+			List<ServiceCleanup> before = new ArrayList<>();
+			for (Class<? extends ServiceCleanup> clazz : sc.runsAfter()) {
+				for (ServiceCleanup other : cleanups) {
+					if (other != sc && clazz.isInstance(other)) {
+						before.add(other);
+					}
+				}
+			}
+			dependencies.put(sc, before);
+		}
+		return dependencies;
+	}
+
+	private static boolean hasCycle(List<ServiceCleanup> cleanups, Map<ServiceCleanup, List<ServiceCleanup>> dependencies) {
+		Map<ServiceCleanup, Boolean> visiting = new IdentityHashMap<>();  // true while on the current path, false once done
+		for (ServiceCleanup sc : cleanups) {
+			if (hasCycle(sc, dependencies, visiting)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static boolean hasCycle(ServiceCleanup sc, Map<ServiceCleanup, List<ServiceCleanup>> dependencies,
+			Map<ServiceCleanup, Boolean> visiting) {
+		Boolean state = visiting.get(sc);
+		if (state != null) {
+			return state;
+		}
+		visiting.put(sc, true);
+		for (ServiceCleanup dependency : dependencies.get(sc)) {
+			if (hasCycle(dependency, dependencies, visiting)) {
+				return true;
 			}
 		}
+		visiting.put(sc, false);
+		return false;
 	}
 }
@@ -1,28 +1,141 @@
 package io.github.mrs.functionaltest;
 
 import com.github.javafaker.Faker;
+import com.github.javafaker.service.FakeValuesService;
+import com.github.javafaker.service.RandomService;
 import io.github.mrs.functionaltest.utils.PasswordHelper;
 
 import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDate;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
 import java.util.UUID;
-import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
 
 import org.apache.commons.lang3.RandomStringUtils;
 import org.apache.commons.lang3.StringUtils;
 
+/**
+ * Fake values for test data. Safe to share between test threads: each thread generates from its own Faker and
+ * random source.
+ *
+ * Construct with a seed to make values reproducible. Each thread's sequence then depends only on the seed and
+ * the thread's name, and the bulk streams such as {@link #emails(long)} depend only on the seed and each
+ * element's position, even when run in parallel. The unique values ({@link #username()}, {@link #uniqueEmail()},
+ * {@link #uniqueId()}) get their suffixes from {@link UniqueValues}, which a seed doesn't affect.
+ */
 public class FakeData {
 
+	private static final String[] NOT_A_TABLE = new String[0];
+	// plain value lists from the faker YAML, so resolve-based fakes skip key lookup and expression parsing
+	private static final Map<String, String[]> TABLES = new ConcurrentHashMap<>();
+
+	/**
+	 * Single Faker created with this instance; not thread-safe, so prefer {@link #faker()}.
+	 */
 	protected final Faker faker = new Faker();
 
+	private final Long seed;
+	private final ThreadLocal<Generator> generators = ThreadLocal.withInitial(this::newGenerator);
+
+	public FakeData() {
+		this.seed = null;
+	}
+
+	/**
+	 * @param seed makes every generated value reproducible, see class docs
+	 */
+	public FakeData(long seed) {
+		this.seed = seed;
+	}
+
+	/**
+	 * @return Faker for the current thread
+	 */
+	protected Faker faker() {
+		return generators.get().faker;
+	}
+
+	/**
+	 * @return random source for the current thread, shared with {@link #faker()}
+	 */
+	protected Random random() {
+		return generators.get().random;
+	}
+
+	// bulk generation
+
+	/**
+	 * Generate rows lazily, e.g. for seeding a database or load test fixtures.
+	 *
+	 * @param count number of rows
+	 * @param row builds one row from this instance
+	 * @return stream of rows; with a seed, row <tt>i</tt> is the same on every run, sequential or parallel
+	 */
+	public <T> Stream<T> stream(long count, Function<? super FakeData, ? extends T> row) {
+		if (seed == null) {
+			return LongStream.range(0, count).mapToObj(index -> row.apply(this));
+		}
+		// reseeded per row, and swapped in only while a row is built so the thread's own sequence carries on after
+		ThreadLocal<Generator> rows = ThreadLocal.withInitial(() -> new Generator(new Random()));
+		return LongStream.range(0, count).mapToObj(index -> {
+			Generator generator = rows.get();
+			generator.random.setSeed(mix(seed, index));
+			Generator previous = generators.get();
+			generators.set(generator);
+			try {
+				return row.apply(this);
+			} finally {
+				generators.set(previous);
+			}
+		});
+	}
+
+	public Stream<String> emails(long count) {
+		return stream(count, FakeData::email);
+	}
+
+	public Stream<String> firstNames(long count) {
+		return stream(count, FakeData::firstName);
+	}
+
+	public Stream<String> lastNames(long count) {
+		return stream(count, FakeData::lastName);
+	}
+
+	public Stream<String> fullNames(long count) {
+		return stream(count, FakeData::fullName);
+	}
+
+	public Stream<String> usernames(long count) {
+		return stream(count, FakeData::username);
+	}
+
+	public Stream<String> uuids(long count) {
+		return stream(count, FakeData::uuid);
+	}
+
+	public Stream<String> uniqueEmails(long count) {
+		return stream(count, FakeData::uniqueEmail);
+	}
+
+	public Stream<String> uniqueIds(long count) {
+		return stream(count, FakeData::uniqueId);
+	}
+
 	// general string manipulations
 
 	/**
 	 * @return random breed of cat
 	 */
 	public String cat() {
-		return faker.cat().breed();
+		return faker().cat().breed();
 	}
 
 	/**
@@ -30,7 +143,7 @@ public class FakeData {
 	 * @return string with random letters
 	 */
 	public String letters(int length) {
-		return RandomStringUtils.randomAlphabetic(length);
+		return RandomStringUtils.random(length, 0, 0, true, false, null, random());
 	}
 
 	public String password(int length) {
@@ -56,7 +169,7 @@ public class FakeData {
 	 * @return random int
 	 */
 	public int number(int lowerBound, int upperBound) {
-		return ThreadLocalRandom.current().nextInt(lowerBound, upperBound + 1);
+		return lowerBound + random().nextInt(upperBound - lowerBound + 1);
 	}
 
 	/**
@@ -68,13 +181,7 @@ public class FakeData {
 	 * @return padded string
 	 */
 	public String padTo(String s, int desiredLength) {
-		if (s.length() < desiredLength) {
-			int padCount = desiredLength - s.length();
-			for (int i = 1; i <= padCount; i++) {
-				s += '*';
-			}
-		}
-		return s;
+		return StringUtils.rightPad(s, desiredLength, '*');
 	}
 
 	public String trimmed(String s, int maxLength) {
@@ -86,43 +193,50 @@ public class FakeData {
 	}
 
 	public String numbers(int length) {
-		return RandomStringUtils.randomNumeric(length);
+		return RandomStringUtils.random(length, 0, 0, false, true, null, random());
 	}
 
 	// general fakes
 
 	public String beer() {
-		return faker.beer().style();
+		return faker().beer().style();
 	}
 
 	public String coffee() {
-		return faker.resolve("coffee.variety");
+		return pick("coffee.variety");
 	}
 
 	public String coffeeBody() {
-		return faker.resolve("coffee.body");
+		return pick("coffee.body");
 	}
 
 	public String coffeeDescriptor() {
-		return faker.resolve("coffee.descriptor");
+		return pick("coffee.descriptor");
 	}
 
-	public String color() { return faker.color().name(); }
+	public String color() { return faker().color().name(); }
 
 	public String ingredient() {
-		return faker.food().ingredient();
+		return faker().food().ingredient();
 	}
 
 	public String uuid() {
-		return UUID.randomUUID().toString();
+		if (seed == null) {
+			return UUID.randomUUID().toString();
+		}
+		// version 4 layout from the seeded source, so seeded runs get the same ids
+		Random random = random();
+		long most = (random.nextLong() & ~0xF000L) | 0x4000L;
+		long least = (random.nextLong() & ~(0xC000L << 48)) | (0x8000L << 48);
+		return new UUID(most, least).toString();
 	}
 
 	public String vegetable() {
-		return faker.resolve("food.vegetables");
+		return pick("food.vegetables");
 	}
 
 	public String verb() {
-		return faker.resolve("verbs.base");
+		return pick("verbs.base");
 	}
 
 	public String addToCurrentUTC(int units) {
@@ -154,59 +268,146 @@ public class FakeData {
 	}
 
 	public String firstName() {
-		return faker.name().firstName();
+		return faker().name().firstName();
 	}
 
 	public String lastName() {
-		return faker.name().lastName();
+		return faker().name().lastName();
 	}
 
 	public String fullName() {
-		return faker.name().fullName();
+		return faker().name().fullName();
 	}
 
+	/**
+	 * @return name-based username, unique within the run, see {@link UniqueValues}
+	 */
 	public String username() {
-		return (firstName().concat(lastName()).concat(numbers(6))).toLowerCase();
+		return alphanumeric(firstName().concat(lastName())).concat(UniqueValues.token());
+	}
+
+	/**
+	 * @return name-based email address whose local part is unique within the run
+	 */
+	public String uniqueEmail() {
+		return alphanumeric(firstName()) + "." + alphanumeric(lastName()) + "." + UniqueValues.token()
+				+ "@" + faker().internet().domainName();
+	}
+
+	/**
+	 * @return UUID-formatted id, unique within the run; unlike {@link #uuid()} these are never random
+	 */
+	public String uniqueId() {
+		return UniqueValues.uuid().toString();
 	}
 
 	public String title() {
-		return faker.name().title();
+		return faker().name().title();
 	}
 
 	public String city() {
-		return faker.address().city();
+		return faker().address().city();
 	}
 
 	public String country() {
-		return faker.address().country();
+		return faker().address().country();
 	}
 
 	public String countryCode() {
-		return faker.address().countryCode();
+		return faker().address().countryCode();
 	}
 
 	public String fullAddress() {
-		return faker.address().fullAddress();
+		return faker().address().fullAddress();
 	}
 
 	public String stateAbbr() {
-		return faker.address().stateAbbr();
+		return faker().address().stateAbbr();
 	}
 
 	public String state() {
-		return faker.address().state();
+		return faker().address().state();
 	}
 
 	public String address() {
-		return faker.address().streetAddress();
+		return faker().address().streetAddress();
 	}
 
 	public String zipCode(String stateAbbr) {
-		return faker.address().zipCodeByState(stateAbbr);
+		return faker().address().zipCodeByState(stateAbbr);
 	}
 
 	public String email() {
-		return faker.internet().emailAddress();
+		return faker().internet().emailAddress();
+	}
+
+	private static String alphanumeric(String s) {
+		StringBuilder out = new StringBuilder(s.length());
+		for (int i = 0; i < s.length(); i++) {
+			char c = Character.toLowerCase(s.charAt(i));
+			if ((c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')) {
+				out.append(c);
+			}
+		}
+		return out.toString();
 	}
 
+	private String pick(String key) {
+		String[] table = TABLES.computeIfAbsent(key, FakeData::table);
+		if (table == NOT_A_TABLE) {
+			return faker().resolve(key);
+		}
+		return table[random().nextInt(table.length)];
+	}
+
+	private static String[] table(String key) {
+		Object values = ValuesHolder.VALUES.fetchObject(key);
+		if (!(values instanceof List) || ((List<?>) values).isEmpty()) {
+			return NOT_A_TABLE;
+		}
+		String[] table = new String[((List<?>) values).size()];
+		int i = 0;
+		for (Object value : (List<?>) values) {
+			// anything with placeholders still needs Faker to expand it
+			if (!(value instanceof String) || ((String) value).contains("#") || ((String) value).contains("?")) {
+				return NOT_A_TABLE;
+			}
+			table[i++] = (String) value;
+		}
+		return table;
+	}
+
+	private Generator newGenerator() {
+		Random random;
+		if (seed == null) {
+			random = new Random();
+		} else {
+			Thread thread = Thread.currentThread();
+			String name = thread.getName();
+			random = new Random(mix(seed, name.isEmpty() ? thread.getId() : name.hashCode()));
+		}
+		return new Generator(random);
+	}
+
+	// spreads nearby seeds apart, the finalizer from SplittableRandom
+	private static long mix(long seed, long salt) {
+		long z = seed + 0x9E3779B97F4A7C15L * (salt + 1);
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+
+	private static final class Generator {
+		private final Random random;
+		private final Faker faker;
+
+		Generator(Random random) {
+			this.random = random;
+			this.faker = new Faker(random);
+		}
+	}
+
+	private static final class ValuesHolder {
+		private static final FakeValuesService VALUES = new FakeValuesService(Locale.ENGLISH, new RandomService());
+	}
 }
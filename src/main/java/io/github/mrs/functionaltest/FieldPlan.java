@@ -0,0 +1,279 @@
+package io.github.mrs.functionaltest;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+import org.apache.commons.lang3.builder.EqualsExclude;
+import org.apache.commons.lang3.builder.HashCodeExclude;
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.apache.commons.lang3.builder.ToStringExclude;
+import org.apache.commons.lang3.builder.ToStringSummary;
+
+/**
+ * Field-by-field equals, hashCode and toString for {@link Serializer}, matching commons-lang's
+ * <tt>reflectionEquals</tt>, <tt>reflectionHashCode</tt> and <tt>reflectionToString</tt> with default settings.
+ *
+ * The fields to visit are worked out once per class and read through method handles, instead of listing, sorting
+ * and unlocking them on every call. As with commons-lang, static and transient fields, synthetic fields such as
+ * <tt>this$0</tt>, and fields annotated <tt>@EqualsExclude</tt>, <tt>@HashCodeExclude</tt> or
+ * <tt>@ToStringExclude</tt> are skipped. Unlike commons-lang there's no cycle detection, which Gson-built objects
+ * never need. Classes with <tt>@ToStringSummary</tt> fields use commons-lang's toString.
+ */
+final class FieldPlan {
+
+	private static final ClassValue<FieldPlan> PLANS = new ClassValue<FieldPlan>() {
+		@Override
+		protected FieldPlan computeValue(Class<?> type) {
+			return new FieldPlan(type);
+		}
+	};
+
+	private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+	private final Accessor[] equalsFields;
+	private final Accessor[] hashCodeFields;
+	private final Accessor[] toStringFields;
+	private final boolean summarizedToString;
+
+	private FieldPlan(Class<?> type) {
+		List<Accessor> forEquals = new ArrayList<>();
+		List<Accessor> forHashCode = new ArrayList<>();
+		List<Accessor> forToString = new ArrayList<>();
+		boolean summarized = false;
+		// subclass fields first, each class's sorted by name, the same order commons-lang walks them in
+		for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+			Field[] fields = c.getDeclaredFields();
+			Arrays.sort(fields, Comparator.comparing(Field::getName));
+			for (Field field : fields) {
+				int modifiers = field.getModifiers();
+				if (field.getName().contains("$") || Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers)) {
+					continue;
+				}
+				Accessor accessor = new Accessor(field);
+				if (!field.isAnnotationPresent(EqualsExclude.class)) {
+					forEquals.add(accessor);
+				}
+				if (!field.isAnnotationPresent(HashCodeExclude.class)) {
+					forHashCode.add(accessor);
+				}
+				if (!field.isAnnotationPresent(ToStringExclude.class)) {
+					forToString.add(accessor);
+				}
+				summarized |= field.isAnnotationPresent(ToStringSummary.class);
+			}
+		}
+		this.equalsFields = forEquals.toArray(new Accessor[0]);
+		this.hashCodeFields = forHashCode.toArray(new Accessor[0]);
+		this.toStringFields = forToString.toArray(new Accessor[0]);
+		this.summarizedToString = summarized;
+	}
+
+	static boolean fieldsEqual(Object lhs, Object rhs) {
+		if (lhs == rhs) {
+			return true;
+		}
+		if (lhs == null || rhs == null) {
+			return false;
+		}
+		// compare on the more specific class when one extends the other, unrelated classes are never equal
+		Class<?> testClass;
+		if (lhs.getClass().isInstance(rhs)) {
+			testClass = rhs.getClass();
+		} else if (rhs.getClass().isInstance(lhs)) {
+			testClass = lhs.getClass();
+		} else {
+			return false;
+		}
+		for (Accessor field : PLANS.get(testClass).equalsFields) {
+			if (!field.declaringClass.isInstance(lhs) || !field.declaringClass.isInstance(rhs)) {
+				return false;
+			}
+			if (!valuesEqual(field.get(lhs), field.get(rhs))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	static int fieldsHashCode(Object object) {
+		int total = 17;
+		for (Accessor field : PLANS.get(object.getClass()).hashCodeFields) {
+			total = hash(total, field.get(object));
+		}
+		return total;
+	}
+
+	static String fieldsToString(Object object) {
+		FieldPlan plan = PLANS.get(object.getClass());
+		if (plan.summarizedToString) {
+			return ToStringBuilder.reflectionToString(object);
+		}
+		StringBuilder out = new StringBuilder(16 + 16 * plan.toStringFields.length)
+				.append(object.getClass().getName())
+				.append('@').append(Integer.toHexString(System.identityHashCode(object)))
+				.append('[');
+		for (int i = 0; i < plan.toStringFields.length; i++) {
+			Accessor field = plan.toStringFields[i];
+			if (i > 0) {
+				out.append(',');
+			}
+			out.append(field.name).append('=');
+			appendValue(out, field.get(object));
+		}
+		return out.append(']').toString();
+	}
+
+	private static boolean valuesEqual(Object lhs, Object rhs) {
+		if (lhs == rhs) {
+			return true;
+		}
+		if (lhs == null || rhs == null) {
+			return false;
+		}
+		if (!lhs.getClass().isArray()) {
+			return lhs.equals(rhs);
+		}
+		if (lhs.getClass() != rhs.getClass()) {
+			return false;
+		}
+		if (lhs instanceof Object[]) {
+			Object[] left = (Object[]) lhs;
+			Object[] right = (Object[]) rhs;
+			if (left.length != right.length) {
+				return false;
+			}
+			for (int i = 0; i < left.length; i++) {
+				if (!valuesEqual(left[i], right[i])) {
+					return false;
+				}
+			}
+			return true;
+		}
+		if (lhs instanceof long[]) {
+			return Arrays.equals((long[]) lhs, (long[]) rhs);
+		}
+		if (lhs instanceof int[]) {
+			return Arrays.equals((int[]) lhs, (int[]) rhs);
+		}
+		if (lhs instanceof short[]) {
+			return Arrays.equals((short[]) lhs, (short[]) rhs);
+		}
+		if (lhs instanceof char[]) {
+			return Arrays.equals((char[]) lhs, (char[]) rhs);
+		}
+		if (lhs instanceof byte[]) {
+			return Arrays.equals((byte[]) lhs, (byte[]) rhs);
+		}
+		if (lhs instanceof double[]) {
+			return Arrays.equals((double[]) lhs, (double[]) rhs);
+		}
+		if (lhs instanceof float[]) {
+			return Arrays.equals((float[]) lhs, (float[]) rhs);
+		}
+		return Arrays.equals((boolean[]) lhs, (boolean[]) rhs);
+	}
+
+	// same arithmetic as HashCodeBuilder(17, 37).append(...)
+	private static int hash(int total, Object value) {
+		if (value == null) {
+			return total * 37;
+		}
+		if (!value.getClass().isArray()) {
+			return total * 37 + value.hashCode();
+		}
+		if (value instanceof Object[]) {
+			for (Object element : (Object[]) value) {
+				total = hash(total, element);
+			}
+		} else if (value instanceof long[]) {
+			for (long element : (long[]) value) {
+				total = total * 37 + (int) (element ^ (element >> 32));
+			}
+		} else if (value instanceof double[]) {
+			for (double element : (double[]) value) {
+				long bits = Double.doubleToLongBits(element);
+				total = total * 37 + (int) (bits ^ (bits >> 32));
+			}
+		} else if (value instanceof float[]) {
+			for (float element : (float[]) value) {
+				total = total * 37 + Float.floatToIntBits(element);
+			}
+		} else if (value instanceof boolean[]) {
+			for (boolean element : (boolean[]) value) {
+				total = total * 37 + (element ? 0 : 1);
+			}
+		} else {
+			// int, short, char and byte all add their numeric value
+			for (int i = 0, length = Array.getLength(value); i < length; i++) {
+				Object element = Array.get(value, i);
+				total = total * 37 + (element instanceof Character ? (Character) element : ((Number) element).intValue());
+			}
+		}
+		return total;
+	}
+
+	// same text as ToStringStyle.DEFAULT_STYLE: arrays and non-empty collections as {a,b}, everything else toString
+	private static void appendValue(StringBuilder out, Object value) {
+		if (value == null) {
+			out.append("<null>");
+		} else if (value.getClass().isArray()) {
+			out.append('{');
+			for (int i = 0, length = Array.getLength(value); i < length; i++) {
+				if (i > 0) {
+					out.append(',');
+				}
+				appendValue(out, Array.get(value, i));
+			}
+			out.append('}');
+		} else if (value instanceof Collection && !((Collection<?>) value).isEmpty()) {
+			out.append('{');
+			boolean first = true;
+			for (Object element : (Collection<?>) value) {
+				if (!first) {
+					out.append(',');
+				}
+				first = false;
+				appendValue(out, element);
+			}
+			out.append('}');
+		} else {
+			out.append(value);
+		}
+	}
+
+	private static final class Accessor {
+		private final String name;
+		private final Class<?> declaringClass;
+		private final MethodHandle getter;
+
+		Accessor(Field field) {
+			this.name = field.getName();
+			this.declaringClass = field.getDeclaringClass();
+			try {
+				field.setAccessible(true);
+				this.getter = MethodHandles.lookup().unreflectGetter(field).asType(GETTER_TYPE);
+			} catch (IllegalAccessException e) {
+				throw new IllegalStateException("Can't read field " + declaringClass.getName() + "." + name, e);
+			}
+		}
+
+		Object get(Object target) {
+			try {
+				return (Object) getter.invokeExact(target);
+			} catch (RuntimeException | Error e) {
+				throw e;
+			} catch (Throwable e) {
+				throw new IllegalStateException("Can't read field " + declaringClass.getName() + "." + name, e);
+			}
+		}
+	}
+}
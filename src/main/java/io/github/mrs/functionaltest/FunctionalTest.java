@@ -2,28 +2,36 @@ package io.github.mrs.functionaltest;
 
 import io.github.mrs.functionaltest.utils.Config;
 import io.github.mrs.functionaltest.utils.HttpCaller;
+import io.github.mrs.functionaltest.utils.cache.ResponseCache;
+import io.github.mrs.functionaltest.utils.metrics.RequestMetrics;
+import io.github.mrs.functionaltest.utils.stub.StubServer;
+import io.github.mrs.functionaltest.utils.traffic.TrafficCapture;
+import io.github.mrs.functionaltest.utils.traffic.TrafficRecorder;
 import com.google.gson.JsonElement;
 
 import io.restassured.RestAssured;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Collections;
 import java.util.List;
 import java.util.Properties;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
-import io.restassured.filter.log.RequestLoggingFilter;
-import io.restassured.filter.log.ResponseLoggingFilter;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.testng.annotations.AfterSuite;
 import org.testng.annotations.AfterTest;
 import org.testng.annotations.BeforeSuite;
 
 public abstract class FunctionalTest {
 	protected static final Logger LOGGER = LogManager.getLogger(FunctionalTest.class);
 
+	private static volatile StubServer stubServer;
+
 	/**
 	 * Run global setup routines, including pulling the environment these tests will run against
 	 * from the environment variable <tt>FUNCTIONAL_ENV</tt> or the system property <tt>functional.env</tt>
@@ -40,16 +48,60 @@ public abstract class FunctionalTest {
 			throw new IllegalArgumentException("No test environment provided in either [Env: FUNCTIONAL_ENV] or [Prop: functional.env]");
 		}
 		Properties props = readProperties(environment);
+		if ("true".equalsIgnoreCase(envOrProperty("FUNCTIONAL_STUB", "functional.stub"))
+				|| "true".equalsIgnoreCase(props.getProperty("stub.enabled"))) {
+			startStubServer(props);
+		}
 	        RestAssured.enableLoggingOfRequestAndResponseIfValidationFails();
+		// debug traffic is recorded to test-output/traffic.log by HttpCaller.setup
 		boolean isDebug = "true".equalsIgnoreCase(envOrProperty("FUNCTIONAL_DEBUG", "functional.debug"));
-		if (isDebug) {
-			RestAssured.filters(new RequestLoggingFilter(), new ResponseLoggingFilter());
-		}
 		Config.assign(environment, props, isDebug);
         assignExtraProperties(props);
 		HttpCaller.setup(Config.port());
 	}
 
+	/**
+	 * Start the in-process stub server, point <tt>base.url</tt> at it and register the routes of every
+	 * {@link #stubbedServices()} area. Latency and errors to inject come from <tt>stub.*</tt> properties.
+	 */
+	private void startStubServer(Properties props) {
+		try {
+			stubServer = StubServer.start(StubServer.Faults.fromProperties(props));
+		} catch (IOException e) {
+			throw new UncheckedIOException("Failed to start stub server", e);
+		}
+		props.setProperty("base.url", stubServer.url());
+		stubbedServices().forEach(service -> service.stubRoutes(stubServer));
+		LOGGER.info("OK: Running against stub server at {} instead of a live backend", stubServer.url());
+	}
+
+	/**
+	 * Override to list the service areas whose {@link ServiceArea#stubRoutes} to register when the suite runs
+	 * against the stub server, enabled with <tt>FUNCTIONAL_STUB</tt>, <tt>functional.stub</tt> or the
+	 * <tt>stub.enabled</tt> property.
+	 *
+	 * @return service areas to stub, none by default
+	 */
+	protected List<ServiceArea<?>> stubbedServices() {
+		return Collections.emptyList();
+	}
+
+	/**
+	 * @return stub server the suite runs against, null when it runs against a live backend
+	 */
+	protected static StubServer stubServer() {
+		return stubServer;
+	}
+
+	@AfterSuite(alwaysRun = true)
+	public void stopStubServer() {
+		StubServer stub = stubServer;
+		if (stub != null) {
+			stubServer = null;
+			stub.stop();
+		}
+	}
+
 	@AfterTest(alwaysRun = true)
 	public void cleanup() throws Exception {
 		LOGGER.info("Cleaning up created data...");
@@ -57,12 +109,30 @@ public abstract class FunctionalTest {
 		LOGGER.info("OK: Cleanup done");
 	}
 
-	protected String envOrProperty(String environmentVariableName, String propertyName) {
-		String value = System.getenv(environmentVariableName);
-		if (StringUtils.isBlank(value)) {
-			value = System.getProperty(propertyName);
+	/**
+	 * Log per-endpoint request latencies gathered during the suite and write them to
+	 * <tt>test-output/request-latencies.json</tt>, then fail the suite if any <tt>slo.*</tt> latency budget
+	 * from the environment properties was exceeded. Response cache counters are logged too when caching is on.
+	 */
+	@AfterSuite(alwaysRun = true)
+	public void reportRequestLatencies() {
+		if (ResponseCache.isEnabled()) {
+			LOGGER.info("Response cache: {}", ResponseCache.stats());
 		}
-		return value;
+		Config.latencyBudgets().verify(RequestMetrics.report());
+	}
+
+	/**
+	 * Finish writing the debug traffic log, if one is being recorded.
+	 */
+	@AfterSuite(alwaysRun = true)
+	public void closeTrafficLog() {
+		TrafficRecorder.stop();
+		TrafficCapture.stop();
+	}
+
+	protected String envOrProperty(String environmentVariableName, String propertyName) {
+		return Config.envOrProperty(environmentVariableName, propertyName);
 	}
 
 	public Properties readProperties(String environment)  {
@@ -1,31 +1,48 @@
 package io.github.mrs.functionaltest;
 
-import com.google.gson.Gson;
+import io.github.mrs.functionaltest.utils.JsonCodecs;
 
-import org.apache.commons.lang3.builder.EqualsBuilder;
-import org.apache.commons.lang3.builder.HashCodeBuilder;
-import org.apache.commons.lang3.builder.ToStringBuilder;
+import com.google.gson.Gson;
 
 public abstract class Serializer {
 
 	public String toJson() {
-		return new Gson().toJson(this);
+		return gson().toJson(this);
+	}
+
+	/**
+	 * Override to serialize this class with a codec registered in {@link JsonCodecs}.
+	 *
+	 * @return codec used by {@link #toJson()}
+	 */
+	protected Gson gson() {
+		return JsonCodecs.defaults();
 	}
 
 	public abstract String[] getDeletionIdentifiers();
 
+	/**
+	 * Compares every non-static, non-transient field, with the same results as commons-lang's
+	 * <tt>EqualsBuilder.reflectionEquals</tt>.
+	 */
 	@Override
 	public boolean equals(Object other) {
-		return EqualsBuilder.reflectionEquals(this, other);
+		return FieldPlan.fieldsEqual(this, other);
 	}
 
+	/**
+	 * Same value as commons-lang's <tt>HashCodeBuilder.reflectionHashCode</tt>.
+	 */
 	@Override
 	public int hashCode() {
-		return HashCodeBuilder.reflectionHashCode(this);
+		return FieldPlan.fieldsHashCode(this);
 	}
 
+	/**
+	 * Same text as commons-lang's <tt>ToStringBuilder.reflectionToString</tt>.
+	 */
 	@Override
 	public String toString() {
-		return ToStringBuilder.reflectionToString(this);
+		return FieldPlan.fieldsToString(this);
 	}
 }
@@ -1,13 +1,19 @@
 package io.github.mrs.functionaltest;
 
-import static io.restassured.module.jsv.JsonSchemaValidator.matchesJsonSchemaInClasspath;
-
 import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import io.github.mrs.functionaltest.utils.BatchRequest;
+import io.github.mrs.functionaltest.utils.BatchResult;
 import io.github.mrs.functionaltest.utils.HttpCaller;
+import io.github.mrs.functionaltest.utils.JsonCodecs;
+import io.github.mrs.functionaltest.utils.JsonStreams;
+import io.github.mrs.functionaltest.utils.SchemaValidators;
+import io.github.mrs.functionaltest.utils.stub.StubServer;
 import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 
@@ -29,13 +35,99 @@ public abstract class ServiceArea<T extends Serializer> {
 	 */
 	public abstract ValidatableResponse remove(Pair<HttpCaller,T> item) throws Exception;
 
+	/**
+	 * Override along with {@link #removeBulk} if the service has a batch delete endpoint.
+	 *
+	 * @return most items to send in a single {@link #removeBulk} call; 0 (the default) means no bulk support
+	 */
+	public int bulkRemoveSize() {
+		return 0;
+	}
+
+	/**
+	 * Remove a chunk of items with a single request, typically built from each item's
+	 * {@link Serializer#getDeletionIdentifiers()}. Only called when {@link #bulkRemoveSize()} is positive.
+	 *
+	 * @param caller caller the items were registered with
+	 * @param items items to remove, at most {@link #bulkRemoveSize()} of them
+	 * @return items that were not removed; these are retried one at a time through {@link #remove}
+	 * @throws Exception if the request fails outright, in which case every item in the chunk is retried
+	 */
+	public List<T> removeBulk(HttpCaller caller, List<T> items) throws Exception {
+		throw new UnsupportedOperationException("Bulk deletion not supported: " + this.getClass().getName());
+	}
+
+	/**
+	 * Create many items at once, e.g. to seed fixtures: each is serialized with {@link #gson()} and posted
+	 * concurrently through {@link HttpCaller#doBatch}.
+	 *
+	 * @param caller caller to post with
+	 * @param path path within the area to post each item to
+	 * @param items request bodies
+	 * @param expectedStatus status expected for each
+	 * @return one result per item, in the same order, with failures collected rather than thrown; map successful
+	 *     responses with {@link #fromJson} and register them for cleanup
+	 */
+	protected List<BatchResult> createAll(HttpCaller caller, String path, Collection<?> items, int expectedStatus) {
+		Gson gson = gson();
+		List<BatchRequest> requests = items.stream()
+				.map(item -> BatchRequest.post(path, gson.toJson(item), expectedStatus))
+				.collect(Collectors.toList());
+		return caller.doBatch(requests);
+	}
+
+	/**
+	 * Override to imitate this service on the stub server used when a suite runs without a live backend; see
+	 * {@link FunctionalTest#stubbedServices()}. Route paths are the same ones this area calls.
+	 *
+	 * @param stub server to register routes on
+	 */
+	public void stubRoutes(StubServer stub) {
+		// no routes by default
+	}
+
+	/**
+	 * Override to read and write this service's JSON with a codec registered in {@link JsonCodecs}.
+	 *
+	 * @return codec used by {@link #fromJson} and {@link #toJson(Object, Class)}
+	 */
+	protected Gson gson() {
+		return JsonCodecs.defaults();
+	}
+
 	/**
 	 * @param response response with JSON body
 	 * @param clazz class to turn the JSON into
 	 * @return instance
 	 */
 	protected <U> U fromJson(ValidatableResponse response, Class<U> clazz) {
-		return new Gson().fromJson(response.extract().body().asString(), clazz);
+		return JsonStreams.read(gson(), JsonStreams.reader(response), clazz);
+	}
+
+	/**
+	 * Map a response whose body is a JSON array one element at a time, reading the body as it arrives. The body
+	 * can't be read from the response again afterwards. Close the stream, or read it to the end, to release the
+	 * connection.
+	 *
+	 * @param response response with a JSON array body
+	 * @param elementType class of each element
+	 * @return lazy stream of elements
+	 */
+	protected <U> Stream<U> streamJson(ValidatableResponse response, Class<U> elementType) {
+		return JsonStreams.streamArray(gson(), JsonStreams.streamingReader(response), elementType);
+	}
+
+	/**
+	 * Map an array inside a JSON object one element at a time, e.g. the <tt>data</tt> of a paged response,
+	 * skipping the rest of the body. Consumes the body like {@link #streamJson(ValidatableResponse, Class)}.
+	 *
+	 * @param response response with a JSON object body
+	 * @param field name of the array field, or a dotted path to a nested one
+	 * @param elementType class of each element
+	 * @return lazy stream of elements, empty if the field is missing or null
+	 */
+	protected <U> Stream<U> streamJson(ValidatableResponse response, String field, Class<U> elementType) {
+		return JsonStreams.streamArray(gson(), JsonStreams.streamingReader(response), field, elementType);
 	}
 
 	/**
@@ -44,13 +136,11 @@ public abstract class ServiceArea<T extends Serializer> {
 	 * @return instance
 	 */
 	public <U> String toJson(Object buildObject, Class<U> clazz) {
-		return new Gson().toJson(buildObject, clazz);
+		return gson().toJson(buildObject, clazz);
 	}
 
 	public <U> String toJsonWithNulls(Object buildObject, Class<U> clazz) {
-		Gson serializeNulls = new GsonBuilder().serializeNulls()
-            .create();
-		return serializeNulls.toJson(buildObject, clazz);
+		return JsonCodecs.withNulls().toJson(buildObject, clazz);
 	}
 
 	/**
@@ -73,20 +163,56 @@ public abstract class ServiceArea<T extends Serializer> {
 	}
 
 	private boolean hasResource(String resource) {
-		try {
-			getClass().getClassLoader().getResource(resource);
-			return true;
-		} catch (Exception e) {
-			return false;
-		}
+		return SchemaValidators.exists(resource);
 	}
 
+	/**
+	 * Check a response body against a JSON schema on the classpath. Schemas are compiled on first use and
+	 * shared after that.
+	 *
+	 * @param response response to check
+	 * @param file classpath location of the schema; null skips validation
+	 * @throws AssertionError if the body doesn't match
+	 */
 	protected void validateResponseSchema(ValidatableResponse response, String file) {
 		if(null == file) {
 			LOGGER.info("skipping schema validation");
 		}
-		else if((null != file) && hasResource(file)) {
-			response.body(matchesJsonSchemaInClasspath(file));
+		else if(hasResource(file)) {
+			SchemaValidators.validate(file, response);
+		} else {
+			throw new RuntimeException("schema file [" +file+ "] not found under resources");
+		}
+	}
+
+	/**
+	 * Like {@link #validateResponseSchema}, but checks the body on another thread; join the future before the
+	 * test ends to see failures.
+	 *
+	 * @return completes exceptionally with an AssertionError if the body doesn't match
+	 */
+	protected CompletableFuture<Void> validateResponseSchemaAsync(ValidatableResponse response, String file) {
+		if(null == file) {
+			LOGGER.info("skipping schema validation");
+			return CompletableFuture.completedFuture(null);
+		}
+		if(!hasResource(file)) {
+			throw new RuntimeException("schema file [" +file+ "] not found under resources");
+		}
+		return SchemaValidators.validateAsync(file, response);
+	}
+
+	/**
+	 * Check many responses against one schema in parallel, e.g. every page of a list endpoint.
+	 *
+	 * @throws AssertionError naming every response that doesn't match
+	 */
+	protected void validateResponseSchemas(Collection<ValidatableResponse> responses, String file) {
+		if(null == file) {
+			LOGGER.info("skipping schema validation");
+		}
+		else if(hasResource(file)) {
+			SchemaValidators.validateAll(file, responses);
 		} else {
 			throw new RuntimeException("schema file [" +file+ "] not found under resources");
 		}
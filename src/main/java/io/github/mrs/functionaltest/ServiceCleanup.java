@@ -1,8 +1,19 @@
 package io.github.mrs.functionaltest;
 
+import io.github.mrs.functionaltest.utils.Config;
 import io.github.mrs.functionaltest.utils.HttpCaller;
+import io.github.mrs.functionaltest.utils.VirtualThreads;
 import io.restassured.response.ValidatableResponse;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -27,16 +38,114 @@ public abstract class ServiceCleanup {
 	public abstract void run() throws Exception;
 
 	/**
-	 * Shortcut to run through a set of objects to remove and log an OK/FAIL for each.
+	 * Cleanups that must finish before this one starts, e.g. because objects in this service are referenced
+	 * by objects in theirs. Cleanups with no ordering between them run concurrently.
+	 *
+	 * @return cleanup classes to wait for; empty by default
+	 */
+	public Collection<Class<? extends ServiceCleanup>> runsAfter() {
+		return Collections.emptyList();
+	}
+
+	/**
+	 * Maximum number of items {@link #removeAll} deletes at once, <tt>cleanup.concurrency</tt> by default.
+	 * Override to return 1 if items in a single list must be deleted one after another.
+	 *
+	 * @return number of concurrent deletes
+	 */
+	protected int removeConcurrency() {
+		return Config.cleanupConcurrency();
+	}
+
+	/**
+	 * Shortcut to run through a set of objects to remove and log an OK/FAIL for each. Items are deleted
+	 * concurrently, up to {@link #removeConcurrency()} at a time, and this returns once all of them are done;
+	 * so calling it once per object type, in dependency order, keeps foreign keys intact.
+	 *
+	 * If the service supports bulk deletes ({@link ServiceArea#bulkRemoveSize()}) items registered with the same
+	 * caller are sent in chunks of that size; anything a chunk fails to remove is retried one item at a time.
+	 *
+	 * A failure to delete one item is logged and doesn't stop the others.
 	 *
 	 * @param itemsToRemove list of items to remove
 	 * @param service service that actually does the deletion
 	 * @throws Exception
 	 */
 	protected <T extends Serializer> void removeAll(List<Pair<HttpCaller, T>> itemsToRemove, int expectedStatusCode, ServiceArea<T> service) throws Exception {
-		for (Pair<HttpCaller, T> item : itemsToRemove) {
+		List<Runnable> removals = new ArrayList<>();
+		int bulkSize = service.bulkRemoveSize();
+		if (bulkSize > 1) {
+			Map<HttpCaller, List<T>> itemsByCaller = new IdentityHashMap<>();
+			for (Pair<HttpCaller, T> item : itemsToRemove) {
+				itemsByCaller.computeIfAbsent(item.first(), caller -> new ArrayList<>()).add(item.second());
+			}
+			for (Map.Entry<HttpCaller, List<T>> entry : itemsByCaller.entrySet()) {
+				List<T> items = entry.getValue();
+				for (int from = 0; from < items.size(); from += bulkSize) {
+					List<T> chunk = items.subList(from, Math.min(from + bulkSize, items.size()));
+					removals.add(() -> removeChunk(entry.getKey(), chunk, expectedStatusCode, service));
+				}
+			}
+		} else {
+			for (Pair<HttpCaller, T> item : itemsToRemove) {
+				removals.add(() -> remove(item, expectedStatusCode, service));
+			}
+		}
+		runAll(removals);
+	}
+
+	private void runAll(List<Runnable> removals) throws Exception {
+		int concurrency = Math.min(removeConcurrency(), removals.size());
+		if (concurrency <= 1) {
+			removals.forEach(Runnable::run);
+			return;
+		}
+
+		ExecutorService executor = Executors.newFixedThreadPool(concurrency,
+				VirtualThreads.threadFactory("cleanup-" + getClass().getSimpleName() + "-"));
+		try {
+			List<Future<?>> futures = new ArrayList<>(removals.size());
+			for (Runnable removal : removals) {
+				futures.add(executor.submit(removal));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	private <T extends Serializer> void removeChunk(HttpCaller caller, List<T> chunk, int expectedStatusCode, ServiceArea<T> service) {
+		List<T> remaining;
+		try {
+			remaining = service.removeBulk(caller, chunk);
+		} catch (Exception | AssertionError e) {
+			LOGGER.warn("Bulk removal of {} {} items failed, removing one at a time - {}",
+					chunk.size(), chunk.get(0).getClass().getSimpleName(), e.getMessage());
+			remaining = chunk;
+		}
+
+		Set<T> notRemoved = Collections.newSetFromMap(new IdentityHashMap<>());
+		if (remaining != null) {
+			notRemoved.addAll(remaining);
+		}
+		for (T item : chunk) {
+			if (notRemoved.contains(item)) {
+				remove(Pair.of(caller, item), expectedStatusCode, service);
+			} else {
+				LOGGER.info("OK: Removed {} {}", item.getClass().getSimpleName(), String.join("/", item.getDeletionIdentifiers()));
+			}
+		}
+	}
+
+	private <T extends Serializer> void remove(Pair<HttpCaller, T> item, int expectedStatusCode, ServiceArea<T> service) {
+		String objectType = item.second().getClass().getSimpleName();
+		try {
 			ValidatableResponse response = service.remove(item);
-			displayDeleteStatus(response, expectedStatusCode, item.getClass().getSimpleName(), item.second().getDeletionIdentifiers());
+			displayDeleteStatus(response, expectedStatusCode, objectType, item.second().getDeletionIdentifiers());
+		} catch (Exception | AssertionError e) {
+			LOGGER.error("FAIL cleanup: {} {} - {}", objectType, item.second(), e.getMessage());
 		}
 	}
 
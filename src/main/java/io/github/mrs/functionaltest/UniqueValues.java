@@ -0,0 +1,97 @@
+package io.github.mrs.functionaltest;
+
+import io.github.mrs.functionaltest.utils.Config;
+
+import java.security.SecureRandom;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Values that never repeat within a run, for identifiers with unique constraints.
+ *
+ * Every value carries a sequence number. Threads take blocks of numbers from a shared counter and hand them out
+ * locally, so generating needs no lock and nothing is remembered besides the counter. Values also carry a short
+ * run id, random per JVM, so separate runs against the same environment don't collide either; set
+ * <tt>FUNCTIONAL_RUN_ID</tt> or <tt>functional.run.id</tt> to choose it, e.g. one per CI shard. Tokens start with
+ * the run id's length, so run ids where one is a prefix of the other (<tt>shard1</tt>, <tt>shard12</tt>) can't
+ * produce the same token.
+ */
+public final class UniqueValues {
+
+	private static final int BLOCK_SIZE = 1024;
+	private static final AtomicLong NEXT_BLOCK = new AtomicLong();
+	// {next, end} of the block this thread is handing out
+	private static final ThreadLocal<long[]> BLOCK = ThreadLocal.withInitial(() -> new long[2]);
+
+	// one base-36 digit holds the run id's length
+	private static final Pattern RUN_ID_SHAPE = Pattern.compile("[a-z0-9]{1,35}");
+
+	private static final SecureRandom RANDOM = new SecureRandom();
+	private static final String RUN_ID = runIdFromConfig();
+	// version 4 UUID bits for the upper half of uniqueId(), fixed for the run
+	private static final long RUN_UUID_BITS = (RANDOM.nextLong() & ~0xF000L) | 0x4000L;
+
+	private UniqueValues() {
+	}
+
+	/**
+	 * @return identifies this run in every token
+	 */
+	public static String runId() {
+		return RUN_ID;
+	}
+
+	/**
+	 * @return next number, never repeated in this JVM
+	 */
+	public static long next() {
+		long[] block = BLOCK.get();
+		if (block[0] == block[1]) {
+			block[0] = NEXT_BLOCK.getAndIncrement() * BLOCK_SIZE;
+			block[1] = block[0] + BLOCK_SIZE;
+		}
+		return block[0]++;
+	}
+
+	/**
+	 * @return short lower-case alphanumeric token, unique to this run, e.g. <tt>5k3f9a2s</tt>
+	 */
+	public static String token() {
+		return token(RUN_ID, next());
+	}
+
+	/**
+	 * @return UUID-formatted id, unique to this run
+	 */
+	public static UUID uuid() {
+		// variant bits, then the sequence number in the remaining 62 bits
+		return new UUID(RUN_UUID_BITS, (0x8000L << 48) | next());
+	}
+
+	// length, run id, sequence number: the length says where the run id ends
+	static String token(String runId, long sequence) {
+		return Character.forDigit(runId.length(), Character.MAX_RADIX) + runId
+				+ Long.toString(sequence, Character.MAX_RADIX);
+	}
+
+	static String checkRunId(String configured) {
+		String runId = configured.trim().toLowerCase();
+		if (!RUN_ID_SHAPE.matcher(runId).matches()) {
+			throw new IllegalArgumentException("Run id [" + configured + "] in [Env: FUNCTIONAL_RUN_ID] or "
+					+ "[Prop: functional.run.id] must be 1 to 35 letters and digits");
+		}
+		return runId;
+	}
+
+	private static String runIdFromConfig() {
+		String configured = Config.envOrProperty("FUNCTIONAL_RUN_ID", "functional.run.id");
+		if (StringUtils.isNotBlank(configured)) {
+			return checkRunId(configured);
+		}
+		// 5 base-36 characters, ~60 million possibilities
+		return StringUtils.leftPad(Integer.toString(RANDOM.nextInt(60_466_176), Character.MAX_RADIX), 5, '0');
+	}
+}
@@ -0,0 +1,11 @@
+package io.github.mrs.functionaltest.load;
+
+/**
+ * A single unit of work driven by {@link LoadRunner}, typically a call to a <tt>ServiceArea</tt> method such as
+ * <tt>() -> users.fetchUsers()</tt>. Any exception or assertion failure counts as an error.
+ */
+@FunctionalInterface
+public interface LoadOperation {
+
+	void run() throws Exception;
+}
@@ -0,0 +1,62 @@
+package io.github.mrs.functionaltest.load;
+
+import java.time.Duration;
+
+import lombok.Getter;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Outcome of a {@link LoadRunner} run. Latencies are recorded in microseconds and reported in milliseconds.
+ */
+@Getter
+public class LoadResult {
+
+	private final String name;
+	private final long requests;
+	private final long errors;
+	private final Duration elapsed;
+	private final Histogram latencies;
+
+	LoadResult(String name, long requests, long errors, Duration elapsed, Histogram latencies) {
+		this.name = name;
+		this.requests = requests;
+		this.errors = errors;
+		this.elapsed = elapsed;
+		this.latencies = latencies;
+	}
+
+	/**
+	 * @return fraction of requests that failed, between 0 and 1
+	 */
+	public double errorRate() {
+		return requests == 0 ? 0 : (double) errors / requests;
+	}
+
+	/**
+	 * @return completed requests per second over the whole run
+	 */
+	public double throughput() {
+		long millis = elapsed.toMillis();
+		return millis == 0 ? 0 : requests * 1000.0 / millis;
+	}
+
+	/**
+	 * @param percentile percentile to look up, e.g. 99.9
+	 * @return latency at that percentile in milliseconds
+	 */
+	public double percentileMillis(double percentile) {
+		return latencies.getValueAtPercentile(percentile) / 1000.0;
+	}
+
+	public double maxMillis() {
+		return latencies.getMaxValue() / 1000.0;
+	}
+
+	@Override
+	public String toString() {
+		return String.format(
+				"%s: %d requests in %d ms, %.1f req/s, %.2f%% errors, latency ms p50=%.1f p90=%.1f p99=%.1f p99.9=%.1f max=%.1f",
+				name, requests, elapsed.toMillis(), throughput(), errorRate() * 100,
+				percentileMillis(50), percentileMillis(90), percentileMillis(99), percentileMillis(99.9), maxMillis());
+	}
+}
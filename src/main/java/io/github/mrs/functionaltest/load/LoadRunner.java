@@ -0,0 +1,206 @@
+package io.github.mrs.functionaltest.load;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import io.github.mrs.functionaltest.utils.Config;
+import io.github.mrs.functionaltest.utils.VirtualThreads;
+import org.HdrHistogram.Recorder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Drive an existing <tt>ServiceArea</tt> operation as a load test. Requests go through the same services and
+ * <tt>HttpCaller</tt> the functional tests use, so headers and auth are identical.
+ *
+ * Two models are supported:
+ * <ul>
+ *   <li>open: requests are started at a target rate regardless of how long earlier ones take; latency is measured
+ *   from the time a request was scheduled, so queueing behind a slow service shows up in the percentiles</li>
+ *   <li>closed: a fixed number of workers each issue the next request as soon as the previous one finishes</li>
+ * </ul>
+ * Either model ramps linearly from zero to its target over the ramp-up period, then holds for the duration.
+ *
+ * <pre>
+ * LoadResult result = LoadRunner.openModel(50)
+ *         .rampUp(Duration.ofSeconds(10))
+ *         .duration(Duration.ofMinutes(1))
+ *         .run("fetch users", () -&gt; users.fetchUsers());
+ * </pre>
+ */
+public class LoadRunner {
+
+	private static final Logger LOGGER = LogManager.getLogger(LoadRunner.class);
+
+	private static final long SHUTDOWN_GRACE_SECONDS = 60;
+
+	private final int requestsPerSecond;
+	private final int concurrency;
+	private Duration rampUp = Duration.ZERO;
+	private Duration duration = Duration.ofSeconds(30);
+	private int maxConcurrency = 0;
+
+	private LoadRunner(int requestsPerSecond, int concurrency) {
+		this.requestsPerSecond = requestsPerSecond;
+		this.concurrency = concurrency;
+	}
+
+	/**
+	 * @param requestsPerSecond target arrival rate once ramp-up is complete
+	 * @return runner for an open workload model
+	 */
+	public static LoadRunner openModel(int requestsPerSecond) {
+		if (requestsPerSecond <= 0) {
+			throw new IllegalArgumentException("requests per second must be positive");
+		}
+		return new LoadRunner(requestsPerSecond, 0);
+	}
+
+	/**
+	 * @param concurrency number of workers issuing requests back to back once ramp-up is complete
+	 * @return runner for a closed workload model
+	 */
+	public static LoadRunner closedModel(int concurrency) {
+		if (concurrency <= 0) {
+			throw new IllegalArgumentException("concurrency must be positive");
+		}
+		return new LoadRunner(0, concurrency);
+	}
+
+	/**
+	 * @param rampUp time to go linearly from zero to the target rate or concurrency
+	 * @return this runner
+	 */
+	public LoadRunner rampUp(Duration rampUp) {
+		this.rampUp = rampUp;
+		return this;
+	}
+
+	/**
+	 * @param duration time to hold the target rate or concurrency after ramp-up
+	 * @return this runner
+	 */
+	public LoadRunner duration(Duration duration) {
+		this.duration = duration;
+		return this;
+	}
+
+	/**
+	 * Only applies to the open model on platform threads; defaults to <tt>http.pool.maxTotal</tt>.
+	 *
+	 * @param maxConcurrency most requests allowed in flight at once, the rest queue
+	 * @return this runner
+	 */
+	public LoadRunner maxConcurrency(int maxConcurrency) {
+		this.maxConcurrency = maxConcurrency;
+		return this;
+	}
+
+	/**
+	 * Run the operation under load and block until every started request has finished.
+	 *
+	 * @param name display name for the results
+	 * @param operation operation to run, usually a call on a <tt>ServiceArea</tt>
+	 * @return throughput, error rate and latency distribution
+	 */
+	public LoadResult run(String name, LoadOperation operation) throws InterruptedException {
+		Run run = new Run(operation);
+		long start = System.nanoTime();
+		long end = start + rampUp.toNanos() + duration.toNanos();
+		LOGGER.info("Starting load run '{}': {}, ramp-up {} s, duration {} s", name,
+				concurrency > 0 ? concurrency + " workers" : requestsPerSecond + " req/s",
+				rampUp.getSeconds(), duration.getSeconds());
+
+		if (concurrency > 0) {
+			runClosed(run, start, end);
+		} else {
+			runOpen(run, start, end);
+		}
+
+		LoadResult result = new LoadResult(name, run.requests.sum(), run.errors.sum(),
+				Duration.ofNanos(System.nanoTime() - start), run.recorder.getIntervalHistogram());
+		LOGGER.info(result.toString());
+		return result;
+	}
+
+	private void runOpen(Run run, long start, long end) throws InterruptedException {
+		ExecutorService executor = VirtualThreads.newExecutor("load-",
+				maxConcurrency > 0 ? maxConcurrency : Config.maxConnections());
+		long next = start;
+		while (next < end) {
+			long now = System.nanoTime();
+			if (next > now) {
+				LockSupport.parkNanos(next - now);
+				continue;
+			}
+			long scheduled = next;
+			executor.execute(() -> run.execute(scheduled));
+			next += (long) (TimeUnit.SECONDS.toNanos(1) / currentRate(next - start));
+		}
+		awaitTermination(executor);
+	}
+
+	private void runClosed(Run run, long start, long end) throws InterruptedException {
+		ExecutorService executor = VirtualThreads.newExecutor("load-", concurrency);
+		long rampNanos = rampUp.toNanos();
+		for (int i = 0; i < concurrency; i++) {
+			long workerStart = start + rampNanos * i / concurrency;
+			executor.execute(() -> {
+				long wait = workerStart - System.nanoTime();
+				if (wait > 0) {
+					LockSupport.parkNanos(wait);
+				}
+				while (System.nanoTime() < end) {
+					run.execute(System.nanoTime());
+				}
+			});
+		}
+		awaitTermination(executor);
+	}
+
+	private double currentRate(long elapsedNanos) {
+		long rampNanos = rampUp.toNanos();
+		if (elapsedNanos >= rampNanos) {
+			return requestsPerSecond;
+		}
+		// never drop below one request per second so the first requests of a ramp aren't starved
+		return Math.max(1.0, requestsPerSecond * (double) elapsedNanos / rampNanos);
+	}
+
+	private void awaitTermination(ExecutorService executor) throws InterruptedException {
+		executor.shutdown();
+		if (!executor.awaitTermination(duration.getSeconds() + SHUTDOWN_GRACE_SECONDS, TimeUnit.SECONDS)) {
+			LOGGER.warn("Load run did not drain in time, {} queued requests dropped", executor.shutdownNow().size());
+		}
+	}
+
+	private static class Run {
+		private final LoadOperation operation;
+		private final Recorder recorder = new Recorder(3);
+		private final LongAdder requests = new LongAdder();
+		private final LongAdder errors = new LongAdder();
+		private final AtomicBoolean errorLogged = new AtomicBoolean(false);
+
+		Run(LoadOperation operation) {
+			this.operation = operation;
+		}
+
+		void execute(long scheduledNanos) {
+			try {
+				operation.run();
+			} catch (Exception | AssertionError e) {
+				errors.increment();
+				if (errorLogged.compareAndSet(false, true)) {
+					LOGGER.warn("First load run error (further errors are only counted): " + e.getMessage());
+				}
+			} finally {
+				requests.increment();
+				recorder.recordValue(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - scheduledNanos));
+			}
+		}
+	}
+}
@@ -0,0 +1,225 @@
+package io.github.mrs.functionaltest.load;
+
+import static io.restassured.RestAssured.given;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+import io.github.mrs.functionaltest.utils.Config;
+import io.github.mrs.functionaltest.utils.VirtualThreads;
+import io.github.mrs.functionaltest.utils.auth.TokenProvider;
+import io.github.mrs.functionaltest.utils.metrics.RequestMetrics;
+import io.github.mrs.functionaltest.utils.traffic.CapturedExchange;
+import io.github.mrs.functionaltest.utils.traffic.SensitiveHeaders;
+import io.github.mrs.functionaltest.utils.traffic.TrafficCapture;
+import io.restassured.RestAssured;
+import io.restassured.config.EncoderConfig;
+import io.restassured.http.Header;
+import io.restassured.response.Response;
+import io.restassured.specification.RequestSpecification;
+import org.HdrHistogram.Recorder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Re-issue a session captured by <tt>TrafficCapture</tt> as a workload, keeping the original order and spacing of
+ * requests, optionally sped up.
+ *
+ * Each request is started at its captured offset from the first one, divided by the speed, whether or not earlier
+ * ones have finished, so like the open model of {@link LoadRunner} latency is measured from when a request was
+ * due. Idle gaps longer than <tt>maxIdle</tt>, e.g. between captures from separate runs, are shortened to it.
+ * A response whose status differs from the captured one counts as an error. Redacted credentials in the capture
+ * aren't sent; with a <tt>TokenProvider</tt> installed, every request gets a fresh token instead.
+ *
+ * <pre>
+ * LoadResult result = TrafficReplay.of(Paths.get("test-output/traffic.capture"))
+ *         .target("https://staging.example.com")
+ *         .speed(4)
+ *         .run("replayed functional run");
+ * </pre>
+ */
+public class TrafficReplay {
+
+	private static final Logger LOGGER = LogManager.getLogger(TrafficReplay.class);
+
+	private static final long SHUTDOWN_GRACE_SECONDS = 60;
+
+	// set by the HTTP client for the new request, or replaced by a fresh token
+	private static final Set<String> SKIPPED_HEADERS = new HashSet<>(Arrays.asList(
+			"host", "content-length", "transfer-encoding", "connection"));
+
+	private final Path capture;
+	private String target;
+	private double speed = 1;
+	private Duration maxIdle = Duration.ofSeconds(5);
+	private int maxConcurrency = 0;
+
+	private TrafficReplay(Path capture) {
+		this.capture = capture;
+	}
+
+	/**
+	 * @param capture file written by <tt>TrafficCapture</tt>
+	 * @return replay of every exchange in the file
+	 */
+	public static TrafficReplay of(Path capture) {
+		return new TrafficReplay(capture);
+	}
+
+	/**
+	 * @param target scheme, host and port to send requests to instead of the captured ones, e.g.
+	 *     <tt>http://localhost:8080</tt>; null (the default) for the captured hosts
+	 * @return this replay
+	 */
+	public TrafficReplay target(String target) {
+		this.target = target;
+		return this;
+	}
+
+	/**
+	 * @param speed 1 for the captured pacing, 2 for twice as fast, and so on; 0 to send every request as soon as
+	 *     there's room
+	 * @return this replay
+	 */
+	public TrafficReplay speed(double speed) {
+		if (speed < 0) {
+			throw new IllegalArgumentException("speed can't be negative");
+		}
+		this.speed = speed;
+		return this;
+	}
+
+	/**
+	 * @param maxIdle longest pause to keep between consecutive requests, before speed-up
+	 * @return this replay
+	 */
+	public TrafficReplay maxIdle(Duration maxIdle) {
+		this.maxIdle = maxIdle;
+		return this;
+	}
+
+	/**
+	 * Only applies on platform threads; defaults to <tt>http.pool.maxTotal</tt>.
+	 *
+	 * @param maxConcurrency most requests allowed in flight at once, later ones wait and their wait counts as latency
+	 * @return this replay
+	 */
+	public TrafficReplay maxConcurrency(int maxConcurrency) {
+		this.maxConcurrency = maxConcurrency;
+		return this;
+	}
+
+	/**
+	 * Replay the capture and block until every request has finished.
+	 *
+	 * @param name display name for the results
+	 * @return throughput, error rate and latency distribution
+	 * @throws IOException if the capture can't be read
+	 */
+	public LoadResult run(String name) throws IOException, InterruptedException {
+		int concurrency = maxConcurrency > 0 ? maxConcurrency : Config.maxConnections();
+		ExecutorService executor = VirtualThreads.newExecutor("replay-", concurrency);
+		Semaphore slots = new Semaphore(concurrency);
+		Recorder recorder = new Recorder(3);
+		LongAdder requests = new LongAdder();
+		LongAdder errors = new LongAdder();
+		AtomicBoolean errorLogged = new AtomicBoolean(false);
+		LOGGER.info("Replaying {} at {}x against {}", capture, speed, target == null ? "the captured hosts" : target);
+
+		long start = System.nanoTime();
+		try (Stream<CapturedExchange> exchanges = TrafficCapture.read(capture)) {
+			Iterator<CapturedExchange> it = exchanges.iterator();
+			long previousMicros = -1;
+			long offsetNanos = 0;
+			while (it.hasNext()) {
+				CapturedExchange exchange = it.next();
+				if (previousMicros >= 0) {
+					long gap = Math.max(0, Math.min(exchange.getStartedAtMicros() - previousMicros,
+							TimeUnit.NANOSECONDS.toMicros(maxIdle.toNanos())));
+					offsetNanos += speed == 0 ? 0 : (long) (TimeUnit.MICROSECONDS.toNanos(gap) / speed);
+				}
+				previousMicros = exchange.getStartedAtMicros();
+				long due = start + offsetNanos;
+				long wait = due - System.nanoTime();
+				if (wait > 0) {
+					LockSupport.parkNanos(wait);
+				}
+				slots.acquire();
+				executor.execute(() -> {
+					try {
+						Response response = request(exchange).request(exchange.getMethod(), url(exchange));
+						// read the body so a pooled connection goes back to the pool
+						response.asByteArray();
+						int status = response.statusCode();
+						if (status != exchange.getStatus()) {
+							throw new AssertionError("expected status " + exchange.getStatus() + " but was " + status);
+						}
+					} catch (Exception | AssertionError e) {
+						errors.increment();
+						if (errorLogged.compareAndSet(false, true)) {
+							LOGGER.warn("First replay error on {} (further errors are only counted): {}", exchange,
+									e.getMessage());
+						}
+					} finally {
+						requests.increment();
+						recorder.recordValue(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - due));
+						slots.release();
+					}
+				});
+			}
+		} finally {
+			executor.shutdown();
+			if (!executor.awaitTermination(SHUTDOWN_GRACE_SECONDS, TimeUnit.SECONDS)) {
+				LOGGER.warn("Replay did not drain in time, {} queued requests dropped", executor.shutdownNow().size());
+			}
+		}
+
+		LoadResult result = new LoadResult(name, requests.sum(), errors.sum(),
+				Duration.ofNanos(System.nanoTime() - start), recorder.getIntervalHistogram());
+		LOGGER.info(result.toString());
+		return result;
+	}
+
+	private RequestSpecification request(CapturedExchange exchange) {
+		boolean freshToken = TokenProvider.installed() != null;
+		RequestSpecification request = given()
+				.config(RestAssured.config().encoderConfig(
+						EncoderConfig.encoderConfig().appendDefaultContentCharsetToContentTypeIfUndefined(false)))
+				.urlEncodingEnabled(false)
+				.filter(TokenProvider.filter())
+				.filter(RequestMetrics.filter());
+		for (Header header : exchange.getRequestHeaders()) {
+			String name = header.getName().toLowerCase();
+			if (!SKIPPED_HEADERS.contains(name) && !(freshToken && name.equals("authorization"))
+					&& !SensitiveHeaders.isRedacted(header)) {
+				request.header(header.getName(), header.getValue());
+			}
+		}
+		if (exchange.getRequestBody().length > 0) {
+			request.body(exchange.getRequestBody());
+		}
+		return request;
+	}
+
+	private String url(CapturedExchange exchange) {
+		if (target == null) {
+			return exchange.getUri();
+		}
+		URI captured = URI.create(exchange.getUri());
+		String path = captured.getRawPath() == null ? "" : captured.getRawPath();
+		return target.replaceAll("/+$", "") + path + (captured.getRawQuery() == null ? "" : "?" + captured.getRawQuery());
+	}
+}
@@ -0,0 +1,291 @@
+package io.github.mrs.functionaltest.utils;
+
+import io.github.mrs.functionaltest.utils.auth.TokenProvider;
+import io.github.mrs.functionaltest.utils.cache.ResponseCache;
+import io.github.mrs.functionaltest.utils.metrics.RequestMetrics;
+import io.restassured.builder.ResponseBuilder;
+import io.restassured.http.ContentType;
+import io.restassured.http.Header;
+import io.restassured.http.Headers;
+import io.restassured.response.ValidatableResponse;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.hamcrest.core.AnyOf;
+
+/**
+ * Asynchronous counterpart to {@link HttpCaller}, built on the JDK's non-blocking <tt>java.net.http.HttpClient</tt>:
+ * no thread waits on a request while it is in flight. Requests send the wrapped caller's headers, and responses get
+ * the same status and content-type checks as the synchronous methods; a failed check completes the returned future
+ * exceptionally with the same <tt>AssertionError</tt> the synchronous call would have thrown.
+ *
+ * Every caller shares one client and its keep-alive connections. At most <tt>http.pool.maxPerHost</tt> requests
+ * are in flight to a host at once; the rest wait in a queue without holding a thread.
+ *
+ * Requests are authorized with the installed <tt>TokenProvider</tt> and timed in <tt>RequestMetrics</tt>, but
+ * don't go through RestAssured, so the traffic recorder and traffic capture don't see them and responses are never
+ * served from the response cache. Successful writes still drop cached responses, as synchronous ones do.
+ */
+public class AsyncHttpCaller {
+
+	// set by the client itself, and rejected by java.net.http if given
+	private static final Set<String> RESTRICTED_HEADERS = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+
+	static {
+		RESTRICTED_HEADERS.addAll(Arrays.asList("Connection", "Content-Length", "Expect", "Host", "Upgrade"));
+	}
+
+	private static volatile HttpClient CLIENT;
+	private static final ConcurrentMap<String, HostLimit> HOSTS = new ConcurrentHashMap<>();
+
+	private final HttpCaller caller;
+
+	public AsyncHttpCaller() {
+		this(new HttpCaller());
+	}
+
+	public AsyncHttpCaller(Map<String, String> additionalHeaders) {
+		this(new HttpCaller(additionalHeaders));
+	}
+
+	public AsyncHttpCaller(HttpCaller caller) {
+		this.caller = caller;
+	}
+
+	/**
+	 * Create a new AsyncHttpCaller object with its original headers augmented by those given.
+	 *
+	 * @param moreHeaders headers to use in addition to the ones already in the current caller;
+	 *   headers given will override existing
+	 * @return new AsyncHttpCaller object
+	 */
+	public AsyncHttpCaller withHeaders(Map<String, String> moreHeaders) {
+		return new AsyncHttpCaller(caller.withHeaders(moreHeaders));
+	}
+
+	public String getHeader(String key) {
+		return caller.getHeader(key);
+	}
+
+	/**
+	 * @return synchronous caller backing this one, sharing its headers
+	 */
+	public HttpCaller sync() {
+		return caller;
+	}
+
+	public CompletableFuture<ValidatableResponse> doDelete(String path, String payload, int expectedStatus) {
+		return send("DELETE", path, payload, caller.readHeaders, response -> response.statusCode(expectedStatus));
+	}
+
+	public CompletableFuture<ValidatableResponse> doDelete(String path, String payload, AnyOf<Integer> anyOf) {
+		return send("DELETE", path, payload, caller.readHeaders, response -> response.statusCode(anyOf));
+	}
+
+	public CompletableFuture<ValidatableResponse> doDelete(String path, int expectedStatus) {
+		return send("DELETE", path, null, caller.readHeaders, response -> response.statusCode(expectedStatus));
+	}
+
+	public CompletableFuture<ValidatableResponse> doDelete(String path, AnyOf<Integer> anyOf) {
+		return send("DELETE", path, null, caller.readHeaders, response -> response.statusCode(anyOf));
+	}
+
+	public CompletableFuture<ValidatableResponse> fetch(String path, int expectedStatus) {
+		return send("GET", path, null, caller.plainHeaders, response -> response.statusCode(expectedStatus));
+	}
+
+	public CompletableFuture<ValidatableResponse> fetchHead(String path, int expectedStatus) {
+		return send("HEAD", path, null, caller.readHeaders, response -> response.statusCode(expectedStatus));
+	}
+
+	public CompletableFuture<ValidatableResponse> doGet(String path, int expectedStatus) {
+		return send("GET", path, null, caller.readHeaders, json(expectedStatus));
+	}
+
+	public CompletableFuture<ValidatableResponse> doPost(String path, int expectedStatus) {
+		return send("POST", path, null, caller.readHeaders, json(expectedStatus));
+	}
+
+	public CompletableFuture<ValidatableResponse> doPost(String path, String payload, int expectedStatus) {
+		return send("POST", path, payload, caller.writeHeaders, json(expectedStatus));
+	}
+
+	public CompletableFuture<ValidatableResponse> doPut(String path, String payload, int expectedStatus) {
+		return send("PUT", path, payload, caller.writeHeaders, json(expectedStatus));
+	}
+
+	public CompletableFuture<ValidatableResponse> doPut(String path, int expectedStatus) {
+		return send("PUT", path, null, caller.writeHeaders, json(expectedStatus));
+	}
+
+	public CompletableFuture<ValidatableResponse> doPatch(String path, String payload, int expectedStatus) {
+		return send("PATCH", path, payload, caller.writeHeaders, json(expectedStatus));
+	}
+
+	public CompletableFuture<ValidatableResponse> doPatch(String path, int expectedStatus) {
+		return send("PATCH", path, null, caller.writeHeaders, json(expectedStatus));
+	}
+
+	/**
+	 * Drop the shared client and per-host limits, e.g. after <tt>http.pool.maxPerHost</tt> changed; calls made
+	 * afterwards start a fresh client. Requests already in flight complete normally.
+	 */
+	public static synchronized void shutdown() {
+		CLIENT = null;
+		HOSTS.clear();
+	}
+
+	private static Consumer<ValidatableResponse> json(int expectedStatus) {
+		return response -> response.statusCode(expectedStatus).contentType(ContentType.JSON);
+	}
+
+	private CompletableFuture<ValidatableResponse> send(String method, String path, String payload, Headers headers,
+			Consumer<ValidatableResponse> check) {
+		CompletableFuture<ValidatableResponse> result = new CompletableFuture<>();
+		try {
+			URI uri = URI.create(caller.resolveUrl(path));
+			HttpRequest.Builder request = HttpRequest.newBuilder(uri).method(method,
+					payload == null ? HttpRequest.BodyPublishers.noBody()
+							: HttpRequest.BodyPublishers.ofString(payload, StandardCharsets.UTF_8));
+			for (Header header : headers) {
+				if (!RESTRICTED_HEADERS.contains(header.getName())) {
+					request.header(header.getName(), header.getValue());
+				}
+			}
+			TokenProvider provider = headers.hasHeaderWithName(TokenProvider.AUTHORIZATION) ? null
+					: TokenProvider.installed();
+			if (provider != null) {
+				// only waits if the cached token has expired
+				request.header(TokenProvider.AUTHORIZATION, provider.authorization());
+			}
+			HostLimit limit = HOSTS.computeIfAbsent(uri.getScheme() + "://" + uri.getAuthority(),
+					host -> new HostLimit(Config.maxConnectionsPerHost()));
+			limit.submit(() -> {
+				long start = System.nanoTime();
+				CompletableFuture<HttpResponse<byte[]>> sent;
+				try {
+					sent = client().sendAsync(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+				} catch (RuntimeException e) {
+					limit.release();
+					result.completeExceptionally(e);
+					return;
+				}
+				sent.whenComplete((response, error) -> {
+					limit.release();
+					if (error != null) {
+						result.completeExceptionally(error);
+						return;
+					}
+					RequestMetrics.record(method, uri.toString(), System.nanoTime() - start);
+					if (provider != null && response.statusCode() == 401) {
+						provider.invalidate();
+					}
+					if (!"GET".equals(method) && !"HEAD".equals(method) && response.statusCode() < 400
+							&& ResponseCache.isEnabled()) {
+						ResponseCache.invalidate(uri.toString());
+					}
+					try {
+						ValidatableResponse validatable = toValidatable(response);
+						check.accept(validatable);
+						result.complete(validatable);
+					} catch (RuntimeException | AssertionError e) {
+						result.completeExceptionally(e);
+					}
+				});
+			});
+		} catch (RuntimeException e) {
+			result.completeExceptionally(e);
+		}
+		return result;
+	}
+
+	private static ValidatableResponse toValidatable(HttpResponse<byte[]> response) {
+		List<Header> headers = new ArrayList<>();
+		response.headers().map().forEach((name, values) -> values.forEach(value -> headers.add(new Header(name, value))));
+		ResponseBuilder builder = new ResponseBuilder()
+				.setStatusCode(response.statusCode())
+				.setStatusLine((response.version() == HttpClient.Version.HTTP_2 ? "HTTP/2" : "HTTP/1.1") + " "
+						+ response.statusCode())
+				.setHeaders(new Headers(headers))
+				.setBody(response.body());
+		response.headers().firstValue("Content-Type").ifPresent(builder::setContentType);
+		return builder.build().then();
+	}
+
+	static HttpClient client() {
+		HttpClient client = CLIENT;
+		if (client == null) {
+			synchronized (AsyncHttpCaller.class) {
+				client = CLIENT;
+				if (client == null) {
+					// HTTP/1.1 like the RestAssured pool, so the per-host limit is a limit on connections
+					client = HttpClient.newBuilder()
+							.version(HttpClient.Version.HTTP_1_1)
+							.followRedirects(HttpClient.Redirect.NORMAL)
+							.build();
+					CLIENT = client;
+				}
+			}
+		}
+		return client;
+	}
+
+	/**
+	 * Caps requests in flight to one host. Requests over the cap are queued and started as others finish, by
+	 * whichever thread completes one, so nothing blocks.
+	 */
+	private static final class HostLimit {
+		private final int max;
+		private final AtomicInteger inFlight = new AtomicInteger();
+		private final Queue<Runnable> waiting = new ConcurrentLinkedQueue<>();
+
+		HostLimit(int max) {
+			this.max = Math.max(1, max);
+		}
+
+		void submit(Runnable start) {
+			waiting.add(start);
+			startWaiting();
+		}
+
+		void release() {
+			inFlight.decrementAndGet();
+			startWaiting();
+		}
+
+		private void startWaiting() {
+			while (!waiting.isEmpty()) {
+				int current = inFlight.get();
+				if (current >= max) {
+					return;
+				}
+				if (inFlight.compareAndSet(current, current + 1)) {
+					Runnable next = waiting.poll();
+					if (next == null) {
+						// another thread took it first
+						inFlight.decrementAndGet();
+					} else {
+						next.run();
+					}
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,52 @@
+package io.github.mrs.functionaltest.utils;
+
+import lombok.Getter;
+
+/**
+ * One request in a {@link HttpCaller#doBatch} call: method, path within the area, optional JSON payload and the
+ * status expected back.
+ */
+@Getter
+public class BatchRequest {
+
+	private final String method;
+	private final String path;
+	private final String payload;
+	private final int expectedStatus;
+
+	private BatchRequest(String method, String path, String payload, int expectedStatus) {
+		this.method = method;
+		this.path = path;
+		this.payload = payload;
+		this.expectedStatus = expectedStatus;
+	}
+
+	public static BatchRequest get(String path, int expectedStatus) {
+		return new BatchRequest("GET", path, null, expectedStatus);
+	}
+
+	public static BatchRequest head(String path, int expectedStatus) {
+		return new BatchRequest("HEAD", path, null, expectedStatus);
+	}
+
+	public static BatchRequest post(String path, String payload, int expectedStatus) {
+		return new BatchRequest("POST", path, payload, expectedStatus);
+	}
+
+	public static BatchRequest put(String path, String payload, int expectedStatus) {
+		return new BatchRequest("PUT", path, payload, expectedStatus);
+	}
+
+	public static BatchRequest patch(String path, String payload, int expectedStatus) {
+		return new BatchRequest("PATCH", path, payload, expectedStatus);
+	}
+
+	public static BatchRequest delete(String path, int expectedStatus) {
+		return new BatchRequest("DELETE", path, null, expectedStatus);
+	}
+
+	@Override
+	public String toString() {
+		return method + " " + path;
+	}
+}
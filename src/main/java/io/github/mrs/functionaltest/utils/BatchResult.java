@@ -0,0 +1,55 @@
+package io.github.mrs.functionaltest.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import io.restassured.response.ValidatableResponse;
+import lombok.Getter;
+
+/**
+ * Outcome of one request in a {@link HttpCaller#doBatch} call: the response, or why there isn't one.
+ */
+@Getter
+public class BatchResult {
+
+	private final int index;
+	private final BatchRequest request;
+	private final ValidatableResponse response;
+	private final Throwable failure;
+
+	BatchResult(int index, BatchRequest request, ValidatableResponse response, Throwable failure) {
+		this.index = index;
+		this.request = request;
+		this.response = response;
+		this.failure = failure;
+	}
+
+	/**
+	 * @return true if the request got the expected status
+	 */
+	public boolean isSuccess() {
+		return failure == null;
+	}
+
+	/**
+	 * @param results results of a batch
+	 * @return every response, in request order
+	 * @throws AssertionError listing each failed request by position, if any failed
+	 */
+	public static List<ValidatableResponse> responses(List<BatchResult> results) {
+		List<ValidatableResponse> responses = new ArrayList<>(results.size());
+		List<String> failures = new ArrayList<>();
+		for (BatchResult result : results) {
+			if (result.isSuccess()) {
+				responses.add(result.response);
+			} else {
+				failures.add("request " + result.index + " (" + result.request + "): " + result.failure.getMessage());
+			}
+		}
+		if (!failures.isEmpty()) {
+			throw new AssertionError(failures.size() + " of " + results.size() + " batched requests failed:\n  "
+					+ String.join("\n  ", failures));
+		}
+		return responses;
+	}
+}
@@ -3,7 +3,11 @@ package io.github.mrs.functionaltest.utils;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.text.MessageFormat;
+import java.time.Duration;
 import java.util.Properties;
+
+import io.github.mrs.functionaltest.utils.metrics.LatencyBudgets;
+import io.github.mrs.functionaltest.utils.traffic.TrafficRecorder;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.logging.log4j.Level;
 import org.apache.logging.log4j.LogManager;
@@ -12,25 +16,61 @@ import org.apache.logging.log4j.core.config.Configurator;
 
 public class Config {
 
-	private static String baseURL;
-	private static int basePort;  // this gets pulled out of the URL so we can configure RestAssured
+	// assigned once in @BeforeSuite and read from every test thread afterwards
+	private static volatile String baseURL;
+	private static volatile int basePort;  // this gets pulled out of the URL so we can configure RestAssured
+
+	private static volatile String environment;
+
+	private static volatile String clientId;
+	private static volatile String clientSecret;
+	private static volatile String tokenUrl;
+	private static volatile String tokenScope;
+	private static volatile Duration tokenRefreshBefore = Duration.ofSeconds(60);
+
+	private static volatile int maxConnectionsPerHost = 20;
+	private static volatile int maxConnections = 100;
+
+	private static volatile int cleanupConcurrency = 8;
 
-	private static String environment;
+	private static volatile int responseCacheSize = 0;
+	private static volatile long responseCacheDefaultMaxAge = 0;
 
-	private static String clientId;
-	private static String clientSecret;
+	private static volatile LatencyBudgets latencyBudgets = LatencyBudgets.none();
+	private static volatile TrafficRecorder.Settings trafficSettings = TrafficRecorder.Settings.fromProperties(new Properties());
+	private static volatile String trafficCaptureFile;
+	private static volatile String trafficCaptureHar;
+	private static volatile boolean trafficCaptureCredentials;
 
-	public static boolean DEBUG = false;
+	private static volatile Properties properties;
+
+	public static volatile boolean DEBUG = false;
 	protected static final Logger LOGGER = LogManager.getLogger(Config.class);
 
 	public static void assign(String environment, Properties props, boolean isDebugging) {
 		LOGGER.info("Assigning properties for test run:");
+		properties = (Properties) props.clone();
 		if (! StringUtils.isBlank(environment)) {
-			environment = environment;
+			Config.environment = environment;
 		}
 		baseURL = getProperty(props,"base.url");
 		clientId = getProperty(props, "client.id");
 		clientSecret = getProperty(props, "client.secret");
+		tokenUrl = getProperty(props, "auth.token.url", null);
+		tokenScope = getProperty(props, "auth.scope", null);
+		tokenRefreshBefore = Duration.ofSeconds(Long.parseLong(
+				getProperty(props, "auth.refreshBefore", String.valueOf(tokenRefreshBefore.getSeconds()))));
+		maxConnectionsPerHost = Integer.parseInt(getProperty(props, "http.pool.maxPerHost", String.valueOf(maxConnectionsPerHost)));
+		maxConnections = Integer.parseInt(getProperty(props, "http.pool.maxTotal", String.valueOf(maxConnections)));
+		cleanupConcurrency = Integer.parseInt(getProperty(props, "cleanup.concurrency", String.valueOf(cleanupConcurrency)));
+		responseCacheSize = Integer.parseInt(getProperty(props, "http.cache.maxEntries", String.valueOf(responseCacheSize)));
+		responseCacheDefaultMaxAge = Long.parseLong(
+				getProperty(props, "http.cache.defaultMaxAge", String.valueOf(responseCacheDefaultMaxAge)));
+		latencyBudgets = LatencyBudgets.fromProperties(props);
+		trafficSettings = TrafficRecorder.Settings.fromProperties(props);
+		trafficCaptureFile = getProperty(props, "traffic.capture.file", null);
+		trafficCaptureHar = getProperty(props, "traffic.capture.har", null);
+		trafficCaptureCredentials = Boolean.parseBoolean(getProperty(props, "traffic.capture.credentials", "false"));
 
 		try {
 			URL url = new URL(baseURL);
@@ -55,6 +95,19 @@ public class Config {
 		}
 	}
 
+	/**
+	 * @param environmentVariableName name of environment variable to check first
+	 * @param propertyName name of system property to fall back to
+	 * @return value of the environment variable if set, otherwise the system property (may be null)
+	 */
+	public static String envOrProperty(String environmentVariableName, String propertyName) {
+		String value = System.getenv(environmentVariableName);
+		if (StringUtils.isBlank(value)) {
+			value = System.getProperty(propertyName);
+		}
+		return value;
+	}
+
 	protected static String getProperty (Properties properties, String key) {
 		final String property = properties.getProperty(key);
 		if (property == null) {
@@ -63,6 +116,10 @@ public class Config {
 		return property;
 	}
 
+	protected static String getProperty (Properties properties, String key, String defaultValue) {
+		return properties.getProperty(key, defaultValue);
+	}
+
 	/**
 	 * @return port associated with base URL, 80 if unspecified http, 443 if unspecified https
 	 */
@@ -70,6 +127,86 @@ public class Config {
 		return basePort;
 	}
 
+	/**
+	 * @return maximum number of pooled connections kept open to a single host, from <tt>http.pool.maxPerHost</tt>
+	 */
+	public static int maxConnectionsPerHost() {
+		return maxConnectionsPerHost;
+	}
+
+	/**
+	 * @return maximum number of pooled connections across all hosts, from <tt>http.pool.maxTotal</tt>
+	 */
+	public static int maxConnections() {
+		return maxConnections;
+	}
+
+	/**
+	 * @return maximum number of items a single cleanup deletes at once, from <tt>cleanup.concurrency</tt>
+	 */
+	public static int cleanupConcurrency() {
+		return cleanupConcurrency;
+	}
+
+	/**
+	 * @return most GET/HEAD responses to cache, from <tt>http.cache.maxEntries</tt>, default 0 (no caching)
+	 */
+	public static int responseCacheSize() {
+		return responseCacheSize;
+	}
+
+	/**
+	 * @return seconds to cache responses without freshness headers, from <tt>http.cache.defaultMaxAge</tt>, default 0
+	 */
+	public static long responseCacheDefaultMaxAge() {
+		return responseCacheDefaultMaxAge;
+	}
+
+	/**
+	 * @return latency budgets declared with <tt>slo.*</tt> properties, empty if none
+	 */
+	public static LatencyBudgets latencyBudgets() {
+		return latencyBudgets;
+	}
+
+	/**
+	 * @return how to record traffic in debug runs, from <tt>traffic.*</tt> properties
+	 */
+	public static TrafficRecorder.Settings trafficSettings() {
+		return trafficSettings;
+	}
+
+	/**
+	 * @return file to capture every exchange to for replay, from <tt>traffic.capture.file</tt>, null if not capturing
+	 */
+	public static String trafficCaptureFile() {
+		return trafficCaptureFile;
+	}
+
+	/**
+	 * @return HAR file to export the capture to when it's closed, from <tt>traffic.capture.har</tt>, null for none
+	 */
+	public static String trafficCaptureHar() {
+		return trafficCaptureHar;
+	}
+
+	/**
+	 * @return whether the capture file keeps credentials unredacted, from <tt>traffic.capture.credentials</tt>,
+	 *     default false; the HAR export is redacted either way
+	 */
+	public static boolean trafficCaptureCredentials() {
+		return trafficCaptureCredentials;
+	}
+
+	/**
+	 * @return copy of the properties last passed to {@link #assign}, e.g. to assign them again later; null before
+	 *     the first assign
+	 */
+	public static Properties properties() {
+		Properties assigned = properties;
+		return assigned == null ? null : (Properties) assigned.clone();
+	}
+
 	public static String url(String path) {
 		String request = baseURL + path;
 		LOGGER.info("  REQUEST_URL now: {}", request);
@@ -89,4 +226,25 @@ public class Config {
 		return clientSecret;
 	}
 
+	/**
+	 * @return OAuth2 token endpoint from <tt>auth.token.url</tt>, null if requests aren't authorized automatically
+	 */
+	public static String getTokenUrl() {
+		return tokenUrl;
+	}
+
+	/**
+	 * @return scopes to request tokens for from <tt>auth.scope</tt>, null for the client's default
+	 */
+	public static String getTokenScope() {
+		return tokenScope;
+	}
+
+	/**
+	 * @return how long before expiry to replace a token, from <tt>auth.refreshBefore</tt> in seconds, default 60
+	 */
+	public static Duration getTokenRefreshBefore() {
+		return tokenRefreshBefore;
+	}
+
 }
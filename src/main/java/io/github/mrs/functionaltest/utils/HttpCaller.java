@@ -2,55 +2,91 @@ package io.github.mrs.functionaltest.utils;
 
 import static io.restassured.RestAssured.given;
 
+import io.github.mrs.functionaltest.utils.auth.TokenProvider;
+import io.github.mrs.functionaltest.utils.cache.ResponseCache;
+import io.github.mrs.functionaltest.utils.metrics.RequestMetrics;
+import io.github.mrs.functionaltest.utils.traffic.TrafficCapture;
+import io.github.mrs.functionaltest.utils.traffic.TrafficRecorder;
 import io.restassured.RestAssured;
 import io.restassured.builder.RequestSpecBuilder;
 import io.restassured.builder.ResponseSpecBuilder;
-import io.restassured.config.LogConfig;
-import io.restassured.filter.log.LogDetail;
+import io.restassured.config.HttpClientConfig;
 import io.restassured.http.ContentType;
+import io.restassured.http.Header;
+import io.restassured.http.Headers;
 import io.restassured.response.ValidatableResponse;
 import io.restassured.specification.RequestSpecification;
 import io.restassured.specification.ResponseSpecification;
-import lombok.NoArgsConstructor;
 
-import java.io.File;
 import java.io.IOException;
-import java.io.PrintStream;
-import java.util.HashMap;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
 
 import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
 
+import org.apache.commons.lang3.StringUtils;
+import org.apache.http.impl.client.DefaultHttpClient;
+import org.apache.http.impl.conn.PoolingClientConnectionManager;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.hamcrest.core.AnyOf;
 
-@NoArgsConstructor
 public class HttpCaller {
 
 	private static final Logger LOGGER = LogManager.getLogger(HttpCaller.class);
 
-	// define a default no-op spec
-	private static RequestSpecification REQUEST_SPEC = new RequestSpecBuilder().build();
-	private static ResponseSpecification RESPONSE_SPEC = new ResponseSpecBuilder().build();
+	private static final String ACCEPT = "Accept";
+	private static final String CONTENT_TYPE = "Content-Type";
+	private static final String JSON = "application/json";
 
-	// TODO: use Map implementation that allows for case-insenitive keys on get operations
-	private Map<String, String> headers = new HashMap<>();
+	// define a default spec that adds tokens, caches, records and captures traffic if enabled, and records latency; replaced wholesale in setup() and read concurrently by every request
+	private static volatile RequestSpecification REQUEST_SPEC = requestSpecBuilder().build();
+	private static volatile ResponseSpecification RESPONSE_SPEC = new ResponseSpecBuilder().build();
+
+	// caller's own headers, keyed case-insensitively so a later header replaces an earlier one in any case
+	private final Map<String, String> headers;
+
+	// built once per caller: what every request of a kind sends, shared read-only by concurrent requests and
+	// AsyncHttpCaller
+	final Headers plainHeaders;
+	final Headers readHeaders;
+	final Headers writeHeaders;
+
+	public HttpCaller() {
+		this(Collections.emptyMap());
+	}
 
 	public HttpCaller(Map<String, String> additionalHeaders) {
-	    this.headers.putAll(additionalHeaders);
+		TreeMap<String, String> own = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+		own.putAll(additionalHeaders);
+		this.headers = Collections.unmodifiableMap(own);
+		this.plainHeaders = toHeaders(own);
+		TreeMap<String, String> json = new TreeMap<>(own);
+		json.put(ACCEPT, JSON);
+		this.readHeaders = toHeaders(json);
+		json.put(CONTENT_TYPE, JSON);
+		this.writeHeaders = toHeaders(json);
 	}
 
 	/**
 	 * Create a new HttpCaller object with its original headers augmented by those given.
 	 *
 	 * @param moreHeaders headers to use in addition to the ones already in the current HttpCaller object;
-	 *   headers given will override existing
-	 * @return new HttpCaller object
+	 *   headers given will override existing, whatever their case
+	 * @return new HttpCaller object, or this one if there are no headers to add
 	 */
 	public HttpCaller withHeaders(Map<String, String> moreHeaders) {
-		Map<String, String> newHeaders = new HashMap<>(this.headers);
+		if (moreHeaders.isEmpty()) {
+			return this;
+		}
+		Map<String, String> newHeaders = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+		newHeaders.putAll(this.headers);
 		newHeaders.putAll(moreHeaders);
 		return new HttpCaller(newHeaders);
 	}
@@ -58,7 +94,7 @@ public class HttpCaller {
 	/**
 	 * Get the value of an individual header this caller object was seeded with.
 	 *
-	 * @param key case-sensitive key for the header
+	 * @param key case-insensitive key for the header
 	 * @return value associated with the header, will return empty string instead
 	 * of null if header does not exist
 	 */
@@ -67,15 +103,10 @@ public class HttpCaller {
 		return null == val ? "" : val;
 	}
 
-	private Map<String, String> getHeaders() {
-		this.headers.put("Accept", "application/json");
-		return this.headers;
-	}
-
-	private Map<String,String> postHeaders() {
-		Map<String, String> headers = getHeaders();
-		headers.put("Content-Type", "application/json");
-		return headers;
+	private static Headers toHeaders(Map<String, String> headers) {
+		List<Header> list = new ArrayList<>(headers.size());
+		headers.forEach((name, value) -> list.add(new Header(name, value)));
+		return new Headers(list);
 	}
 
 	public String resolveUrl(String path) {
@@ -83,20 +114,59 @@ public class HttpCaller {
 	}
 
 	public static void setup(int port) {
+		RestAssured.config = RestAssured
+				.config()
+				.httpClient(pooledClientConfig());
+		TokenProvider.install(StringUtils.isBlank(Config.getTokenUrl()) ? null : new TokenProvider(Config.getTokenUrl(),
+				Config.getClientId(), Config.getClientSecret(), Config.getTokenScope(), Config.getTokenRefreshBefore()));
+		ResponseCache.configure(Config.responseCacheSize(), Config.responseCacheDefaultMaxAge());
 		if (Config.DEBUG) {
 			try {
-				PrintStream trafficStream = new PrintStream(new File("test-output/traffic.log"));
-				RestAssured.config = RestAssured
-						.config()
-						.logConfig(new LogConfig().defaultStream(trafficStream));
-				REQUEST_SPEC = new RequestSpecBuilder().setPort(port).log(LogDetail.ALL).build();
-				RESPONSE_SPEC = new ResponseSpecBuilder().log(LogDetail.ALL).build();
+				TrafficRecorder.start(Config.trafficSettings());
+				REQUEST_SPEC = requestSpecBuilder().setPort(port).build();
 			} catch (IOException e) {
 				LOGGER.warn("Failed to open output file for request/response logging: " + e.getMessage());
 			}
 		}
+		if (StringUtils.isNotBlank(Config.trafficCaptureFile())) {
+			try {
+				TrafficCapture.start(Paths.get(Config.trafficCaptureFile()),
+						StringUtils.isBlank(Config.trafficCaptureHar()) ? null : Paths.get(Config.trafficCaptureHar()),
+						Config.trafficCaptureCredentials());
+			} catch (IOException e) {
+				LOGGER.warn("Failed to open traffic capture file: " + e.getMessage());
+			}
+		}
 		RestAssured.enableLoggingOfRequestAndResponseIfValidationFails();
 	}
+
+	private static RequestSpecBuilder requestSpecBuilder() {
+		// metrics last, so they time what went over the wire rather than cache hits or token fetches
+		return new RequestSpecBuilder()
+				.addFilter(TokenProvider.filter())
+				.addFilter(ResponseCache.filter())
+				.addFilter(TrafficRecorder.filter())
+				.addFilter(TrafficCapture.filter())
+				.addFilter(RequestMetrics.filter());
+	}
+
+	/**
+	 * Build a client config that shares a single keep-alive connection pool across every request instead of
+	 * opening a new client per call. Pool limits come from <tt>http.pool.maxPerHost</tt> and
+	 * <tt>http.pool.maxTotal</tt>.
+	 *
+	 * @return client config to install on RestAssured
+	 */
+	@SuppressWarnings("deprecation")
+	static HttpClientConfig pooledClientConfig() {
+		PoolingClientConnectionManager connectionManager = new PoolingClientConnectionManager();
+		connectionManager.setDefaultMaxPerRoute(Config.maxConnectionsPerHost());
+		connectionManager.setMaxTotal(Config.maxConnections());
+		return HttpClientConfig.httpClientConfig()
+				.httpClientFactory(() -> new DefaultHttpClient(connectionManager))
+				.reuseHttpClientInstance();
+	}
+
 	/**
 	 * Run a remove without status code verification.
 	 *
@@ -105,7 +175,7 @@ public class HttpCaller {
 	 */
 	public ValidatableResponse doDelete(String path, String payload, int expectedStatus) throws Exception {
 		return given().spec(REQUEST_SPEC)
-				.headers(getHeaders())
+				.headers(readHeaders)
 				.body(payload)
 			.when()
 				.delete(resolveUrl(path))
@@ -115,7 +185,7 @@ public class HttpCaller {
 
 	public ValidatableResponse doDelete(String path, String payload, AnyOf<Integer> anyOf) throws Exception {
 		return given().spec(REQUEST_SPEC)
-				.headers(getHeaders())
+				.headers(readHeaders)
 				.body(payload)
 			.when()
 				.delete(resolveUrl(path))
@@ -131,7 +201,7 @@ public class HttpCaller {
 	 */
 	public ValidatableResponse doDelete(String path, int expectedStatus) throws Exception {
 		return given().spec(REQUEST_SPEC)
-				.headers(getHeaders())
+				.headers(readHeaders)
 			.when()
 				.delete(resolveUrl(path))
 			.then().spec(RESPONSE_SPEC)
@@ -140,7 +210,7 @@ public class HttpCaller {
 
 	public ValidatableResponse doDelete(String path, AnyOf<Integer> anyOf) throws Exception {
 		return given().spec(REQUEST_SPEC)
-				.headers(getHeaders())
+				.headers(readHeaders)
 			.when()
 				.delete(resolveUrl(path))
 			.then().spec(RESPONSE_SPEC)
@@ -149,7 +219,7 @@ public class HttpCaller {
 
 	public ValidatableResponse fetch(String path, int expectedStatus) throws Exception {
 		return given().spec(REQUEST_SPEC)
-				.headers(this.headers)
+				.headers(plainHeaders)
 			.when()
 				.get(resolveUrl(path))
 			.then().spec(RESPONSE_SPEC)
@@ -158,7 +228,7 @@ public class HttpCaller {
 
 	public ValidatableResponse doGet(String path, int expectedStatus) throws Exception {
 		return given().spec(REQUEST_SPEC)
-				.headers(getHeaders())
+				.headers(readHeaders)
 			.when()
 				.get(resolveUrl(path))
 			.then().spec(RESPONSE_SPEC)
@@ -169,7 +239,7 @@ public class HttpCaller {
 	@Deprecated
 	public ValidatableResponse doGet(String path, String payload, int expectedStatus) throws Exception {
 		return given().spec(REQUEST_SPEC)
-				.headers(getHeaders())
+				.headers(readHeaders)
 				.body(payload)
 			.when()
 				.get(resolveUrl(path))
@@ -180,7 +250,7 @@ public class HttpCaller {
 
 	public ValidatableResponse doPost(String path, int expectedStatus) throws Exception {
 		return given().spec(REQUEST_SPEC)
-				.headers(this.headers)
+				.headers(readHeaders)
 			.when()
 				.post(resolveUrl(path))
 			.then().spec(RESPONSE_SPEC)
@@ -190,7 +260,7 @@ public class HttpCaller {
 
 	public ValidatableResponse doPost(String path, String payload, int expectedStatus) throws Exception {
 		return given().spec(REQUEST_SPEC)
-				.headers(postHeaders())
+				.headers(writeHeaders)
 				.body(payload)
 			.when()
 				.post(resolveUrl(path))
@@ -201,7 +271,7 @@ public class HttpCaller {
 
 	public ValidatableResponse doPut(String path, String payload, int expectedStatus) throws Exception {
 		return given().spec(REQUEST_SPEC)
-				.headers(postHeaders())
+				.headers(writeHeaders)
 				.body(payload)
 			.when()
 				.put(resolveUrl(path))
@@ -212,7 +282,7 @@ public class HttpCaller {
 
 	public ValidatableResponse doPut(String path, int expectedStatus) throws Exception {
 		return given().spec(REQUEST_SPEC)
-				.headers(postHeaders())
+				.headers(writeHeaders)
 			.when()
 				.put(resolveUrl(path))
 			.then().spec(RESPONSE_SPEC)
@@ -222,7 +292,7 @@ public class HttpCaller {
 
 	public ValidatableResponse doPatch(String path, String payload, int expectedStatus) throws Exception {
 		return given().spec(REQUEST_SPEC)
-				.headers(postHeaders())
+				.headers(writeHeaders)
 				.body(payload)
 			.when()
 				.patch(resolveUrl(path))
@@ -233,7 +303,7 @@ public class HttpCaller {
 
 	public ValidatableResponse doPatch(String path, int expectedStatus) throws Exception {
 		return given().spec(REQUEST_SPEC)
-				.headers(postHeaders())
+				.headers(writeHeaders)
 			.when()
 				.patch(resolveUrl(path))
 			.then().spec(RESPONSE_SPEC)
@@ -241,14 +311,107 @@ public class HttpCaller {
 				.contentType(ContentType.JSON);
 	}
 
+	/**
+	 * Run many independent requests concurrently, at most as many at once as the pool allows per host
+	 * (<tt>http.pool.maxPerHost</tt>).
+	 *
+	 * @param requests requests to make with this caller's headers
+	 * @return one result per request, in the same order; a failed status check or error fails only its own result
+	 * @see BatchResult#responses(List)
+	 */
+	public List<BatchResult> doBatch(List<BatchRequest> requests) {
+		return doBatch(requests, Config.maxConnectionsPerHost());
+	}
+
+	/**
+	 * Run many independent requests concurrently. Requests are started in order, each waiting for a free slot,
+	 * so no more than <tt>maxInFlight</tt> are ever queued on the connection pool.
+	 *
+	 * @param requests requests to make with this caller's headers
+	 * @param maxInFlight most requests outstanding at once
+	 * @return one result per request, in the same order; a failed status check or error fails only its own result
+	 */
+	public List<BatchResult> doBatch(List<BatchRequest> requests, int maxInFlight) {
+		BatchResult[] results = new BatchResult[requests.size()];
+		int concurrency = Math.max(1, Math.min(maxInFlight, requests.size()));
+		Semaphore slots = new Semaphore(concurrency);
+		ExecutorService executor = VirtualThreads.newExecutor("http-batch-", concurrency);
+		int started = 0;
+		try {
+			for (; started < requests.size(); started++) {
+				slots.acquire();
+				int index = started;
+				executor.execute(() -> {
+					try {
+						results[index] = call(index, requests.get(index));
+					} finally {
+						slots.release();
+					}
+				});
+			}
+			// every slot back means every request has finished
+			slots.acquire(concurrency);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			executor.shutdownNow();
+			for (int i = started; i < requests.size(); i++) {
+				results[i] = new BatchResult(i, requests.get(i), null, e);
+			}
+		} finally {
+			executor.shutdown();
+		}
+		List<BatchResult> ordered = new ArrayList<>(results.length);
+		for (int i = 0; i < results.length; i++) {
+			// only empty if interrupted while it was still running
+			ordered.add(results[i] != null ? results[i]
+					: new BatchResult(i, requests.get(i), null, new InterruptedException("batch interrupted")));
+		}
+		return ordered;
+	}
+
+	private BatchResult call(int index, BatchRequest request) {
+		String path = request.getPath();
+		String payload = request.getPayload();
+		int status = request.getExpectedStatus();
+		try {
+			ValidatableResponse response;
+			switch (request.getMethod()) {
+			case "GET":
+				response = doGet(path, status);
+				break;
+			case "HEAD":
+				response = fetchHead(path, status);
+				break;
+			case "POST":
+				response = payload == null ? doPost(path, status) : doPost(path, payload, status);
+				break;
+			case "PUT":
+				response = payload == null ? doPut(path, status) : doPut(path, payload, status);
+				break;
+			case "PATCH":
+				response = payload == null ? doPatch(path, status) : doPatch(path, payload, status);
+				break;
+			case "DELETE":
+				response = payload == null ? doDelete(path, status) : doDelete(path, payload, status);
+				break;
+			default:
+				throw new IllegalArgumentException("Unsupported method " + request.getMethod());
+			}
+			return new BatchResult(index, request, response, null);
+		} catch (Exception | AssertionError e) {
+			LOGGER.warn("Batched request {} ({}) failed: {}", index, request, e.getMessage());
+			return new BatchResult(index, request, null, e);
+		}
+	}
+
 	public JsonObject toJson(ValidatableResponse response) {
-		return JsonParser.parseString(response.extract().body().asString()).getAsJsonObject();
+		return JsonStreams.read(JsonCodecs.defaults(), JsonStreams.reader(response), JsonObject.class);
 	}
 
 
 	public ValidatableResponse fetchHead(String path, int expectedStatus) throws Exception {
 		return given().spec(REQUEST_SPEC)
-				.headers(getHeaders())
+				.headers(readHeaders)
 			.when()
 				.head(resolveUrl(path))
 			.then().spec(RESPONSE_SPEC)
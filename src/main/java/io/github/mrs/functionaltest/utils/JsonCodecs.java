@@ -0,0 +1,112 @@
+package io.github.mrs.functionaltest.utils;
+
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.TypeAdapterFactory;
+
+/**
+ * Shared, thread-safe Gson instances.
+ *
+ * Gson builds a reflective type adapter the first time it sees a class and caches it per instance, so creating
+ * a new Gson per call repeats that work every time. Use these instances instead:
+ * <ul>
+ *   <li>{@link #defaults()}: plain Gson, nulls omitted</li>
+ *   <li>{@link #withNulls()}: nulls written out</li>
+ *   <li>{@link #get(String)}: custom configurations added with {@link #register(String, Consumer)}</li>
+ * </ul>
+ *
+ * Type adapters and factories registered here apply to every codec, including custom ones. Registration
+ * rebuilds the codecs, which drops their adapter caches, so do it once during setup rather than per test.
+ */
+public final class JsonCodecs {
+
+	// adapter registrations applied to every codec's builder, in registration order
+	private static final List<Consumer<GsonBuilder>> SHARED = new CopyOnWriteArrayList<>();
+	private static final Map<String, Consumer<GsonBuilder>> CUSTOMIZERS = new ConcurrentHashMap<>();
+	private static final Map<String, Gson> CUSTOM = new ConcurrentHashMap<>();
+
+	private static volatile Gson defaults = build(builder -> {});
+	private static volatile Gson withNulls = build(GsonBuilder::serializeNulls);
+
+	private JsonCodecs() {
+	}
+
+	/**
+	 * @return shared Gson with default settings
+	 */
+	public static Gson defaults() {
+		return defaults;
+	}
+
+	/**
+	 * @return shared Gson that serializes null fields
+	 */
+	public static Gson withNulls() {
+		return withNulls;
+	}
+
+	/**
+	 * @param name name given to {@link #register(String, Consumer)}
+	 * @return shared Gson for that configuration
+	 * @throws IllegalArgumentException if nothing is registered under the name
+	 */
+	public static Gson get(String name) {
+		Gson gson = CUSTOM.get(name);
+		if (gson == null) {
+			throw new IllegalArgumentException("No JSON codec registered as [" + name + "], registered: " + CUSTOM.keySet());
+		}
+		return gson;
+	}
+
+	/**
+	 * Add or replace a named configuration, e.g. a date format or field naming policy for one service.
+	 *
+	 * @param name name to look the codec up by
+	 * @param customizer applied to a builder that already has the shared type adapters
+	 * @return the codec
+	 */
+	public static synchronized Gson register(String name, Consumer<GsonBuilder> customizer) {
+		Gson gson = build(customizer);
+		CUSTOMIZERS.put(name, customizer);
+		CUSTOM.put(name, gson);
+		return gson;
+	}
+
+	/**
+	 * @param factory factory added to every codec
+	 */
+	public static synchronized void registerTypeAdapterFactory(TypeAdapterFactory factory) {
+		SHARED.add(builder -> builder.registerTypeAdapterFactory(factory));
+		rebuild();
+	}
+
+	/**
+	 * @param type type the adapter handles
+	 * @param typeAdapter a TypeAdapter, JsonSerializer, JsonDeserializer or InstanceCreator, as for
+	 *     <tt>GsonBuilder.registerTypeAdapter</tt>
+	 */
+	public static synchronized void registerTypeAdapter(Type type, Object typeAdapter) {
+		SHARED.add(builder -> builder.registerTypeAdapter(type, typeAdapter));
+		rebuild();
+	}
+
+	private static void rebuild() {
+		defaults = build(builder -> {});
+		withNulls = build(GsonBuilder::serializeNulls);
+		CUSTOMIZERS.forEach((name, customizer) -> CUSTOM.put(name, build(customizer)));
+	}
+
+	private static Gson build(Consumer<GsonBuilder> customizer) {
+		GsonBuilder builder = new GsonBuilder();
+		SHARED.forEach(shared -> shared.accept(builder));
+		customizer.accept(builder);
+		return builder.create();
+	}
+}
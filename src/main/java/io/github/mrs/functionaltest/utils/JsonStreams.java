@@ -0,0 +1,199 @@
+package io.github.mrs.functionaltest.utils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Type;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import io.restassured.response.ExtractableResponse;
+import io.restassured.response.Response;
+import io.restassured.response.ValidatableResponse;
+
+/**
+ * Reads JSON from response bodies without building the whole body as a String first.
+ *
+ * {@link #reader} parses the buffered body bytes, so the response can still be read again afterwards.
+ * {@link #streamingReader} reads straight off the connection when the body hasn't been read yet, and combined
+ * with the array streams a page of tens of thousands of records is never in memory all at once. Array streams
+ * hold the body open until exhausted or closed; use them in try-with-resources.
+ */
+public final class JsonStreams {
+
+	private JsonStreams() {
+	}
+
+	/**
+	 * @param response response with a JSON body
+	 * @return reader over the buffered body, decoded with the response charset (UTF-8 if none is given)
+	 */
+	public static JsonReader reader(ValidatableResponse response) {
+		ExtractableResponse<Response> extracted = response.extract();
+		return reader(new ByteArrayInputStream(extracted.body().asByteArray()), charset(extracted.contentType()));
+	}
+
+	/**
+	 * Unlike {@link #reader}, this consumes the body: once read it can't be extracted from the response again.
+	 * If the body was already read, e.g. by a body matcher or request logging, this reads the buffered copy.
+	 *
+	 * @param response response with a JSON body
+	 * @return reader over the body as it arrives, decoded with the response charset (UTF-8 if none is given)
+	 */
+	public static JsonReader streamingReader(ValidatableResponse response) {
+		ExtractableResponse<Response> extracted = response.extract();
+		return reader(extracted.body().asInputStream(), charset(extracted.contentType()));
+	}
+
+	/**
+	 * @param in JSON input
+	 * @param charset encoding of the input
+	 * @return reader over the input
+	 */
+	public static JsonReader reader(InputStream in, Charset charset) {
+		return new JsonReader(new InputStreamReader(in, charset));
+	}
+
+	/**
+	 * @param gson codec to map with
+	 * @param reader JSON input, closed once read
+	 * @param type type to map the whole document to
+	 * @return mapped document
+	 */
+	public static <T> T read(Gson gson, JsonReader reader, Type type) {
+		try (JsonReader in = reader) {
+			return gson.fromJson(in, type);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * @param gson codec to map elements with
+	 * @param reader JSON input whose top-level value is an array
+	 * @param elementType type of each element
+	 * @return lazy stream of elements that closes the reader when exhausted or closed
+	 */
+	public static <T> Stream<T> streamArray(Gson gson, JsonReader reader, Type elementType) {
+		return streamArray(gson, reader, null, elementType);
+	}
+
+	/**
+	 * @param gson codec to map elements with
+	 * @param reader JSON input whose top-level value is an object
+	 * @param field array to stream, a field name or dotted path through nested objects such as <tt>result.items</tt>;
+	 *     null for a top-level array
+	 * @param elementType type of each element
+	 * @return lazy stream of elements that closes the reader when exhausted or closed; empty if the field is
+	 *     missing or null
+	 */
+	public static <T> Stream<T> streamArray(Gson gson, JsonReader reader, String field, Type elementType) {
+		ArrayCursor<T> cursor = new ArrayCursor<>(gson, reader, elementType);
+		try {
+			if (field == null || moveTo(reader, field.split("\\."), 0)) {
+				reader.beginArray();
+			} else {
+				cursor.close();
+			}
+		} catch (IOException | RuntimeException e) {
+			cursor.close();
+			throw e instanceof IOException ? new JsonParseException(e) : (RuntimeException) e;
+		}
+		return StreamSupport.stream(cursor, false).onClose(cursor::close);
+	}
+
+	/**
+	 * @param contentType Content-Type header value, may be null
+	 * @return its charset parameter, UTF-8 if absent or unknown
+	 */
+	static Charset charset(String contentType) {
+		if (contentType != null) {
+			for (String param : contentType.split(";")) {
+				String[] pair = param.trim().split("=", 2);
+				if (pair.length == 2 && pair[0].trim().equalsIgnoreCase("charset")) {
+					try {
+						return Charset.forName(pair[1].trim().replace("\"", ""));
+					} catch (IllegalArgumentException e) {
+						break;
+					}
+				}
+			}
+		}
+		return StandardCharsets.UTF_8;
+	}
+
+	// leaves the reader positioned at the value of path[depth...], skipping everything else
+	private static boolean moveTo(JsonReader reader, String[] path, int depth) throws IOException {
+		if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+			reader.skipValue();
+			return false;
+		}
+		reader.beginObject();
+		while (reader.hasNext()) {
+			if (!reader.nextName().equals(path[depth])) {
+				reader.skipValue();
+			} else if (reader.peek() == JsonToken.NULL) {
+				return false;
+			} else {
+				return depth == path.length - 1 || moveTo(reader, path, depth + 1);
+			}
+		}
+		return false;
+	}
+
+	private static class ArrayCursor<T> extends Spliterators.AbstractSpliterator<T> {
+		private final Gson gson;
+		private final JsonReader reader;
+		private final Type elementType;
+		private boolean closed = false;
+
+		ArrayCursor(Gson gson, JsonReader reader, Type elementType) {
+			super(Long.MAX_VALUE, Spliterator.ORDERED);
+			this.gson = gson;
+			this.reader = reader;
+			this.elementType = elementType;
+		}
+
+		@Override
+		public boolean tryAdvance(Consumer<? super T> action) {
+			if (closed) {
+				return false;
+			}
+			try {
+				if (!reader.hasNext()) {
+					close();
+					return false;
+				}
+				T element = gson.fromJson(reader, elementType);
+				action.accept(element);
+				return true;
+			} catch (IOException e) {
+				close();
+				throw new JsonParseException(e);
+			}
+		}
+
+		void close() {
+			if (!closed) {
+				closed = true;
+				try {
+					reader.close();
+				} catch (IOException e) {
+					// nothing left to read
+				}
+			}
+		}
+	}
+}
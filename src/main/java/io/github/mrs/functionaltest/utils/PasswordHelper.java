@@ -1,44 +1,157 @@
 package io.github.mrs.functionaltest.utils;
 
 import java.security.SecureRandom;
-import java.util.Random;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.stream.Stream;
 
-public class PasswordHelper {
+/**
+ * Generates passwords that meet a policy: a minimum length, and at least one character from each required class.
+ *
+ * Instances are immutable and thread-safe, so build one per policy and reuse it. Alphabets are worked out once
+ * when the policy is built, and each thread keeps its own <tt>SecureRandom</tt>, so generating thousands of
+ * passwords costs neither reseeding nor contention. The required characters are shuffled in with the rest
+ * unless {@link #withShuffle(boolean)} turns it off.
+ */
+public final class PasswordHelper {
 
-	public static String generatePassword (int length) {
+	public static final String LOWERCASE = "abcdefghijklmnopqrstuvwxyz";
+	public static final String UPPERCASE = "ABCDEFGJKLMNPRSTUVWXYZ";
+	public static final String NUMBERS = "0123456789";
+	public static final String SYMBOLS = "^$?!@#%&";
 
-		//minimum length of 6
-		if (!(length >= 6)) {
-			length = 6;
+	private static final ThreadLocal<Entropy> ENTROPY = ThreadLocal.withInitial(Entropy::new);
+
+	/** lower, upper, number and symbol required, at least 6 characters, shuffled */
+	public static final PasswordHelper DEFAULT = new PasswordHelper(6, true, LOWERCASE, UPPERCASE, NUMBERS, SYMBOLS);
+
+	private final int minLength;
+	private final boolean shuffle;
+	private final char[][] required;
+	private final char[] allAllowed;
+
+	private PasswordHelper(int minLength, boolean shuffle, String... classes) {
+		if (classes.length == 0) {
+			throw new IllegalArgumentException("a password policy needs at least one character class");
+		}
+		this.required = new char[classes.length][];
+		Set<Character> all = new LinkedHashSet<>();
+		for (int i = 0; i < classes.length; i++) {
+			if (classes[i] == null || classes[i].isEmpty()) {
+				throw new IllegalArgumentException("character class " + i + " is empty");
+			}
+			required[i] = classes[i].toCharArray();
+			for (char c : required[i]) {
+				all.add(c);
+			}
+		}
+		this.allAllowed = new char[all.size()];
+		int i = 0;
+		for (char c : all) {
+			allAllowed[i++] = c;
 		}
+		this.minLength = Math.max(minLength, classes.length);
+		this.shuffle = shuffle;
+	}
 
-		final char[] lowercase = "abcdefghijklmnopqrstuvwxyz".toCharArray();
-		final char[] uppercase = "ABCDEFGJKLMNPRSTUVWXYZ".toCharArray();
-		final char[] numbers = "0123456789".toCharArray();
-		final char[] symbols = "^$?!@#%&".toCharArray();
-		final char[] allAllowed = "abcdefghijklmnopqrstuvwxyzABCDEFGJKLMNPRSTUVWXYZ0123456789^$?!@#%&".toCharArray();
+	/**
+	 * @param length desired length, raised to the default policy's minimum of 6
+	 * @return password with a lowercase letter, an uppercase letter, a number and a symbol
+	 */
+	public static String generatePassword(int length) {
+		return DEFAULT.generate(length);
+	}
 
-		//Use cryptographically secure random number generator
-		Random random = new SecureRandom();
+	/**
+	 * @param minLength shortest password to generate, whatever length is asked for
+	 * @return copy of this policy with the new minimum
+	 */
+	public PasswordHelper withMinLength(int minLength) {
+		return new PasswordHelper(minLength, shuffle, classes());
+	}
 
-		StringBuilder password = new StringBuilder(length);
+	/**
+	 * @param classes alphabets to draw from, each contributing at least one character, e.g. {@link #LOWERCASE}
+	 * @return copy of this policy with the new character classes
+	 */
+	public PasswordHelper withClasses(String... classes) {
+		return new PasswordHelper(minLength, shuffle, classes);
+	}
 
-		//Ensure password policy is met by inserting required random chars in positions
-		password.insert(0, lowercase[random.nextInt(lowercase.length)]);
-		password.insert(1, uppercase[random.nextInt(uppercase.length)]);
-		password.insert(2, numbers[random.nextInt(numbers.length)]);
-		password.insert(3, symbols[random.nextInt(symbols.length)]);
+	/**
+	 * @param shuffle false to put the required characters first, in class order
+	 * @return copy of this policy with the new setting
+	 */
+	public PasswordHelper withShuffle(boolean shuffle) {
+		return new PasswordHelper(minLength, shuffle, classes());
+	}
 
-		for (int i = password.length(); i < length; i++) {
-			password.append(allAllowed[random.nextInt(allAllowed.length)]);
+	/**
+	 * @param length desired length, raised to the policy's minimum
+	 * @return new password
+	 */
+	public String generate(int length) {
+		Entropy random = ENTROPY.get();
+		char[] password = new char[Math.max(length, minLength)];
+		for (int i = 0; i < required.length; i++) {
+			password[i] = pick(required[i], random);
+		}
+		for (int i = required.length; i < password.length; i++) {
+			password[i] = pick(allAllowed, random);
+		}
+		if (shuffle) {
+			for (int i = password.length - 1; i > 0; i--) {
+				int j = random.nextInt(i + 1);
+				char swap = password[i];
+				password[i] = password[j];
+				password[j] = swap;
+			}
 		}
+		return new String(password);
+	}
 
-		return password.toString();
+	/**
+	 * @param count number of passwords
+	 * @param length desired length of each, raised to the policy's minimum
+	 * @return lazy stream of new passwords, safe to run in parallel
+	 */
+	public Stream<String> generate(long count, int length) {
+		return Stream.generate(() -> generate(length)).limit(count);
+	}
 
+	private static char pick(char[] alphabet, Entropy random) {
+		return alphabet[random.nextInt(alphabet.length)];
 	}
 
-    public static void main(String []args){
-        System.out.println(PasswordHelper.generatePassword(4));
-     }
+	private String[] classes() {
+		return Arrays.stream(required).map(String::new).toArray(String[]::new);
+	}
+
+	/**
+	 * A thread's <tt>SecureRandom</tt>, read a buffer at a time. Every call to the default NativePRNG takes a lock
+	 * shared by all instances, so asking it for hundreds of bytes at once rather than 4 per character matters.
+	 */
+	private static final class Entropy {
+		private final SecureRandom random = new SecureRandom();
+		private final byte[] buffer = new byte[512];
+		private int position = buffer.length;
 
+		// uniform in [0, bound): 16 random bits, rejecting the values that would bias the remainder
+		int nextInt(int bound) {
+			if (bound > 1 << 16) {
+				return random.nextInt(bound);
+			}
+			int limit = (1 << 16) - (1 << 16) % bound;
+			int value;
+			do {
+				if (position == buffer.length) {
+					random.nextBytes(buffer);
+					position = 0;
+				}
+				value = ((buffer[position++] & 0xFF) << 8) | (buffer[position++] & 0xFF);
+			} while (value >= limit);
+			return value % bound;
+		}
+	}
 }
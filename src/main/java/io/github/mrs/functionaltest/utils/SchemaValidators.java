@@ -0,0 +1,178 @@
+package io.github.mrs.functionaltest.utils;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Collectors;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.fge.jsonschema.core.exceptions.ProcessingException;
+import com.github.fge.jsonschema.core.report.ProcessingMessage;
+import com.github.fge.jsonschema.core.report.ProcessingReport;
+import com.github.fge.jsonschema.main.JsonSchema;
+
+import io.restassured.module.jsv.JsonSchemaValidator;
+import io.restassured.module.jsv.JsonSchemaValidatorSettings;
+import io.restassured.response.ValidatableResponse;
+
+/**
+ * JSON schemas loaded from the classpath and compiled once, then shared by every thread.
+ *
+ * Validation follows RestAssured's <tt>matchesJsonSchemaInClasspath</tt>: the same resource lookup, the
+ * <tt>JsonSchemaValidator.settings</tt> factory and checked/unchecked mode, and relative <tt>$ref</tt>s resolved
+ * against the schema's location. Settings are read when a schema is first used; call {@link #clear()} after
+ * changing them.
+ */
+public final class SchemaValidators {
+
+	private static final ConcurrentMap<String, JsonSchema> SCHEMAS = new ConcurrentHashMap<>();
+	private static final ObjectMapper MAPPER = new ObjectMapper();
+	private static final JsonSchemaValidatorSettings DEFAULT_SETTINGS = new JsonSchemaValidatorSettings();
+
+	private SchemaValidators() {
+	}
+
+	/**
+	 * @param path classpath location of the schema, e.g. <tt>schemas/user.json</tt>
+	 * @return true if the schema exists
+	 */
+	public static boolean exists(String path) {
+		return SCHEMAS.containsKey(path) || resource(path) != null;
+	}
+
+	/**
+	 * @param path classpath location of the schema
+	 * @return compiled schema, loaded on first use
+	 * @throws IllegalArgumentException if there's no such resource or it isn't a valid schema
+	 */
+	public static JsonSchema schema(String path) {
+		return SCHEMAS.computeIfAbsent(path, SchemaValidators::load);
+	}
+
+	/**
+	 * @param path classpath location of the schema
+	 * @param body parsed JSON to check
+	 * @throws AssertionError listing every violation if the body doesn't match
+	 */
+	public static void validate(String path, JsonNode body) {
+		List<String> problems = problems(path, body);
+		if (!problems.isEmpty()) {
+			throw new AssertionError("Response doesn't match schema [" + path + "]:\n  " + String.join("\n  ", problems));
+		}
+	}
+
+	/**
+	 * @param path classpath location of the schema
+	 * @param response response whose body to check; the body is read from its buffered bytes
+	 * @throws AssertionError listing every violation if the body doesn't match
+	 */
+	public static void validate(String path, ValidatableResponse response) {
+		validate(path, parse(response));
+	}
+
+	/**
+	 * Validate off the calling thread, so a test can carry on while a large body is checked.
+	 *
+	 * @param path classpath location of the schema
+	 * @param response response whose body to check
+	 * @return completes normally if the body matches, exceptionally with an AssertionError if not
+	 */
+	public static CompletableFuture<Void> validateAsync(String path, ValidatableResponse response) {
+		// extract before handing off, RestAssured responses aren't meant to be shared between threads
+		byte[] body = response.extract().body().asByteArray();
+		return CompletableFuture.runAsync(() -> validate(path, parse(body)));
+	}
+
+	/**
+	 * Validate many responses against one schema in parallel, reporting every failure rather than the first.
+	 *
+	 * @param path classpath location of the schema
+	 * @param responses responses whose bodies to check
+	 * @throws AssertionError listing the violations of each response that doesn't match, by position
+	 */
+	public static void validateAll(String path, Collection<ValidatableResponse> responses) {
+		List<byte[]> bodies = responses.stream()
+				.map(response -> response.extract().body().asByteArray())
+				.collect(Collectors.toList());
+		schema(path);  // fail fast on a missing schema before parsing anything
+		List<String> failures = new ArrayList<>();
+		List<List<String>> problems = bodies.parallelStream()
+				.map(body -> problems(path, parse(body)))
+				.collect(Collectors.toList());
+		for (int i = 0; i < problems.size(); i++) {
+			if (!problems.get(i).isEmpty()) {
+				failures.add("response " + i + ": " + String.join("; ", problems.get(i)));
+			}
+		}
+		if (!failures.isEmpty()) {
+			throw new AssertionError(failures.size() + " of " + bodies.size() + " responses don't match schema ["
+					+ path + "]:\n  " + String.join("\n  ", failures));
+		}
+	}
+
+	/**
+	 * Drop every compiled schema, e.g. after changing <tt>JsonSchemaValidator.settings</tt>.
+	 */
+	public static void clear() {
+		SCHEMAS.clear();
+	}
+
+	private static List<String> problems(String path, JsonNode body) {
+		JsonSchema schema = schema(path);
+		ProcessingReport report;
+		try {
+			report = settings().shouldUseCheckedValidation() ? schema.validate(body) : schema.validateUnchecked(body);
+		} catch (ProcessingException e) {
+			throw new IllegalStateException("Failed to validate against schema [" + path + "]: " + e.getMessage(), e);
+		}
+		List<String> problems = new ArrayList<>();
+		if (!report.isSuccess()) {
+			for (ProcessingMessage message : report) {
+				String pointer = message.asJson().path("instance").path("pointer").asText();
+				problems.add((pointer.isEmpty() ? "/" : pointer) + ": " + message.getMessage());
+			}
+		}
+		return problems;
+	}
+
+	private static JsonSchema load(String path) {
+		URL url = resource(path);
+		if (url == null) {
+			throw new IllegalArgumentException("schema file [" + path + "] not found under resources");
+		}
+		try {
+			return settings().jsonSchemaFactory().getJsonSchema(url.toURI().toString());
+		} catch (ProcessingException | URISyntaxException e) {
+			throw new IllegalArgumentException("schema file [" + path + "] can't be loaded: " + e.getMessage(), e);
+		}
+	}
+
+	private static URL resource(String path) {
+		ClassLoader loader = Thread.currentThread().getContextClassLoader();
+		URL url = loader == null ? null : loader.getResource(path);
+		return url != null ? url : SchemaValidators.class.getClassLoader().getResource(path);
+	}
+
+	private static JsonSchemaValidatorSettings settings() {
+		return JsonSchemaValidator.settings != null ? JsonSchemaValidator.settings : DEFAULT_SETTINGS;
+	}
+
+	private static JsonNode parse(ValidatableResponse response) {
+		return parse(response.extract().body().asByteArray());
+	}
+
+	private static JsonNode parse(byte[] body) {
+		try {
+			return MAPPER.readTree(body);
+		} catch (IOException e) {
+			throw new AssertionError("Response body isn't valid JSON: " + e.getMessage(), e);
+		}
+	}
+}
@@ -0,0 +1,125 @@
+package io.github.mrs.functionaltest.utils;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Opt-in virtual thread execution, switched on with the environment variable <tt>FUNCTIONAL_VIRTUAL_THREADS</tt>
+ * or the system property <tt>functional.virtual.threads</tt> set to "true".
+ *
+ * The library is built for Java 11, so virtual threads are looked up reflectively. On a runtime without them
+ * (anything before Java 21) the mode logs a warning once and falls back to daemon platform threads.
+ */
+public class VirtualThreads {
+
+	private static final Logger LOGGER = LogManager.getLogger(VirtualThreads.class);
+
+	private static final int DEFAULT_THREAD_COUNT = 256;
+
+	private static final Method OF_VIRTUAL = findMethod(Thread.class, "ofVirtual");
+	private static final Method BUILDER_NAME = findMethod("java.lang.Thread$Builder", "name", String.class, long.class);
+	private static final Method BUILDER_FACTORY = findMethod("java.lang.Thread$Builder", "factory");
+	private static final Method NEW_THREAD_PER_TASK_EXECUTOR =
+			findMethod(Executors.class, "newThreadPerTaskExecutor", ThreadFactory.class);
+
+	private static volatile boolean warned = false;
+
+	/**
+	 * @return true if the virtual thread mode was requested for this run
+	 */
+	public static boolean isEnabled() {
+		return "true".equalsIgnoreCase(Config.envOrProperty("FUNCTIONAL_VIRTUAL_THREADS", "functional.virtual.threads"));
+	}
+
+	/**
+	 * @return true if the running JVM can create virtual threads
+	 */
+	public static boolean isSupported() {
+		return OF_VIRTUAL != null && BUILDER_NAME != null && BUILDER_FACTORY != null && NEW_THREAD_PER_TASK_EXECUTOR != null;
+	}
+
+	/**
+	 * @return number of concurrent tests/rows to allow in virtual thread mode, from <tt>FUNCTIONAL_THREAD_COUNT</tt>
+	 *   or <tt>functional.thread.count</tt>
+	 */
+	public static int threadCount() {
+		String count = Config.envOrProperty("FUNCTIONAL_THREAD_COUNT", "functional.thread.count");
+		return StringUtils.isBlank(count) ? DEFAULT_THREAD_COUNT : Integer.parseInt(count.trim());
+	}
+
+	/**
+	 * @param namePrefix prefix for thread names, a counter is appended
+	 * @return factory for virtual threads when the mode is enabled and supported, daemon platform threads otherwise
+	 */
+	public static ThreadFactory threadFactory(String namePrefix) {
+		if (useVirtualThreads()) {
+			try {
+				Object builder = BUILDER_NAME.invoke(OF_VIRTUAL.invoke(null), namePrefix, 1L);
+				return (ThreadFactory) BUILDER_FACTORY.invoke(builder);
+			} catch (ReflectiveOperationException e) {
+				LOGGER.warn("Failed to create virtual thread factory, using platform threads: " + e.getMessage());
+			}
+		}
+		AtomicInteger count = new AtomicInteger();
+		return runnable -> {
+			Thread thread = new Thread(runnable, namePrefix + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		};
+	}
+
+	/**
+	 * @param namePrefix prefix for thread names
+	 * @param platformThreads size of the fixed pool used when virtual threads aren't in play
+	 * @return a thread-per-task executor on virtual threads, or a fixed pool of platform threads
+	 */
+	public static ExecutorService newExecutor(String namePrefix, int platformThreads) {
+		ThreadFactory factory = threadFactory(namePrefix);
+		if (useVirtualThreads()) {
+			try {
+				return (ExecutorService) NEW_THREAD_PER_TASK_EXECUTOR.invoke(null, factory);
+			} catch (ReflectiveOperationException e) {
+				LOGGER.warn("Failed to create virtual thread executor, using platform threads: " + e.getMessage());
+			}
+		}
+		return Executors.newFixedThreadPool(platformThreads, factory);
+	}
+
+	private static boolean useVirtualThreads() {
+		if (!isEnabled()) {
+			return false;
+		}
+		if (!isSupported()) {
+			if (!warned) {
+				warned = true;
+				LOGGER.warn("Virtual threads requested but not available on Java {}, using platform threads",
+						System.getProperty("java.version"));
+			}
+			return false;
+		}
+		return true;
+	}
+
+	private static Method findMethod(String className, String name, Class<?>... parameterTypes) {
+		try {
+			return findMethod(Class.forName(className), name, parameterTypes);
+		} catch (ClassNotFoundException e) {
+			return null;
+		}
+	}
+
+	private static Method findMethod(Class<?> clazz, String name, Class<?>... parameterTypes) {
+		try {
+			return clazz.getMethod(name, parameterTypes);
+		} catch (NoSuchMethodException e) {
+			return null;
+		}
+	}
+}
@@ -0,0 +1,247 @@
+package io.github.mrs.functionaltest.utils.auth;
+
+import static io.restassured.RestAssured.given;
+
+import io.github.mrs.functionaltest.utils.JsonCodecs;
+import io.github.mrs.functionaltest.utils.JsonStreams;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.google.gson.annotations.SerializedName;
+
+import io.restassured.filter.Filter;
+import io.restassured.response.Response;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Access tokens from an OAuth2 token endpoint using the client credentials grant, shared by every test thread.
+ *
+ * A token is fetched on first use and kept until shortly before it expires (<tt>refreshBefore</tt>). The first
+ * thread to reach that point fetches a new one while the others carry on with the old token; once a token has
+ * actually expired, every thread waits on the same single fetch rather than each starting its own.
+ *
+ * {@link #install} makes a provider the one {@link #filter()} uses, which <tt>HttpCaller</tt> applies to every
+ * request: requests without an <tt>Authorization</tt> header get one, and a 401 drops the cached token so the
+ * next request fetches a fresh one.
+ */
+public class TokenProvider {
+
+	private static final Logger LOGGER = LogManager.getLogger(TokenProvider.class);
+
+	public static final String AUTHORIZATION = "Authorization";
+
+	// lifetime assumed when the token endpoint doesn't say
+	private static final Duration DEFAULT_LIFETIME = Duration.ofMinutes(5);
+
+	private static volatile TokenProvider installed;
+
+	private static final Filter FILTER = (requestSpec, responseSpec, ctx) -> {
+		TokenProvider provider = installed;
+		if (provider == null || requestSpec.getHeaders().hasHeaderWithName(AUTHORIZATION)) {
+			return ctx.next(requestSpec, responseSpec);
+		}
+		AccessToken token = provider.current();
+		requestSpec.header(AUTHORIZATION, token.authorization());
+		Response response = ctx.next(requestSpec, responseSpec);
+		if (response.statusCode() == 401) {
+			provider.invalidate(token);
+		}
+		return response;
+	};
+
+	private final String tokenUrl;
+	private final String clientId;
+	private final String clientSecret;
+	private final String scope;
+	private final Duration refreshBefore;
+	private final Clock clock;
+
+	private volatile AccessToken token;
+	private final AtomicReference<CompletableFuture<AccessToken>> refreshing = new AtomicReference<>();
+
+	/**
+	 * @param tokenUrl token endpoint
+	 * @param clientId client id, sent with HTTP basic authentication
+	 * @param clientSecret client secret
+	 * @param scope space-separated scopes to request, null for the client's default
+	 * @param refreshBefore how long before expiry to fetch a replacement
+	 */
+	public TokenProvider(String tokenUrl, String clientId, String clientSecret, String scope, Duration refreshBefore) {
+		this(tokenUrl, clientId, clientSecret, scope, refreshBefore, Clock.systemUTC());
+	}
+
+	TokenProvider(String tokenUrl, String clientId, String clientSecret, String scope, Duration refreshBefore,
+			Clock clock) {
+		this.tokenUrl = tokenUrl;
+		this.clientId = clientId;
+		this.clientSecret = clientSecret;
+		this.scope = scope;
+		this.refreshBefore = refreshBefore;
+		this.clock = clock;
+	}
+
+	/**
+	 * @param provider provider for {@link #filter()} to use, null to stop adding tokens
+	 */
+	public static void install(TokenProvider provider) {
+		installed = provider;
+	}
+
+	/**
+	 * @return provider {@link #filter()} uses, null if none
+	 */
+	public static TokenProvider installed() {
+		return installed;
+	}
+
+	/**
+	 * @return RestAssured filter that authorizes requests with the installed provider's token
+	 */
+	public static Filter filter() {
+		return FILTER;
+	}
+
+	/**
+	 * @return a valid access token, fetched only if the cached one is missing or about to expire
+	 */
+	public String token() {
+		return current().value;
+	}
+
+	/**
+	 * @return <tt>Authorization</tt> header value, e.g. <tt>Bearer eyJhbGciOi...</tt>
+	 */
+	public String authorization() {
+		return current().authorization();
+	}
+
+	/**
+	 * Drop the cached token, e.g. after the server rejected it, so the next call fetches a new one.
+	 */
+	public void invalidate() {
+		token = null;
+	}
+
+	private void invalidate(AccessToken rejected) {
+		// only if nobody replaced it in the meantime
+		if (token == rejected) {
+			LOGGER.info("Access token rejected, fetching a new one on next use");
+			token = null;
+		}
+	}
+
+	private AccessToken current() {
+		AccessToken cached = token;
+		long now = clock.millis();
+		if (cached != null && now < cached.refreshAt) {
+			return cached;
+		}
+		if (cached != null && now < cached.expiresAt) {
+			// still valid: refresh unless someone else already is, but never wait on them
+			CompletableFuture<AccessToken> refreshed = refresh();
+			if (refreshed.isDone() && !refreshed.isCompletedExceptionally()) {
+				return refreshed.join();
+			}
+			return cached;
+		}
+		return join(refresh());
+	}
+
+	// one fetch at a time; callers arriving while it runs get the same future
+	private CompletableFuture<AccessToken> refresh() {
+		CompletableFuture<AccessToken> mine = new CompletableFuture<>();
+		while (true) {
+			CompletableFuture<AccessToken> inFlight = refreshing.get();
+			if (inFlight != null) {
+				return inFlight;
+			}
+			if (refreshing.compareAndSet(null, mine)) {
+				break;
+			}
+		}
+		try {
+			AccessToken cached = token;
+			if (cached != null && clock.millis() < cached.refreshAt) {
+				// someone else refreshed between our check and taking the lock
+				mine.complete(cached);
+			} else {
+				AccessToken fetched = fetch();
+				token = fetched;
+				mine.complete(fetched);
+			}
+		} catch (RuntimeException e) {
+			LOGGER.warn("Failed to fetch access token: {}", e.getMessage());
+			mine.completeExceptionally(e);
+		} finally {
+			refreshing.set(null);
+		}
+		return mine;
+	}
+
+	private AccessToken fetch() {
+		LOGGER.info("Fetching access token for client [{}] from {}", clientId, tokenUrl);
+		long requestedAt = clock.millis();
+		Response response = given()
+				.auth().preemptive().basic(clientId, clientSecret)
+				.formParam("grant_type", "client_credentials")
+				.formParams(StringUtils.isBlank(scope) ? Collections.emptyMap() : Collections.singletonMap("scope", scope))
+			.when()
+				.post(tokenUrl);
+		if (response.statusCode() != 200) {
+			throw new IllegalStateException("Token endpoint " + tokenUrl + " returned " + response.statusCode()
+					+ ": " + response.asString());
+		}
+		TokenResponse body = JsonStreams.read(JsonCodecs.defaults(), JsonStreams.reader(response.then()),
+				TokenResponse.class);
+		if (body == null || StringUtils.isBlank(body.accessToken)) {
+			throw new IllegalStateException("Token endpoint " + tokenUrl + " returned no access_token");
+		}
+		Duration lifetime = body.expiresIn != null ? Duration.ofSeconds(body.expiresIn) : DEFAULT_LIFETIME;
+		// never refresh earlier than halfway through a short-lived token's life
+		Duration early = refreshBefore.compareTo(lifetime.dividedBy(2)) > 0 ? lifetime.dividedBy(2) : refreshBefore;
+		long expiresAt = requestedAt + lifetime.toMillis();
+		return new AccessToken(body.accessToken, body.tokenType, expiresAt - early.toMillis(), expiresAt);
+	}
+
+	private static AccessToken join(CompletableFuture<AccessToken> future) {
+		try {
+			return future.join();
+		} catch (CompletionException e) {
+			throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+		}
+	}
+
+	private static final class AccessToken {
+		private final String value;
+		private final String type;
+		private final long refreshAt;
+		private final long expiresAt;
+
+		AccessToken(String value, String type, long refreshAt, long expiresAt) {
+			this.value = value;
+			this.type = StringUtils.isBlank(type) || "bearer".equalsIgnoreCase(type) ? "Bearer" : type;
+			this.refreshAt = refreshAt;
+			this.expiresAt = expiresAt;
+		}
+
+		String authorization() {
+			return type + " " + value;
+		}
+	}
+
+	private static final class TokenResponse {
+		@SerializedName("access_token")
+		String accessToken;
+		@SerializedName("token_type")
+		String tokenType;
+		@SerializedName("expires_in")
+		Long expiresIn;
+	}
+}
@@ -0,0 +1,354 @@
+package io.github.mrs.functionaltest.utils.cache;
+
+import java.net.URI;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import io.restassured.builder.ResponseBuilder;
+import io.restassured.filter.Filter;
+import io.restassured.http.Headers;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import lombok.Getter;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Opt-in cache of GET and HEAD responses, applied by a filter on every <tt>HttpCaller</tt> request, so suites that
+ * keep re-reading the same reference data only hit the service when it changes.
+ *
+ * Responses are kept while fresh according to their <tt>Cache-Control: max-age</tt> or <tt>Expires</tt> header,
+ * or for a configured default when they have neither. After that a stored response with an <tt>ETag</tt> or
+ * <tt>Last-Modified</tt> is revalidated with <tt>If-None-Match</tt> / <tt>If-Modified-Since</tt>, and a
+ * <tt>304</tt> serves the stored body. Entries are keyed by method, URL, <tt>Accept</tt> and
+ * <tt>Authorization</tt>, and honour <tt>Vary</tt>. <tt>no-store</tt> responses are never kept, and a successful
+ * POST, PUT, PATCH or DELETE drops cached responses for its URL and the collection above it.
+ *
+ * Requests carrying their own <tt>Cache-Control</tt>, <tt>If-None-Match</tt> or <tt>If-Modified-Since</tt> header
+ * bypass the cache, so tests of caching behaviour still see the server's answers.
+ */
+public class ResponseCache {
+
+	private static final Logger LOGGER = LogManager.getLogger(ResponseCache.class);
+
+	// bodies bigger than this are passed through rather than held in memory
+	private static final int MAX_BODY_BYTES = 1 << 20;
+
+	private static volatile int maxEntries = 0;
+	private static volatile long defaultMaxAgeMillis = 0;
+
+	private static final Map<String, Cached> ENTRIES = new LinkedHashMap<String, Cached>(16, 0.75f, true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, Cached> eldest) {
+			if (size() > maxEntries) {
+				EVICTIONS.increment();
+				return true;
+			}
+			return false;
+		}
+	};
+
+	private static final LongAdder HITS = new LongAdder();
+	private static final LongAdder REVALIDATIONS = new LongAdder();
+	private static final LongAdder MISSES = new LongAdder();
+	private static final LongAdder EVICTIONS = new LongAdder();
+
+	private static final Filter FILTER = (requestSpec, responseSpec, ctx) -> {
+		String method = requestSpec.getMethod();
+		if (maxEntries <= 0) {
+			return ctx.next(requestSpec, responseSpec);
+		}
+		if (!"GET".equals(method) && !"HEAD".equals(method)) {
+			Response response = ctx.next(requestSpec, responseSpec);
+			if (response.statusCode() < 400) {
+				invalidate(requestSpec.getURI());
+			}
+			return response;
+		}
+		Headers requestHeaders = requestSpec.getHeaders();
+		if (requestHeaders.hasHeaderWithName("Cache-Control") || requestHeaders.hasHeaderWithName("If-None-Match")
+				|| requestHeaders.hasHeaderWithName("If-Modified-Since")) {
+			return ctx.next(requestSpec, responseSpec);
+		}
+
+		String key = key(requestSpec);
+		Cached cached = get(key);
+		if (cached != null && !cached.varyMatches(requestHeaders)) {
+			cached = null;
+		}
+		long now = System.currentTimeMillis();
+		if (cached != null && now < cached.freshUntil) {
+			HITS.increment();
+			return cached.response();
+		}
+		if (cached != null) {
+			if (cached.etag != null) {
+				requestSpec.header("If-None-Match", cached.etag);
+			}
+			if (cached.lastModified != null) {
+				requestSpec.header("If-Modified-Since", cached.lastModified);
+			}
+		}
+
+		Response response = ctx.next(requestSpec, responseSpec);
+		if (cached != null && response.statusCode() == 304) {
+			REVALIDATIONS.increment();
+			Cached refreshed = cached.revalidated(response.headers(), System.currentTimeMillis());
+			put(key, refreshed);
+			return refreshed.response();
+		}
+		MISSES.increment();
+		Cached stored = Cached.of(requestSpec.getURI(), response, requestHeaders, System.currentTimeMillis());
+		if (stored != null) {
+			put(key, stored);
+			return stored.response();
+		}
+		remove(key);
+		return response;
+	};
+
+	private ResponseCache() {
+	}
+
+	/**
+	 * @param maxEntries most responses to keep, least recently used dropped first; 0 turns caching off
+	 * @param defaultMaxAgeSeconds how long to keep responses that don't say, 0 to only keep those that do
+	 */
+	public static void configure(int maxEntries, long defaultMaxAgeSeconds) {
+		ResponseCache.maxEntries = maxEntries;
+		ResponseCache.defaultMaxAgeMillis = TimeUnit.SECONDS.toMillis(defaultMaxAgeSeconds);
+		clear();
+		if (maxEntries > 0) {
+			LOGGER.info("Caching up to {} GET/HEAD responses, {}s for those without freshness headers",
+					maxEntries, defaultMaxAgeSeconds);
+		}
+	}
+
+	/**
+	 * @return true if responses are being cached
+	 */
+	public static boolean isEnabled() {
+		return maxEntries > 0;
+	}
+
+	/**
+	 * @return RestAssured filter that serves and stores cached responses
+	 */
+	public static Filter filter() {
+		return FILTER;
+	}
+
+	/**
+	 * Drop every cached response. Counters are kept.
+	 */
+	public static void clear() {
+		synchronized (ENTRIES) {
+			ENTRIES.clear();
+		}
+	}
+
+	/**
+	 * @return counters since the run started
+	 */
+	public static Stats stats() {
+		int size;
+		synchronized (ENTRIES) {
+			size = ENTRIES.size();
+		}
+		return new Stats(HITS.sum(), REVALIDATIONS.sum(), MISSES.sum(), EVICTIONS.sum(), size);
+	}
+
+	/**
+	 * Drop cached responses for a URL and for the collection it belongs to, ignoring query strings.
+	 *
+	 * @param uri URL that changed, e.g. <tt>https://host/api/users/42</tt>
+	 */
+	public static void invalidate(String uri) {
+		String path = path(uri);
+		String parent = path.contains("/") ? path.substring(0, path.lastIndexOf('/')) : path;
+		synchronized (ENTRIES) {
+			Iterator<Cached> entries = ENTRIES.values().iterator();
+			while (entries.hasNext()) {
+				String cachedPath = entries.next().path;
+				if (cachedPath.equals(path) || cachedPath.equals(parent)) {
+					entries.remove();
+				}
+			}
+		}
+	}
+
+	private static Cached get(String key) {
+		synchronized (ENTRIES) {
+			return ENTRIES.get(key);
+		}
+	}
+
+	private static void put(String key, Cached entry) {
+		synchronized (ENTRIES) {
+			ENTRIES.put(key, entry);
+		}
+	}
+
+	private static void remove(String key) {
+		synchronized (ENTRIES) {
+			ENTRIES.remove(key);
+		}
+	}
+
+	private static String key(FilterableRequestSpecification requestSpec) {
+		Headers headers = requestSpec.getHeaders();
+		return requestSpec.getMethod() + ' ' + requestSpec.getURI()
+				+ '\n' + StringUtils.defaultString(headers.getValue("Accept"))
+				+ '\n' + StringUtils.defaultString(headers.getValue("Authorization"));
+	}
+
+	// scheme, host and path, without the query or a trailing slash
+	private static String path(String uri) {
+		try {
+			URI parsed = URI.create(uri);
+			String path = StringUtils.removeEnd(StringUtils.defaultString(parsed.getRawPath()), "/");
+			return parsed.getScheme() + "://" + parsed.getRawAuthority() + path;
+		} catch (IllegalArgumentException e) {
+			return StringUtils.removeEnd(StringUtils.substringBefore(uri, "?"), "/");
+		}
+	}
+
+	private static final class Cached {
+		private final String path;
+		private final Response template;
+		private final String etag;
+		private final String lastModified;
+		private final Map<String, String> vary;
+		private final long freshUntil;
+
+		private Cached(String path, Response template, String etag, String lastModified, Map<String, String> vary,
+				long freshUntil) {
+			this.path = path;
+			this.template = template;
+			this.etag = etag;
+			this.lastModified = lastModified;
+			this.vary = vary;
+			this.freshUntil = freshUntil;
+		}
+
+		// null if the response mustn't or can't usefully be stored
+		static Cached of(String uri, Response response, Headers requestHeaders, long now) {
+			Headers headers = response.headers();
+			String cacheControl = StringUtils.defaultString(headers.getValue("Cache-Control")).toLowerCase(Locale.ROOT);
+			String varyHeader = StringUtils.defaultString(headers.getValue("Vary"));
+			if (response.statusCode() != 200 || cacheControl.contains("no-store") || varyHeader.contains("*")) {
+				return null;
+			}
+			String length = headers.getValue("Content-Length");
+			if (length != null && StringUtils.isNumeric(length) && Long.parseLong(length) > MAX_BODY_BYTES) {
+				return null;
+			}
+			String etag = headers.getValue("ETag");
+			String lastModified = headers.getValue("Last-Modified");
+			long freshUntil = freshUntil(headers, cacheControl, now);
+			if (freshUntil <= now && etag == null && lastModified == null) {
+				return null;
+			}
+			byte[] body = response.asByteArray();
+			if (body.length > MAX_BODY_BYTES) {
+				return null;
+			}
+			Map<String, String> vary = new LinkedHashMap<>();
+			for (String name : varyHeader.split(",")) {
+				if (!name.trim().isEmpty()) {
+					vary.put(name.trim(), requestHeaders.getValue(name.trim()));
+				}
+			}
+			Response template = new ResponseBuilder().clone(response).setBody(body).build();
+			return new Cached(path(uri), template, etag, lastModified, vary, freshUntil);
+		}
+
+		Cached revalidated(Headers notModified, long now) {
+			String cacheControl = StringUtils.defaultString(notModified.getValue("Cache-Control")).toLowerCase(Locale.ROOT);
+			String etag = StringUtils.defaultIfBlank(notModified.getValue("ETag"), this.etag);
+			return new Cached(path, template, etag, lastModified, vary, freshUntil(notModified, cacheControl, now));
+		}
+
+		boolean varyMatches(Headers requestHeaders) {
+			for (Map.Entry<String, String> header : vary.entrySet()) {
+				if (!StringUtils.equals(header.getValue(), requestHeaders.getValue(header.getKey()))) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		Response response() {
+			return new ResponseBuilder().clone(template).build();
+		}
+
+		private static long freshUntil(Headers headers, String cacheControl, long now) {
+			if (cacheControl.contains("no-cache")) {
+				return now;
+			}
+			for (String directive : cacheControl.split(",")) {
+				String[] pair = directive.trim().split("=", 2);
+				if (pair.length == 2 && pair[0].equals("max-age") && StringUtils.isNumeric(pair[1].trim())) {
+					long age = StringUtils.isNumeric(headers.getValue("Age")) ? Long.parseLong(headers.getValue("Age")) : 0;
+					return now + TimeUnit.SECONDS.toMillis(Long.parseLong(pair[1].trim()) - age);
+				}
+			}
+			String expires = headers.getValue("Expires");
+			if (expires != null) {
+				try {
+					long date = headers.hasHeaderWithName("Date") ? httpDate(headers.getValue("Date")) : now;
+					return now + httpDate(expires) - date;
+				} catch (DateTimeParseException e) {
+					return now;  // invalid dates mean already expired
+				}
+			}
+			return now + defaultMaxAgeMillis;
+		}
+
+		private static long httpDate(String value) {
+			return ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+		}
+	}
+
+	/**
+	 * Cache counters, written to the log at the end of the suite.
+	 */
+	@Getter
+	public static class Stats {
+		private final long hits;
+		private final long revalidations;
+		private final long misses;
+		private final long evictions;
+		private final int size;
+
+		Stats(long hits, long revalidations, long misses, long evictions, int size) {
+			this.hits = hits;
+			this.revalidations = revalidations;
+			this.misses = misses;
+			this.evictions = evictions;
+			this.size = size;
+		}
+
+		/**
+		 * @return share of cacheable requests answered without transferring a body
+		 */
+		public double getHitRatio() {
+			long total = hits + revalidations + misses;
+			return total == 0 ? 0 : (double) (hits + revalidations) / total;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%d hits, %d revalidated, %d misses, %d evicted, %d cached, %.0f%% hit ratio",
+					hits, revalidations, misses, evictions, size, getHitRatio() * 100);
+		}
+	}
+}
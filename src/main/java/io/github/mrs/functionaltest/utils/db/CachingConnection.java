@@ -0,0 +1,23 @@
+package io.github.mrs.functionaltest.utils.db;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * Pooled connection that keeps prepared statements open between borrows, so repeated queries aren't parsed
+ * and planned again by the database.
+ */
+interface CachingConnection extends Connection {
+
+  /**
+   * @param sql statement text, used as the cache key
+   * @return statement with its parameters cleared; hand it back with {@link #releaseCached} rather than closing it
+   */
+  PreparedStatement prepareCached(String sql) throws SQLException;
+
+  /**
+   * @param statement statement obtained from {@link #prepareCached}; closed if it's no longer in the cache
+   */
+  void releaseCached(PreparedStatement statement);
+}
@@ -0,0 +1,325 @@
+package io.github.mrs.functionaltest.utils.db;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Bounded, thread-safe pool of JDBC connections for a single {@link DatabaseConfig}.
+ *
+ * Connections handed out by {@link #borrow()} go back to the pool when closed, so use them in
+ * try-with-resources. Idle connections are reused most-recently-used first, checked with
+ * <tt>Connection.isValid</tt> before being handed out, and closed once idle for longer than the idle timeout
+ * (down to the minimum size). With a leak detection threshold set, connections held longer than that are logged
+ * along with the stack that borrowed them.
+ *
+ * Every physical connection keeps its own LRU cache of prepared statements, available through
+ * {@link CachingConnection}, which lives as long as the connection does.
+ */
+class ConnectionPool {
+  private static final Logger LOGGER = LogManager.getLogger(ConnectionPool.class);
+
+  private static final long MAX_HOUSEKEEPING_INTERVAL_MILLIS = 30_000;
+
+  private final DatabaseConfig config;
+  private final Semaphore permits;
+  private final BlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+  private final Set<PooledConnection> borrowed = ConcurrentHashMap.newKeySet();
+  private final ScheduledExecutorService housekeeper;
+  private volatile boolean closed = false;
+
+  ConnectionPool(DatabaseConfig config) {
+    this.config = config;
+    this.permits = new Semaphore(config.getPoolMaxSize(), true);
+    this.housekeeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "db-pool-" + config.getName());
+      thread.setDaemon(true);
+      return thread;
+    });
+
+    fillToMinimum();
+    long interval = Math.max(1, Math.min(MAX_HOUSEKEEPING_INTERVAL_MILLIS, config.getPoolIdleTimeoutMillis() / 2));
+    housekeeper.scheduleWithFixedDelay(this::housekeeping, interval, interval, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * @return a connection for this thread's exclusive use; closing it returns it to the pool
+   * @throws SQLTimeoutException if no connection frees up within the borrow timeout
+   */
+  Connection borrow() throws SQLException {
+    if (closed) {
+      throw new SQLException("Connection pool for " + config.getName() + " is closed");
+    }
+    try {
+      if (!permits.tryAcquire(config.getPoolBorrowTimeoutMillis(), TimeUnit.MILLISECONDS)) {
+        throw new SQLTimeoutException(String.format(
+            "Timed out after %d ms waiting for a connection to %s (%d in use, max %d)",
+            config.getPoolBorrowTimeoutMillis(), config.getName(), borrowed.size(), config.getPoolMaxSize()));
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new SQLException("Interrupted waiting for a connection to " + config.getName(), e);
+    }
+
+    try {
+      PooledConnection pooled = takeValidIdle();
+      if (pooled == null) {
+        pooled = new PooledConnection(open());
+      }
+      pooled.borrowedAt = System.currentTimeMillis();
+      pooled.borrowedBy = config.getPoolLeakDetectionThresholdMillis() > 0 ? new Exception("Connection borrowed here") : null;
+      pooled.leakReported = false;
+      borrowed.add(pooled);
+      return pooled.newHandle();
+    } catch (SQLException | RuntimeException e) {
+      permits.release();
+      throw e;
+    }
+  }
+
+  /**
+   * @return connections currently borrowed
+   */
+  int borrowedCount() {
+    return borrowed.size();
+  }
+
+  /**
+   * @return connections open and waiting in the pool
+   */
+  int idleCount() {
+    return idle.size();
+  }
+
+  /**
+   * Close every idle connection and stop handing out new ones; borrowed connections are closed when returned.
+   */
+  void close() {
+    closed = true;
+    housekeeper.shutdownNow();
+    PooledConnection pooled;
+    while ((pooled = idle.pollFirst()) != null) {
+      pooled.closePhysical();
+    }
+  }
+
+  private PooledConnection takeValidIdle() {
+    PooledConnection pooled;
+    while ((pooled = idle.pollFirst()) != null) {
+      if (pooled.isValid()) {
+        return pooled;
+      }
+      LOGGER.debug("discarding invalid connection to {}", config.getName());
+      pooled.closePhysical();
+    }
+    return null;
+  }
+
+  private Connection open() throws SQLException {
+    return DriverManager.getConnection(config.getJdbcUrl(), config.getUsername(), config.getPassword());
+  }
+
+  private void giveBack(PooledConnection pooled) {
+    if (!borrowed.remove(pooled)) {
+      return;
+    }
+    try {
+      if (closed || pooled.physical.isClosed()) {
+        pooled.closePhysical();
+        return;
+      }
+      if (!pooled.physical.getAutoCommit()) {
+        pooled.physical.rollback();
+        pooled.physical.setAutoCommit(true);
+      }
+      pooled.lastUsed = System.currentTimeMillis();
+      idle.offerFirst(pooled);
+    } catch (SQLException e) {
+      LOGGER.warn("discarding connection to " + config.getName() + " that failed to reset", e);
+      pooled.closePhysical();
+    } finally {
+      permits.release();
+    }
+  }
+
+  private void housekeeping() {
+    try {
+      evictIdle();
+      fillToMinimum();
+      detectLeaks();
+    } catch (RuntimeException e) {
+      LOGGER.warn("connection pool housekeeping failed for " + config.getName(), e);
+    }
+  }
+
+  private void evictIdle() {
+    long cutoff = System.currentTimeMillis() - config.getPoolIdleTimeoutMillis();
+    // the oldest idle connections sit at the tail
+    while (idle.size() + borrowed.size() > config.getPoolMinSize()) {
+      PooledConnection oldest = idle.pollLast();
+      if (oldest == null) {
+        return;
+      }
+      if (oldest.lastUsed > cutoff) {
+        idle.offerLast(oldest);
+        return;
+      }
+      oldest.closePhysical();
+    }
+  }
+
+  private void fillToMinimum() {
+    while (!closed && idle.size() + borrowed.size() < config.getPoolMinSize()) {
+      try {
+        idle.offerLast(new PooledConnection(open()));
+      } catch (SQLException e) {
+        LOGGER.warn("failed to open connection to " + config.getName() + ": " + e.getMessage());
+        return;
+      }
+    }
+  }
+
+  private void detectLeaks() {
+    long threshold = config.getPoolLeakDetectionThresholdMillis();
+    if (threshold <= 0) {
+      return;
+    }
+    long cutoff = System.currentTimeMillis() - threshold;
+    for (PooledConnection pooled : borrowed) {
+      if (!pooled.leakReported && pooled.borrowedAt < cutoff) {
+        pooled.leakReported = true;
+        LOGGER.warn(String.format("Possible connection leak: connection to %s held for over %d ms",
+            config.getName(), threshold), pooled.borrowedBy);
+      }
+    }
+  }
+
+  private class PooledConnection {
+    private final Connection physical;
+    // only touched by the thread currently borrowing this connection; the idle deque hands it over safely
+    private final Map<String, PreparedStatement> statements = new LinkedHashMap<String, PreparedStatement>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+        if (size() > config.getPoolStatementCacheSize()) {
+          closeStatement(eldest.getValue());
+          return true;
+        }
+        return false;
+      }
+    };
+    private volatile long lastUsed = System.currentTimeMillis();
+    private volatile long borrowedAt;
+    private volatile Exception borrowedBy;
+    private volatile boolean leakReported;
+
+    PooledConnection(Connection physical) {
+      this.physical = physical;
+    }
+
+    boolean isValid() {
+      try {
+        int seconds = (int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(config.getPoolValidationTimeoutMillis()));
+        return physical.isValid(seconds);
+      } catch (SQLException e) {
+        return false;
+      }
+    }
+
+    PreparedStatement prepareCached(String sql) throws SQLException {
+      PreparedStatement statement = statements.get(sql);
+      if (statement == null || statement.isClosed()) {
+        statement = physical.prepareStatement(sql);
+        if (config.getPoolStatementCacheSize() > 0) {
+          statements.put(sql, statement);
+        }
+      } else {
+        statement.clearParameters();
+      }
+      return statement;
+    }
+
+    void releaseCached(PreparedStatement statement) {
+      if (!statements.containsValue(statement)) {
+        closeStatement(statement);
+      }
+    }
+
+    void closeStatement(PreparedStatement statement) {
+      try {
+        statement.close();
+      } catch (SQLException e) {
+        LOGGER.debug("exception encountered while closing statement", e);
+      }
+    }
+
+    void closePhysical() {
+      statements.clear();
+      try {
+        physical.close();
+      } catch (SQLException e) {
+        LOGGER.warn("exception encountered while closing connection", e);
+      }
+    }
+
+    /**
+     * @return a handle that returns this connection to the pool on close and refuses use afterwards
+     */
+    Connection newHandle() {
+      AtomicBoolean handleClosed = new AtomicBoolean(false);
+      return (Connection) Proxy.newProxyInstance(CachingConnection.class.getClassLoader(),
+          new Class<?>[] { CachingConnection.class },
+          (proxy, method, args) -> {
+            switch (method.getName()) {
+              case "prepareCached":
+                if (handleClosed.get()) {
+                  throw new SQLException("Connection has already been returned to the pool");
+                }
+                return prepareCached((String) args[0]);
+              case "releaseCached":
+                releaseCached((PreparedStatement) args[0]);
+                return null;
+              case "close":
+                if (handleClosed.compareAndSet(false, true)) {
+                  giveBack(this);
+                }
+                return null;
+              case "isClosed":
+                return handleClosed.get() || physical.isClosed();
+              case "equals":
+                return proxy == args[0];
+              case "hashCode":
+                return System.identityHashCode(proxy);
+              case "toString":
+                return "Pooled[" + physical + "]";
+              default:
+                if (handleClosed.get()) {
+                  throw new SQLException("Connection has already been returned to the pool");
+                }
+                try {
+                  return method.invoke(physical, args);
+                } catch (InvocationTargetException e) {
+                  throw e.getCause();
+                }
+            }
+          });
+    }
+  }
+}
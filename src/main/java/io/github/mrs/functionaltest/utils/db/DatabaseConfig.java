@@ -4,6 +4,22 @@ import java.util.Properties;
 
 /**
  * DatabaseConfig is responsible for extracting a named database configuration from a Properties object.
+ *
+ * Connection pool settings are optional and read from <tt>db.&lt;name&gt;.pool.*</tt>:
+ * <ul>
+ *   <li><tt>minSize</tt>: connections kept open even when idle, default 1</li>
+ *   <li><tt>maxSize</tt>: most connections open at once, default 10</li>
+ *   <li><tt>borrowTimeout</tt>: ms to wait for a free connection before failing, default 30000</li>
+ *   <li><tt>idleTimeout</tt>: ms an idle connection above <tt>minSize</tt> is kept before closing, default 600000</li>
+ *   <li><tt>validationTimeout</tt>: ms allowed for the validity check on borrow, default 5000</li>
+ *   <li><tt>leakDetectionThreshold</tt>: ms a connection can be held before a leak is logged with the stack that
+ *   borrowed it, default 0 (off); a debugging switch, since every borrow then records a stack trace</li>
+ *   <li><tt>statementCacheSize</tt>: prepared statements kept open per connection, least recently used are closed
+ *   first, 0 disables, default 64</li>
+ * </ul>
+ *
+ * <tt>db.&lt;name&gt;.fetchSize</tt> sets how many rows streamed queries pull from the database per round trip,
+ * default 500.
  */
 public class DatabaseConfig {
 
@@ -13,6 +29,8 @@ public class DatabaseConfig {
   private static final String PROP_SUFFIX_JDBC_URL = ".jdbcUrl";
   private static final String PROP_SUFFIX_USERNAME = ".username";
   private static final String PROP_SUFFIX_PASSWORD = ".password";
+  private static final String PROP_SUFFIX_FETCH_SIZE = ".fetchSize";
+  private static final String PROP_SUFFIX_POOL = ".pool.";
 
   DatabaseConfig(String name, Properties properties) {
     this.name = name;
@@ -38,4 +56,42 @@ public class DatabaseConfig {
   public String getPassword() {
     return this.properties.getProperty(PROP_PREFIX + this.getName() + PROP_SUFFIX_PASSWORD);
   }
+
+  public int getFetchSize() {
+    String value = this.properties.getProperty(PROP_PREFIX + this.getName() + PROP_SUFFIX_FETCH_SIZE);
+    return value == null ? 500 : Integer.parseInt(value.trim());
+  }
+
+  public int getPoolMinSize() {
+    return (int) getPoolProperty("minSize", 1);
+  }
+
+  public int getPoolMaxSize() {
+    return (int) getPoolProperty("maxSize", 10);
+  }
+
+  public long getPoolBorrowTimeoutMillis() {
+    return getPoolProperty("borrowTimeout", 30_000);
+  }
+
+  public long getPoolIdleTimeoutMillis() {
+    return getPoolProperty("idleTimeout", 600_000);
+  }
+
+  public long getPoolValidationTimeoutMillis() {
+    return getPoolProperty("validationTimeout", 5_000);
+  }
+
+  public long getPoolLeakDetectionThresholdMillis() {
+    return getPoolProperty("leakDetectionThreshold", 0);
+  }
+
+  public int getPoolStatementCacheSize() {
+    return (int) getPoolProperty("statementCacheSize", 64);
+  }
+
+  private long getPoolProperty(String key, long defaultValue) {
+    String value = this.properties.getProperty(PROP_PREFIX + this.getName() + PROP_SUFFIX_POOL + key);
+    return value == null ? defaultValue : Long.parseLong(value.trim());
+  }
 }
@@ -2,13 +2,26 @@ package io.github.mrs.functionaltest.utils.db;
 
 import java.sql.Connection;
 import java.sql.DriverManager;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.sql.Statement;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import javax.sql.rowset.CachedRowSet;
+import javax.sql.rowset.RowSetFactory;
+import javax.sql.rowset.RowSetProvider;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -20,52 +33,73 @@ public class DbConnect {
   private static final ConcurrentMap<String, DbConnect> connectionsByName =
       new ConcurrentHashMap<String, DbConnect>(5);
 
-  private Connection connection = null;
+  private static final RowSetFactory ROW_SETS = newRowSetFactory();
 
-  private DbConnect(String jdbcUrl, String username, String password) {
-    try {
-      Class.forName("org.postgresql.Driver");
-      connection = DriverManager.getConnection(jdbcUrl, username, password);
-      LOGGER.info("created connection to " + jdbcUrl +
-          " with credentials: " + username + " / " + password);
-    } catch (Exception e) {
-      throw new RuntimeException(e);
+  private static final int BATCH_CHUNK_SIZE = 500;
+
+  private final DatabaseConfig config;
+  private final ConnectionPool pool;
+  private Connection sharedConnection = null;
+
+  private DbConnect(DatabaseConfig config) {
+    loadPostgresDriver();
+    this.config = config;
+    this.pool = new ConnectionPool(config);
+    LOGGER.info("created connection pool to " + config.getJdbcUrl() + " as " + config.getUsername() +
+        " (min " + config.getPoolMinSize() + ", max " + config.getPoolMaxSize() + ")");
+  }
+
+  /**
+   * @return a single connection shared by every caller of this instance
+   * @deprecated the shared connection serializes all threads using it; use {@link #borrowConnection()} instead
+   */
+  @Deprecated
+  public synchronized Connection getConnection() {
+    if (sharedConnection == null) {
+      try {
+        sharedConnection = DriverManager.getConnection(config.getJdbcUrl(), config.getUsername(), config.getPassword());
+      } catch (SQLException e) {
+        throw new RuntimeException(e);
+      }
     }
+    return sharedConnection;
   }
 
-  public Connection getConnection(){
-    return connection;
+  /**
+   * Borrow a connection from this instance's pool for exclusive use. Closing the connection returns it to the
+   * pool, so use it in a try-with-resources block.
+   *
+   * @return pooled connection
+   * @throws SQLException if no connection becomes available within <tt>db.&lt;name&gt;.pool.borrowTimeout</tt>
+   */
+  public Connection borrowConnection() throws SQLException {
+    return pool.borrow();
   }
 
 
   /**
-   * Get a shared instance of DbConnectOnlyOnce that works for the specified config.  Connections
-   * are created lazily and may be released via the release methods.
+   * Get a shared instance of DbConnect that works for the specified config.  Connection pools
+   * are created lazily, once per config name, and may be released via the release methods.
    *
    * @param config
-   * @return a shared DbConnectOnlyOnce instance for DatabaseConfig
+   * @return a shared DbConnect instance for DatabaseConfig
    */
   public static DbConnect getInstance(DatabaseConfig config) {
-    if (!connectionsByName.containsKey(config.getName())) {
-      DbConnect dbConnectOnlyOnce = new DbConnect(config.getJdbcUrl(), config.getUsername(), config.getPassword());
-      connectionsByName.putIfAbsent(config.getName(), dbConnectOnlyOnce);
-    }
-    return connectionsByName.get(config.getName());
+    return connectionsByName.computeIfAbsent(config.getName(), name -> new DbConnect(config));
   }
 
 
   /**
-   * Release an instance of DbConnectOnlyOnce that is held in the shared conn pool.
+   * Release an instance of DbConnect that is held in the shared conn pool.
    *
-   * @param instance is the DbConnectOnlyOnce to release
+   * @param instance is the DbConnect to release
    * @return the instance that was released, if any; null if none was found
    */
   public static DbConnect releaseInstance(DbConnect instance) {
     for (Map.Entry<String, DbConnect> entry : connectionsByName.entrySet()) {
-      if (entry.getValue() == instance) {
-        DbConnect removedConn = connectionsByName.remove(entry.getKey());
-        removedConn.safeClose();
-        return removedConn;
+      if (entry.getValue() == instance && connectionsByName.remove(entry.getKey(), instance)) {
+        instance.safeClose();
+        return instance;
       }
     }
 
@@ -75,63 +109,217 @@ public class DbConnect {
   /**
    * Executes a read-only query and returns the ResultSet.
    *
+   * The rows are copied into a disconnected, scrollable result set so the connection goes straight back to
+   * the pool. That holds every row in memory; use {@link #stream} for large results.
+   *
    * @param query is the query to be executed in db
    * @return ResultSet . The user is responsible in closing the result set to avoid resource leak using (resultSet.close()).
    */
   public ResultSet executeQuery(String query) {
-    ResultSet rs = null;
-    try {
-      Statement stmt = getConnection().createStatement(ResultSet.TYPE_SCROLL_INSENSITIVE,
-          ResultSet.CONCUR_READ_ONLY
-          );
-      rs = stmt.executeQuery(query);
-
+    try (Connection connection = borrowConnection();
+        Statement stmt = connection.createStatement();
+        ResultSet rs = stmt.executeQuery(query)) {
+      CachedRowSet rows = ROW_SETS.createCachedRowSet();
+      rows.populate(rs);
+      return rows;
     } catch (SQLException e) {
       LOGGER.info("Exception is :" + e.getMessage());
     }
-    return rs;
+    return null;
   }
 
   /**
    * Updates the db
    *
    * @param query is the query to be updated in db
-   * @return ResultSet . The user is responsible in closing the result set to avoid resource leak using (resultSet.close()).
+   * @return number of rows affected
    * @throws SQLException
    */
   public int executeUpdate(String query) throws SQLException {
     int rs = 0;
-    Statement stmt = null;
-    try {
-      stmt = getConnection().createStatement();
+    try (Connection connection = borrowConnection();
+        Statement stmt = connection.createStatement()) {
       rs = stmt.executeUpdate(query);
       LOGGER.info("Record is updated");
     } catch (SQLException e) {
       LOGGER.info("Exception is :" + e.getMessage());
-    } finally {
-      stmt.close();
     }
     return rs;
   }
 
-  public int getNumberOfRows(String query) throws SQLException {
+  /**
+   * Executes a parameterized read-only query. The prepared statement is cached on the pooled connection, so
+   * running the same SQL again skips parsing and planning.
+   *
+   * @param sql query with <tt>?</tt> placeholders
+   * @param params values bound to the placeholders in order
+   * @return disconnected, scrollable copy of the rows
+   * @throws SQLException if the query fails
+   */
+  public ResultSet query(String sql, Object... params) throws SQLException {
+    try (Connection connection = borrowConnection()) {
+      CachingConnection caching = (CachingConnection) connection;
+      PreparedStatement stmt = caching.prepareCached(sql);
+      try {
+        bind(stmt, params);
+        try (ResultSet rs = stmt.executeQuery()) {
+          CachedRowSet rows = ROW_SETS.createCachedRowSet();
+          rows.populate(rs);
+          return rows;
+        }
+      } finally {
+        caching.releaseCached(stmt);
+      }
+    }
+  }
 
-    ResultSet resultSet = null;
+  /**
+   * Executes a parameterized insert, update or delete using a cached prepared statement.
+   *
+   * @param sql statement with <tt>?</tt> placeholders
+   * @param params values bound to the placeholders in order
+   * @return number of rows affected
+   * @throws SQLException if the statement fails
+   */
+  public int update(String sql, Object... params) throws SQLException {
+    try (Connection connection = borrowConnection()) {
+      CachingConnection caching = (CachingConnection) connection;
+      PreparedStatement stmt = caching.prepareCached(sql);
+      try {
+        bind(stmt, params);
+        return stmt.executeUpdate();
+      } finally {
+        caching.releaseCached(stmt);
+      }
+    }
+  }
 
-    int count = 0;
+  /**
+   * Executes the same statement once per row of parameters as JDBC batches, in a single transaction, so seeding
+   * test data costs a round trip per few hundred rows instead of one per row. Nothing is committed if any row
+   * fails.
+   *
+   * @param sql statement with <tt>?</tt> placeholders
+   * @param rows parameter values, one array per execution
+   * @return update count per row, as reported by the driver
+   * @throws SQLException if any row fails; the whole batch is rolled back
+   */
+  public int[] batchUpdate(String sql, List<Object[]> rows) throws SQLException {
+    int[] counts = new int[rows.size()];
+    if (rows.isEmpty()) {
+      return counts;
+    }
+    try (Connection connection = borrowConnection()) {
+      CachingConnection caching = (CachingConnection) connection;
+      connection.setAutoCommit(false);
+      PreparedStatement stmt = caching.prepareCached(sql);
+      try {
+        int done = 0;
+        while (done < rows.size()) {
+          int end = Math.min(done + BATCH_CHUNK_SIZE, rows.size());
+          for (Object[] row : rows.subList(done, end)) {
+            bind(stmt, row);
+            stmt.addBatch();
+          }
+          int[] chunk = stmt.executeBatch();
+          System.arraycopy(chunk, 0, counts, done, chunk.length);
+          done = end;
+        }
+        connection.commit();
+      } catch (SQLException e) {
+        stmt.clearBatch();
+        connection.rollback();
+        throw e;
+      } finally {
+        caching.releaseCached(stmt);
+      }
+    }
+    LOGGER.info("Batch of " + rows.size() + " records is updated");
+    return counts;
+  }
 
+  /**
+   * Counts the rows a query returns by running <tt>SELECT COUNT(*)</tt> over it in the database, so no rows are
+   * transferred.
+   *
+   * @param query query whose rows to count
+   * @return number of rows, 0 if the count fails
+   */
+  public int getNumberOfRows(String query) throws SQLException {
     try {
-      resultSet = executeQuery(query);
-      resultSet.last();
-      count = resultSet.getRow();
-      resultSet.beforeFirst();
+      return (int) count(query);
     } catch (SQLException e) {
       LOGGER.error("Error getting row count", e);
-    } finally {
-      resultSet.close();
+      return 0;
     }
-    return count;
+  }
 
+  /**
+   * Counts the rows a parameterized query returns, pushing the count down to the database.
+   *
+   * @param sql query with <tt>?</tt> placeholders; a trailing semicolon is ignored
+   * @param params values bound to the placeholders in order
+   * @return number of rows
+   * @throws SQLException if the query fails
+   */
+  public long count(String sql, Object... params) throws SQLException {
+    String inner = sql.trim();
+    if (inner.endsWith(";")) {
+      inner = inner.substring(0, inner.length() - 1);
+    }
+    ResultSet rs = query("SELECT COUNT(*) FROM (" + inner + ") counted", params);
+    rs.next();
+    return rs.getLong(1);
+  }
+
+  /**
+   * Streams the rows of a parameterized query through a forward-only cursor, fetching
+   * <tt>db.&lt;name&gt;.fetchSize</tt> rows per round trip and mapping each row only when the stream reaches
+   * it, so memory use doesn't grow with the size of the result.
+   *
+   * The stream holds a pooled connection until it's exhausted or closed; use it in try-with-resources.
+   * SQL errors while reading rows are rethrown as RuntimeException.
+   *
+   * @param sql query with <tt>?</tt> placeholders
+   * @param mapper maps the current row
+   * @param params values bound to the placeholders in order
+   * @return lazy stream of mapped rows
+   * @throws SQLException if the query can't be started
+   */
+  public <T> Stream<T> stream(String sql, RowMapper<T> mapper, Object... params) throws SQLException {
+    Connection connection = borrowConnection();
+    PreparedStatement stmt = null;
+    try {
+      // postgres only honors the fetch size inside a transaction; the pool rolls it back on return
+      connection.setAutoCommit(false);
+      stmt = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+      stmt.setFetchSize(config.getFetchSize());
+      bind(stmt, params);
+      Cursor<T> cursor = new Cursor<>(connection, stmt, stmt.executeQuery(), mapper);
+      return StreamSupport.stream(cursor, false).onClose(cursor::close);
+    } catch (SQLException | RuntimeException e) {
+      closeQuietly(stmt);
+      closeQuietly(connection);
+      throw e;
+    }
+  }
+
+  /**
+   * Streams rows as {@link DataField}s, one per column, named by column label.
+   *
+   * @see #stream(String, RowMapper, Object...)
+   */
+  public Stream<List<DataField>> streamRows(String sql, Object... params) throws SQLException {
+    return stream(sql, DbConnect::toDataFields, params);
+  }
+
+  private static List<DataField> toDataFields(ResultSet rs) throws SQLException {
+    ResultSetMetaData meta = rs.getMetaData();
+    List<DataField> row = new ArrayList<>(meta.getColumnCount());
+    for (int i = 1; i <= meta.getColumnCount(); i++) {
+      row.add(new DataField(meta.getColumnLabel(i), rs.getObject(i)));
+    }
+    return row;
   }
 
   /**
@@ -141,19 +329,106 @@ public class DbConnect {
    * @throws Exception
    */
   public void release() throws Exception {
-    DbConnect.releaseInstance(this);
-    safeClose();
+    if (DbConnect.releaseInstance(this) == null) {
+      safeClose();
+    }
   }
 
   /**
-   * Close the java.sql.Connection encapsulated by DbConnectOnlyOnce; swallows SQLException.
+   * Close the connection pool and the shared connection, if any; swallows SQLException.
    */
-  private void safeClose() {
+  private synchronized void safeClose() {
+    pool.close();
+    if (sharedConnection != null) {
+      try {
+        sharedConnection.close();
+      } catch (SQLException e) {
+        LOGGER.warn("exception encountered while closing connection", e);
+      }
+      sharedConnection = null;
+    }
+  }
+
+  private static void bind(PreparedStatement stmt, Object[] params) throws SQLException {
+    if (params == null) {
+      return;
+    }
+    for (int i = 0; i < params.length; i++) {
+      stmt.setObject(i + 1, params[i]);
+    }
+  }
+
+  private static void closeQuietly(AutoCloseable resource) {
+    if (resource == null) {
+      return;
+    }
+    try {
+      resource.close();
+    } catch (Exception e) {
+      LOGGER.debug("exception encountered while closing " + resource, e);
+    }
+  }
+
+  private static void loadPostgresDriver() {
+    try {
+      Class.forName("org.postgresql.Driver");
+    } catch (ClassNotFoundException e) {
+      // JDBC 4 drivers register themselves, this only matters for old postgres drivers
+      LOGGER.debug("postgres driver not on the classpath, relying on registered JDBC drivers");
+    }
+  }
+
+  private static RowSetFactory newRowSetFactory() {
     try {
-      getConnection().close();
+      return RowSetProvider.newFactory();
     } catch (SQLException e) {
-      LOGGER.warn("exception encountered while closing connection", e);
+      throw new IllegalStateException("no javax.sql.rowset implementation available", e);
     }
   }
 
+  /**
+   * Forward-only cursor over a result set that releases its statement and connection once exhausted or closed.
+   */
+  private static class Cursor<T> extends Spliterators.AbstractSpliterator<T> {
+    private final Connection connection;
+    private final Statement stmt;
+    private final ResultSet rs;
+    private final RowMapper<T> mapper;
+    private boolean closed = false;
+
+    Cursor(Connection connection, Statement stmt, ResultSet rs, RowMapper<T> mapper) {
+      super(Long.MAX_VALUE, Spliterator.ORDERED);
+      this.connection = connection;
+      this.stmt = stmt;
+      this.rs = rs;
+      this.mapper = mapper;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> action) {
+      if (closed) {
+        return false;
+      }
+      try {
+        if (!rs.next()) {
+          close();
+          return false;
+        }
+        action.accept(mapper.map(rs));
+        return true;
+      } catch (SQLException e) {
+        close();
+        throw new RuntimeException(e);
+      }
+    }
+
+    void close() {
+      if (!closed) {
+        closed = true;
+        closeQuietly(rs);
+        closeQuietly(stmt);
+        closeQuietly(connection);
+      }
+    }
+  }
 }
@@ -0,0 +1,15 @@
+package io.github.mrs.functionaltest.utils.db;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Maps the current row of a result set to an object; must not move the cursor.
+ *
+ * @param <T> row type
+ */
+@FunctionalInterface
+public interface RowMapper<T> {
+
+  T map(ResultSet rs) throws SQLException;
+}
@@ -0,0 +1,43 @@
+package io.github.mrs.functionaltest.utils.metrics;
+
+import lombok.Getter;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Latency summary for a single endpoint, in milliseconds. This is the shape written to
+ * <tt>test-output/request-latencies.json</tt>.
+ */
+@Getter
+public class EndpointLatency {
+
+	private final String method;
+	private final String path;
+	private final long count;
+	private final double p50;
+	private final double p90;
+	private final double p99;
+	private final double p999;
+	private final double max;
+
+	EndpointLatency(String method, String path, Histogram micros) {
+		this.method = method;
+		this.path = path;
+		this.count = micros.getTotalCount();
+		this.p50 = millis(micros.getValueAtPercentile(50));
+		this.p90 = millis(micros.getValueAtPercentile(90));
+		this.p99 = millis(micros.getValueAtPercentile(99));
+		this.p999 = millis(micros.getValueAtPercentile(99.9));
+		this.max = millis(micros.getMaxValue());
+	}
+
+	/**
+	 * @return key used to group requests, e.g. <tt>GET /api/users/{id}</tt>
+	 */
+	public String getEndpoint() {
+		return method + " " + path;
+	}
+
+	private static double millis(long micros) {
+		return micros / 1000.0;
+	}
+}
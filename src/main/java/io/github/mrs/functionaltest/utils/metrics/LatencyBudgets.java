@@ -0,0 +1,153 @@
+package io.github.mrs.functionaltest.utils.metrics;
+
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Latency budgets per endpoint, declared in the environment properties as
+ * <tt>slo.&lt;METHOD&gt;.&lt;path&gt;.&lt;percentile&gt;=&lt;limit&gt;</tt>, for example:
+ *
+ * <pre>
+ * slo.GET./api/users.p99=150ms
+ * slo.GET./api/users/{id}.p50=40ms
+ * slo.POST./api/users.max=2s
+ * </pre>
+ *
+ * Percentile is one of <tt>p50</tt>, <tt>p90</tt>, <tt>p99</tt>, <tt>p99.9</tt> or <tt>max</tt>; limits are
+ * in milliseconds unless suffixed with <tt>s</tt>. Paths are templated the same way as recorded requests, so
+ * <tt>/api/users/42</tt> and <tt>/api/users/{id}</tt> name the same endpoint.
+ */
+public class LatencyBudgets {
+
+	private static final Logger LOGGER = LogManager.getLogger(LatencyBudgets.class);
+
+	public static final String PREFIX = "slo.";
+
+	private static final Pattern KEY = Pattern.compile("([A-Za-z]+)\\.(.+)\\.(p50|p90|p99|p99\\.9|max)");
+	private static final Pattern LIMIT = Pattern.compile("(\\d+(?:\\.\\d+)?)\\s*(ms|s)?");
+
+	private static final LatencyBudgets NONE = new LatencyBudgets(Collections.emptyList());
+
+	private final List<Budget> budgets;
+
+	private LatencyBudgets(List<Budget> budgets) {
+		this.budgets = budgets;
+	}
+
+	/**
+	 * @return budgets that never fail
+	 */
+	public static LatencyBudgets none() {
+		return NONE;
+	}
+
+	/**
+	 * @param props environment properties, only keys starting with <tt>slo.</tt> are read
+	 * @return parsed budgets
+	 * @throws IllegalArgumentException if a <tt>slo.</tt> key or its limit can't be parsed
+	 */
+	public static LatencyBudgets fromProperties(Properties props) {
+		List<Budget> budgets = new ArrayList<>();
+		for (String key : props.stringPropertyNames()) {
+			if (!key.startsWith(PREFIX)) {
+				continue;
+			}
+			Matcher keyMatcher = KEY.matcher(key.substring(PREFIX.length()));
+			Matcher limitMatcher = LIMIT.matcher(props.getProperty(key).trim());
+			if (!keyMatcher.matches() || !limitMatcher.matches()) {
+				throw new IllegalArgumentException(MessageFormat.format(
+						"Invalid latency budget [{0}={1}], expected slo.<METHOD>.<path>.<p50|p90|p99|p99.9|max>=<n>ms",
+						key, props.getProperty(key)));
+			}
+			double limit = Double.parseDouble(limitMatcher.group(1));
+			if ("s".equals(limitMatcher.group(2))) {
+				limit *= 1000;
+			}
+			String endpoint = keyMatcher.group(1).toUpperCase() + " " + RequestMetrics.templatePath(keyMatcher.group(2));
+			budgets.add(new Budget(endpoint, keyMatcher.group(3), limit));
+		}
+		return budgets.isEmpty() ? NONE : new LatencyBudgets(budgets);
+	}
+
+	public boolean isEmpty() {
+		return budgets.isEmpty();
+	}
+
+	/**
+	 * @param latencies measured latencies
+	 * @return one message per budget exceeded, empty if all are met
+	 */
+	public List<String> violations(List<EndpointLatency> latencies) {
+		Map<String, EndpointLatency> byEndpoint = new HashMap<>();
+		for (EndpointLatency latency : latencies) {
+			byEndpoint.put(latency.getEndpoint(), latency);
+		}
+
+		List<String> violations = new ArrayList<>();
+		for (Budget budget : budgets) {
+			EndpointLatency latency = byEndpoint.get(budget.endpoint);
+			if (latency == null) {
+				LOGGER.warn("Latency budget for {} not checked, no requests were made", budget.endpoint);
+				continue;
+			}
+			double measured = budget.measured(latency);
+			if (measured > budget.limitMillis) {
+				violations.add(String.format("%s %s was %.1f ms, budget %.1f ms",
+						budget.endpoint, budget.percentile, measured, budget.limitMillis));
+			} else {
+				LOGGER.info("OK: {} {} {} ms within budget of {} ms",
+						budget.endpoint, budget.percentile, measured, budget.limitMillis);
+			}
+		}
+		return violations;
+	}
+
+	/**
+	 * @param latencies measured latencies
+	 * @throws AssertionError listing every budget exceeded
+	 */
+	public void verify(List<EndpointLatency> latencies) {
+		List<String> violations = violations(latencies);
+		if (!violations.isEmpty()) {
+			violations.forEach(v -> LOGGER.error("FAIL latency budget: {}", v));
+			throw new AssertionError("Latency budgets exceeded:\n  " + String.join("\n  ", violations));
+		}
+	}
+
+	private static class Budget {
+		private final String endpoint;
+		private final String percentile;
+		private final double limitMillis;
+
+		Budget(String endpoint, String percentile, double limitMillis) {
+			this.endpoint = endpoint;
+			this.percentile = percentile;
+			this.limitMillis = limitMillis;
+		}
+
+		double measured(EndpointLatency latency) {
+			switch (percentile) {
+				case "p50":
+					return latency.getP50();
+				case "p90":
+					return latency.getP90();
+				case "p99":
+					return latency.getP99();
+				case "p99.9":
+					return latency.getP999();
+				default:
+					return latency.getMax();
+			}
+		}
+	}
+}
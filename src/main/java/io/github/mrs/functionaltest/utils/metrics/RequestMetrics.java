@@ -0,0 +1,182 @@
+package io.github.mrs.functionaltest.utils.metrics;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import com.google.gson.GsonBuilder;
+import io.restassured.filter.Filter;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Per-endpoint request latency, recorded by a filter on every <tt>HttpCaller</tt> request. Endpoints are keyed by
+ * HTTP method plus the request path with identifiers replaced by <tt>{id}</tt>, so <tt>GET /api/users/42</tt> and
+ * <tt>GET /api/users/43</tt> land in the same histogram.
+ *
+ * Recording is wait-free; summarizing is expected to happen rarely, typically once at the end of the suite.
+ */
+public class RequestMetrics {
+
+	private static final Logger LOGGER = LogManager.getLogger(RequestMetrics.class);
+
+	public static final String REPORT_FILE = "test-output/request-latencies.json";
+
+	private static final String ID_PLACEHOLDER = "{id}";
+	private static final Pattern NUMERIC = Pattern.compile("\\d+");
+	private static final Pattern UUID = Pattern.compile(
+			"[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}");
+	// object ids, hashes and similar: long hex strings that contain at least one digit
+	private static final Pattern HEX_ID = Pattern.compile("(?=.*\\d)[0-9a-fA-F]{16,}");
+
+	private static final ConcurrentMap<String, Endpoint> ENDPOINTS = new ConcurrentHashMap<>();
+
+	private static final Filter FILTER = (requestSpec, responseSpec, ctx) -> {
+		long start = System.nanoTime();
+		try {
+			return ctx.next(requestSpec, responseSpec);
+		} finally {
+			record(requestSpec.getMethod(), requestSpec.getURI(), System.nanoTime() - start);
+		}
+	};
+
+	/**
+	 * @return RestAssured filter that times each request it sees
+	 */
+	public static Filter filter() {
+		return FILTER;
+	}
+
+	/**
+	 * @param method HTTP method
+	 * @param uri full URI or path of the request, query string is ignored
+	 * @param elapsedNanos time taken by the request
+	 */
+	public static void record(String method, String uri, long elapsedNanos) {
+		String path = templatePath(uri);
+		String key = method + " " + path;
+		Endpoint endpoint = ENDPOINTS.get(key);
+		if (endpoint == null) {
+			endpoint = ENDPOINTS.computeIfAbsent(key, k -> new Endpoint(method, path));
+		}
+		endpoint.recorder.recordValue(TimeUnit.NANOSECONDS.toMicros(elapsedNanos));
+	}
+
+	/**
+	 * @param uri full URI or path
+	 * @return path portion with numeric, UUID and long hex segments replaced by <tt>{id}</tt>
+	 */
+	public static String templatePath(String uri) {
+		String path = uri;
+		int query = path.indexOf('?');
+		if (query >= 0) {
+			path = path.substring(0, query);
+		}
+		try {
+			String parsed = URI.create(path).getRawPath();
+			if (parsed != null) {
+				path = parsed;
+			}
+		} catch (IllegalArgumentException e) {
+			// not a well-formed URI, template it as-is
+		}
+
+		String[] segments = path.split("/", -1);
+		for (int i = 0; i < segments.length; i++) {
+			String segment = segments[i];
+			if (NUMERIC.matcher(segment).matches() || UUID.matcher(segment).matches()
+					|| HEX_ID.matcher(segment).matches()) {
+				segments[i] = ID_PLACEHOLDER;
+			}
+		}
+		String templated = String.join("/", segments);
+		return templated.isEmpty() ? "/" : templated;
+	}
+
+	/**
+	 * @return latency summary per endpoint recorded so far, sorted by endpoint
+	 */
+	public static List<EndpointLatency> snapshot() {
+		Map<String, EndpointLatency> sorted = new TreeMap<>();
+		for (Map.Entry<String, Endpoint> entry : ENDPOINTS.entrySet()) {
+			Endpoint endpoint = entry.getValue();
+			sorted.put(entry.getKey(), new EndpointLatency(endpoint.method, endpoint.path, endpoint.accumulate()));
+		}
+		return new ArrayList<>(sorted.values());
+	}
+
+	/**
+	 * Log a table of per-endpoint latencies and write them as JSON to {@link #REPORT_FILE}.
+	 *
+	 * @return the summaries that were reported
+	 */
+	public static List<EndpointLatency> report() {
+		List<EndpointLatency> latencies = snapshot();
+		if (latencies.isEmpty()) {
+			return latencies;
+		}
+
+		StringBuilder table = new StringBuilder("Request latency by endpoint (ms):\n");
+		table.append(String.format("%-60s %8s %9s %9s %9s %9s %9s%n", "endpoint", "count", "p50", "p90", "p99", "p99.9", "max"));
+		for (EndpointLatency latency : latencies) {
+			table.append(String.format("%-60s %8d %9.1f %9.1f %9.1f %9.1f %9.1f%n", latency.getEndpoint(),
+					latency.getCount(), latency.getP50(), latency.getP90(), latency.getP99(), latency.getP999(),
+					latency.getMax()));
+		}
+		LOGGER.info(table.toString());
+
+		File reportFile = new File(REPORT_FILE);
+		try {
+			Files.createDirectories(reportFile.getParentFile().toPath());
+			try (Writer writer = Files.newBufferedWriter(reportFile.toPath(), StandardCharsets.UTF_8)) {
+				new GsonBuilder().setPrettyPrinting().create().toJson(latencies, writer);
+			}
+			LOGGER.info("OK: Wrote request latencies to {}", REPORT_FILE);
+		} catch (IOException e) {
+			LOGGER.warn("Failed to write request latencies to " + REPORT_FILE + ": " + e.getMessage());
+		}
+		return latencies;
+	}
+
+	/**
+	 * Forget everything recorded so far.
+	 */
+	public static void reset() {
+		ENDPOINTS.clear();
+	}
+
+	private static class Endpoint {
+		private final String method;
+		private final String path;
+		private final Recorder recorder = new Recorder(3);
+		private Histogram total;
+
+		Endpoint(String method, String path) {
+			this.method = method;
+			this.path = path;
+		}
+
+		synchronized Histogram accumulate() {
+			Histogram interval = recorder.getIntervalHistogram();
+			if (total == null) {
+				total = interval;
+			} else {
+				total.add(interval);
+			}
+			return total.copy();
+		}
+	}
+}
@@ -0,0 +1,55 @@
+package io.github.mrs.functionaltest.utils.stub;
+
+import java.util.List;
+import java.util.Map;
+
+import com.sun.net.httpserver.Headers;
+
+import lombok.Getter;
+
+/**
+ * A request received by a {@link StubServer} route, with the values of any <tt>{name}</tt> segments in the
+ * route's path.
+ */
+@Getter
+public class StubRequest {
+
+	private final String method;
+	private final String path;
+	private final String query;
+	private final Map<String, String> pathParams;
+	private final Headers headers;
+	private final String body;
+
+	StubRequest(String method, String path, String query, Map<String, String> pathParams, Headers headers,
+			String body) {
+		this.method = method;
+		this.path = path;
+		this.query = query;
+		this.pathParams = pathParams;
+		this.headers = headers;
+		this.body = body;
+	}
+
+	/**
+	 * @param name name of a <tt>{name}</tt> segment in the route's path
+	 * @return value of that segment in this request, null if the route has no such segment
+	 */
+	public String pathParam(String name) {
+		return pathParams.get(name);
+	}
+
+	/**
+	 * @param name header name, in any case
+	 * @return first value of the header, null if it wasn't sent
+	 */
+	public String header(String name) {
+		List<String> values = headers.get(name);
+		return values == null || values.isEmpty() ? null : values.get(0);
+	}
+
+	@Override
+	public String toString() {
+		return method + " " + path + (query == null ? "" : "?" + query);
+	}
+}
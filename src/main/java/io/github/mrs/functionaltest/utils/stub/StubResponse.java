@@ -0,0 +1,81 @@
+package io.github.mrs.functionaltest.utils.stub;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import io.github.mrs.functionaltest.utils.JsonCodecs;
+
+import lombok.Getter;
+
+/**
+ * An immutable canned response for a {@link StubServer} route. The body is encoded once, when the response is
+ * built, so a route answering with the same response every time costs nothing per request.
+ */
+@Getter
+public class StubResponse {
+
+	private static final String JSON = "application/json";
+
+	private final int status;
+	private final Map<String, String> headers;
+	private final byte[] body;
+
+	private StubResponse(int status, Map<String, String> headers, byte[] body) {
+		this.status = status;
+		this.headers = Collections.unmodifiableMap(headers);
+		this.body = body;
+	}
+
+	/**
+	 * @param status HTTP status
+	 * @return response with no body
+	 */
+	public static StubResponse status(int status) {
+		return new StubResponse(status, new LinkedHashMap<>(), new byte[0]);
+	}
+
+	/**
+	 * @param status HTTP status
+	 * @param json JSON text to send as is
+	 * @return response with an <tt>application/json</tt> body
+	 */
+	public static StubResponse json(int status, String json) {
+		Map<String, String> headers = new LinkedHashMap<>();
+		headers.put("Content-Type", JSON);
+		return new StubResponse(status, headers, json.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * @param status HTTP status
+	 * @param contentType <tt>Content-Type</tt> to send
+	 * @param body bytes to send as is, e.g. a binary download
+	 * @return response with the given body
+	 */
+	public static StubResponse body(int status, String contentType, byte[] body) {
+		Map<String, String> headers = new LinkedHashMap<>();
+		headers.put("Content-Type", contentType);
+		return new StubResponse(status, headers, body.clone());
+	}
+
+	/**
+	 * @param status HTTP status
+	 * @param body object to serialize with the default codec from {@link JsonCodecs}
+	 * @return response with an <tt>application/json</tt> body
+	 */
+	public static StubResponse json(int status, Object body) {
+		return json(status, JsonCodecs.defaults().toJson(body));
+	}
+
+	/**
+	 * @param name header name
+	 * @param value header value
+	 * @return copy of this response with the header added or replaced
+	 */
+	public StubResponse withHeader(String name, String value) {
+		Map<String, String> copy = new LinkedHashMap<>(headers);
+		copy.put(name, value);
+		return new StubResponse(status, copy, body);
+	}
+}
@@ -0,0 +1,132 @@
+package io.github.mrs.functionaltest.utils.stub;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * One route of a {@link StubServer}: a method and a path such as <tt>/api/users/{id}</tt>, what to answer with,
+ * and optionally its own latency and error injection in place of the server-wide {@link StubServer.Faults}.
+ */
+public class StubRoute {
+
+	private final String method;
+	private final String[] segments;
+	private final LongAdder hits = new LongAdder();
+
+	private volatile Function<StubRequest, StubResponse> handler = request -> StubResponse.status(200);
+	private volatile StubServer.Faults faults;
+
+	StubRoute(String method, String path) {
+		this.method = method.toUpperCase();
+		this.segments = split(path);
+	}
+
+	/**
+	 * @param response response to send to every matching request
+	 * @return this route
+	 */
+	public StubRoute respond(StubResponse response) {
+		this.handler = request -> response;
+		return this;
+	}
+
+	/**
+	 * @param handler builds the response from the request, called concurrently
+	 * @return this route
+	 */
+	public StubRoute respond(Function<StubRequest, StubResponse> handler) {
+		this.handler = handler;
+		return this;
+	}
+
+	/**
+	 * @param latency delay before every response on this route
+	 * @return this route
+	 */
+	public StubRoute latency(Duration latency) {
+		return latency(latency, Duration.ZERO);
+	}
+
+	/**
+	 * @param latency least delay before every response on this route
+	 * @param jitter most extra delay, chosen uniformly at random per request
+	 * @return this route
+	 */
+	public StubRoute latency(Duration latency, Duration jitter) {
+		StubServer.Faults current = faults;
+		this.faults = current == null
+				? new StubServer.Faults(latency, jitter, 0, StubServer.Faults.DEFAULT_ERROR_STATUS)
+				: new StubServer.Faults(latency, jitter, current.getErrorRate(), current.getErrorStatus());
+		return this;
+	}
+
+	/**
+	 * @param rate fraction of requests on this route to fail, from 0 to 1
+	 * @param status status to fail them with, e.g. 503
+	 * @return this route
+	 */
+	public StubRoute errors(double rate, int status) {
+		StubServer.Faults current = faults;
+		this.faults = current == null
+				? new StubServer.Faults(Duration.ZERO, Duration.ZERO, rate, status)
+				: new StubServer.Faults(current.getLatency(), current.getLatencyJitter(), rate, status);
+		return this;
+	}
+
+	/**
+	 * @return requests this route has answered, including injected errors
+	 */
+	public long hits() {
+		return hits.sum();
+	}
+
+	String method() {
+		return method;
+	}
+
+	StubServer.Faults faults() {
+		return faults;
+	}
+
+	void hit() {
+		hits.increment();
+	}
+
+	StubResponse handle(StubRequest request) {
+		return handler.apply(request);
+	}
+
+	// null if the path doesn't match, otherwise the path parameters
+	Map<String, String> match(String[] path) {
+		if (path.length != segments.length) {
+			return null;
+		}
+		Map<String, String> params = null;
+		for (int i = 0; i < segments.length; i++) {
+			String segment = segments[i];
+			if (segment.startsWith("{") && segment.endsWith("}")) {
+				if (params == null) {
+					params = new HashMap<>();
+				}
+				params.put(segment.substring(1, segment.length() - 1), path[i]);
+			} else if (!segment.equals(path[i])) {
+				return null;
+			}
+		}
+		return params == null ? Collections.emptyMap() : params;
+	}
+
+	static String[] split(String path) {
+		String trimmed = path.replaceAll("^/+|/+$", "");
+		return trimmed.isEmpty() ? new String[0] : trimmed.split("/+");
+	}
+
+	@Override
+	public String toString() {
+		return method + " /" + String.join("/", segments);
+	}
+}
@@ -0,0 +1,283 @@
+package io.github.mrs.functionaltest.utils.stub;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import io.github.mrs.functionaltest.utils.VirtualThreads;
+import lombok.Getter;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * In-process HTTP server standing in for the service under test, so a suite can run without a live backend and
+ * the library's own client overhead can be measured without a network in the way.
+ *
+ * Routes are matched in the order they were added; <tt>{name}</tt> path segments match any single segment.
+ * Unmatched requests get a 404. Every response can be delayed and a fraction of them failed, server-wide through
+ * {@link Faults} or per route, to see how tests and load runs behave against a slow or flaky service.
+ *
+ * <pre>
+ * StubServer stub = StubServer.start();
+ * stub.get("/api/users/{id}").respond(req -&gt; StubResponse.json(200, "{\"id\":" + req.pathParam("id") + "}"));
+ * stub.post("/api/users").respond(StubResponse.json(201, "{\"id\":1}")).latency(Duration.ofMillis(50));
+ * </pre>
+ */
+public class StubServer {
+
+	private static final Logger LOGGER = LogManager.getLogger(StubServer.class);
+
+	private static final StubResponse NOT_FOUND = StubResponse.json(404, "{\"error\":\"no stub route\"}");
+	private static final int BACKLOG = 1024;
+
+	static {
+		// without TCP_NODELAY, a response written as headers then body waits out the client's delayed ACK (~40ms);
+		// only takes effect if no HttpServer was created in this JVM before
+		if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+			System.setProperty("sun.net.httpserver.nodelay", "true");
+		}
+	}
+
+	private final HttpServer server;
+	private final ExecutorService executor;
+	private final List<StubRoute> routes = new CopyOnWriteArrayList<>();
+	private final LongAdder requests = new LongAdder();
+	private volatile Faults faults;
+
+	private StubServer(HttpServer server, ExecutorService executor, Faults faults) {
+		this.server = server;
+		this.executor = executor;
+		this.faults = faults;
+	}
+
+	/**
+	 * @return server on a free local port, without injected latency or errors
+	 * @throws IOException if no port could be bound
+	 */
+	public static StubServer start() throws IOException {
+		return start(Faults.none());
+	}
+
+	/**
+	 * @param faults latency and errors to inject into every route that doesn't set its own
+	 * @return server on a free local port
+	 * @throws IOException if no port could be bound
+	 */
+	public static StubServer start(Faults faults) throws IOException {
+		HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), BACKLOG);
+		// injected latency parks a thread per request, so don't cap how many
+		ExecutorService executor = Executors.newCachedThreadPool(VirtualThreads.threadFactory("stub-"));
+		StubServer stub = new StubServer(server, executor, faults);
+		server.createContext("/", stub::dispatch);
+		server.setExecutor(executor);
+		server.start();
+		LOGGER.info("Stub server listening on {}", stub.url());
+		return stub;
+	}
+
+	/**
+	 * @param method HTTP method
+	 * @param path path to match, with <tt>{name}</tt> for variable segments
+	 * @return new route answering 200 with no body until told otherwise
+	 */
+	public StubRoute on(String method, String path) {
+		StubRoute route = new StubRoute(method, path);
+		routes.add(route);
+		return route;
+	}
+
+	public StubRoute get(String path) {
+		return on("GET", path);
+	}
+
+	public StubRoute post(String path) {
+		return on("POST", path);
+	}
+
+	public StubRoute put(String path) {
+		return on("PUT", path);
+	}
+
+	public StubRoute patch(String path) {
+		return on("PATCH", path);
+	}
+
+	public StubRoute delete(String path) {
+		return on("DELETE", path);
+	}
+
+	/**
+	 * @param faults latency and errors to inject from now on into routes that don't set their own
+	 */
+	public void faults(Faults faults) {
+		this.faults = faults;
+	}
+
+	/**
+	 * Remove every route, e.g. between tests that stub the same paths differently.
+	 */
+	public void reset() {
+		routes.clear();
+	}
+
+	/**
+	 * @return base URL to point <tt>base.url</tt> at, e.g. <tt>http://localhost:49152</tt>
+	 */
+	public String url() {
+		return "http://localhost:" + port();
+	}
+
+	public int port() {
+		return server.getAddress().getPort();
+	}
+
+	/**
+	 * @return requests received, matched or not
+	 */
+	public long requestCount() {
+		return requests.sum();
+	}
+
+	public void stop() {
+		server.stop(0);
+		executor.shutdownNow();
+		LOGGER.info("Stub server on port {} stopped after {} requests", port(), requestCount());
+	}
+
+	private void dispatch(HttpExchange exchange) throws IOException {
+		requests.increment();
+		try {
+			String method = exchange.getRequestMethod();
+			String path = exchange.getRequestURI().getRawPath();
+			String[] segments = StubRoute.split(path);
+			StubResponse response = NOT_FOUND;
+			for (StubRoute route : routes) {
+				Map<String, String> params = route.method().equals(method) ? route.match(segments) : null;
+				if (params != null) {
+					response = handle(route, new StubRequest(method, path, exchange.getRequestURI().getRawQuery(), params,
+							exchange.getRequestHeaders(), readBody(exchange)));
+					break;
+				}
+			}
+			send(exchange, response);
+		} catch (RuntimeException e) {
+			LOGGER.warn("Stub route failed for {} {}: {}", exchange.getRequestMethod(), exchange.getRequestURI(),
+					e.toString());
+			send(exchange, StubResponse.json(500, "{\"error\":\"stub route threw " + e.getClass().getSimpleName() + "\"}"));
+		} finally {
+			exchange.close();
+		}
+	}
+
+	private StubResponse handle(StubRoute route, StubRequest request) {
+		Faults applied = route.faults() != null ? route.faults() : faults;
+		route.hit();
+		applied.delay();
+		if (applied.fail()) {
+			return StubResponse.json(applied.getErrorStatus(), "{\"error\":\"injected fault\"}");
+		}
+		return route.handle(request);
+	}
+
+	private static String readBody(HttpExchange exchange) throws IOException {
+		try (InputStream in = exchange.getRequestBody()) {
+			byte[] bytes = in.readAllBytes();
+			return bytes.length == 0 ? "" : new String(bytes, StandardCharsets.UTF_8);
+		}
+	}
+
+	private static void send(HttpExchange exchange, StubResponse response) throws IOException {
+		response.getHeaders().forEach(exchange.getResponseHeaders()::set);
+		byte[] body = response.getBody();
+		int status = response.getStatus();
+		if (status == 204 || status == 304 || "HEAD".equals(exchange.getRequestMethod())) {
+			exchange.sendResponseHeaders(status, -1);
+			return;
+		}
+		// length 0 means chunked to HttpServer, which is what we want for an empty body: a pooled client only
+		// releases the connection once it reads to the end, and RestAssured never reads a zero Content-Length
+		exchange.sendResponseHeaders(status, body.length);
+		try (OutputStream out = exchange.getResponseBody()) {
+			out.write(body);
+		}
+	}
+
+	/**
+	 * Latency and errors to inject into responses.
+	 */
+	@Getter
+	public static class Faults {
+		static final int DEFAULT_ERROR_STATUS = 503;
+
+		private final Duration latency;
+		private final Duration latencyJitter;
+		private final double errorRate;
+		private final int errorStatus;
+
+		/**
+		 * @param latency least delay before each response
+		 * @param latencyJitter most extra delay, chosen uniformly at random per request
+		 * @param errorRate fraction of requests to fail, from 0 to 1
+		 * @param errorStatus status to fail them with
+		 */
+		public Faults(Duration latency, Duration latencyJitter, double errorRate, int errorStatus) {
+			if (errorRate < 0 || errorRate > 1) {
+				throw new IllegalArgumentException("errorRate must be between 0 and 1, was " + errorRate);
+			}
+			this.latency = latency;
+			this.latencyJitter = latencyJitter;
+			this.errorRate = errorRate;
+			this.errorStatus = errorStatus;
+		}
+
+		public static Faults none() {
+			return new Faults(Duration.ZERO, Duration.ZERO, 0, DEFAULT_ERROR_STATUS);
+		}
+
+		/**
+		 * @param props properties with optional <tt>stub.latency</tt> and <tt>stub.latencyJitter</tt> in
+		 *     milliseconds (0), <tt>stub.errorRate</tt> (0.0) and <tt>stub.errorStatus</tt> (503)
+		 * @return parsed faults
+		 */
+		public static Faults fromProperties(Properties props) {
+			return new Faults(
+					Duration.ofMillis(Long.parseLong(props.getProperty("stub.latency", "0"))),
+					Duration.ofMillis(Long.parseLong(props.getProperty("stub.latencyJitter", "0"))),
+					Double.parseDouble(props.getProperty("stub.errorRate", "0.0")),
+					Integer.parseInt(props.getProperty("stub.errorStatus", String.valueOf(DEFAULT_ERROR_STATUS))));
+		}
+
+		void delay() {
+			long nanos = latency.toNanos();
+			if (!latencyJitter.isZero()) {
+				nanos += ThreadLocalRandom.current().nextLong(latencyJitter.toNanos() + 1);
+			}
+			if (nanos > 0) {
+				try {
+					TimeUnit.NANOSECONDS.sleep(nanos);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		}
+
+		boolean fail() {
+			return errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate;
+		}
+	}
+}
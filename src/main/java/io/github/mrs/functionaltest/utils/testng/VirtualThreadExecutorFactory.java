@@ -0,0 +1,46 @@
+package io.github.mrs.functionaltest.utils.testng;
+
+import java.util.Comparator;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import io.github.mrs.functionaltest.utils.VirtualThreads;
+import org.testng.IDynamicGraph;
+import org.testng.ISuite;
+import org.testng.ITestNGMethod;
+import org.testng.internal.thread.DefaultThreadPoolExecutorFactory;
+import org.testng.thread.IExecutorFactory;
+import org.testng.thread.ITestNGThreadPoolExecutor;
+import org.testng.thread.IThreadWorkerFactory;
+
+/**
+ * Executor factory that runs parallel test methods on virtual threads when {@link VirtualThreads} is enabled,
+ * and behaves exactly like TestNG's default factory otherwise. Register it with
+ * <tt>-threadpoolfactoryclass io.github.mrs.functionaltest.utils.testng.VirtualThreadExecutorFactory</tt>
+ * or <tt>TestNG.setExecutorFactory(...)</tt>.
+ */
+public class VirtualThreadExecutorFactory implements IExecutorFactory {
+
+	private final IExecutorFactory delegate = new DefaultThreadPoolExecutorFactory();
+
+	@Override
+	public ITestNGThreadPoolExecutor newSuiteExecutor(String name, IDynamicGraph<ISuite> graph,
+			IThreadWorkerFactory<ISuite> factory, int corePoolSize, int maximumPoolSize, long keepAliveTime,
+			TimeUnit unit, BlockingQueue<Runnable> workQueue, Comparator<ISuite> comparator) {
+		return delegate.newSuiteExecutor(name, graph, factory, corePoolSize, maximumPoolSize, keepAliveTime, unit,
+				workQueue, comparator);
+	}
+
+	@Override
+	public ITestNGThreadPoolExecutor newTestMethodExecutor(String name, IDynamicGraph<ITestNGMethod> graph,
+			IThreadWorkerFactory<ITestNGMethod> factory, int corePoolSize, int maximumPoolSize, long keepAliveTime,
+			TimeUnit unit, BlockingQueue<Runnable> workQueue, Comparator<ITestNGMethod> comparator) {
+		ITestNGThreadPoolExecutor executor = delegate.newTestMethodExecutor(name, graph, factory, corePoolSize,
+				maximumPoolSize, keepAliveTime, unit, workQueue, comparator);
+		if (VirtualThreads.isEnabled() && executor instanceof ThreadPoolExecutor) {
+			((ThreadPoolExecutor) executor).setThreadFactory(VirtualThreads.threadFactory("TestNG-" + name + "-"));
+		}
+		return executor;
+	}
+}
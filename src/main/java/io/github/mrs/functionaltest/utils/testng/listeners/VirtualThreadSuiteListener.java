@@ -0,0 +1,39 @@
+package io.github.mrs.functionaltest.utils.testng.listeners;
+
+import java.util.List;
+
+import io.github.mrs.functionaltest.utils.VirtualThreads;
+import org.testng.IAlterSuiteListener;
+import org.testng.xml.XmlSuite;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * When {@link VirtualThreads} is enabled, run test methods in parallel and raise the method and data-provider
+ * thread counts to <tt>FUNCTIONAL_THREAD_COUNT</tt> (default 256). Suites that already ask for a higher count,
+ * or a different parallel mode, keep their own settings.
+ *
+ * Data providers still need <tt>@DataProvider(parallel = true)</tt> for their rows to run concurrently.
+ */
+public class VirtualThreadSuiteListener implements IAlterSuiteListener {
+
+	private static final Logger LOGGER = LogManager.getLogger(VirtualThreadSuiteListener.class);
+
+	@Override
+	public void alter(List<XmlSuite> suites) {
+		if (!VirtualThreads.isEnabled()) {
+			return;
+		}
+		int threadCount = VirtualThreads.threadCount();
+		for (XmlSuite suite : suites) {
+			if (suite.getParallel() == null || suite.getParallel() == XmlSuite.ParallelMode.NONE) {
+				suite.setParallel(XmlSuite.ParallelMode.METHODS);
+			}
+			suite.setThreadCount(Math.max(suite.getThreadCount(), threadCount));
+			suite.setDataProviderThreadCount(Math.max(suite.getDataProviderThreadCount(), threadCount));
+			LOGGER.info("Virtual thread mode: suite {} running {} in parallel on {} threads",
+					suite.getName(), suite.getParallel(), suite.getThreadCount());
+		}
+	}
+}
@@ -0,0 +1,68 @@
+package io.github.mrs.functionaltest.utils.traffic;
+
+import java.util.List;
+
+import io.restassured.http.Header;
+import lombok.Getter;
+
+/**
+ * One request and its response as written by {@link TrafficCapture}.
+ */
+@Getter
+public class CapturedExchange {
+
+	private final long startedAtMicros;
+	private final long durationMicros;
+	private final String method;
+	private final String uri;
+	private final List<Header> requestHeaders;
+	private final byte[] requestBody;
+	private final int status;
+	private final String statusLine;
+	private final List<Header> responseHeaders;
+	private final byte[] responseBody;
+
+	CapturedExchange(long startedAtMicros, long durationMicros, String method, String uri, List<Header> requestHeaders,
+			byte[] requestBody, int status, String statusLine, List<Header> responseHeaders, byte[] responseBody) {
+		this.startedAtMicros = startedAtMicros;
+		this.durationMicros = durationMicros;
+		this.method = method;
+		this.uri = uri;
+		this.requestHeaders = requestHeaders;
+		this.requestBody = requestBody;
+		this.status = status;
+		this.statusLine = statusLine;
+		this.responseHeaders = responseHeaders;
+		this.responseBody = responseBody;
+	}
+
+	/**
+	 * @param name header name, any case
+	 * @return first request header with that name, null if none
+	 */
+	public String requestHeader(String name) {
+		return find(requestHeaders, name);
+	}
+
+	/**
+	 * @param name header name, any case
+	 * @return first response header with that name, null if none
+	 */
+	public String responseHeader(String name) {
+		return find(responseHeaders, name);
+	}
+
+	private static String find(List<Header> headers, String name) {
+		for (Header header : headers) {
+			if (header.getName().equalsIgnoreCase(name)) {
+				return header.getValue();
+			}
+		}
+		return null;
+	}
+
+	@Override
+	public String toString() {
+		return method + " " + uri + " -> " + status;
+	}
+}
@@ -0,0 +1,150 @@
+package io.github.mrs.functionaltest.utils.traffic;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import com.google.gson.stream.JsonWriter;
+
+import io.restassured.http.Header;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Writes captured exchanges as a HAR 1.2 file, for browser dev tools, proxies and other HTTP tools. Entries are
+ * streamed out one at a time, so captures of any size can be exported. Bodies that aren't valid UTF-8 text are
+ * base64 encoded. Credentials in <tt>Authorization</tt> and cookie headers are always redacted, even if the capture
+ * kept them.
+ */
+public final class HarExport {
+
+	private HarExport() {
+	}
+
+	/**
+	 * @param exchanges exchanges to export, in order
+	 * @param har file to write, replaced if it exists
+	 * @throws IOException if the file can't be written
+	 */
+	public static void write(Stream<CapturedExchange> exchanges, Path har) throws IOException {
+		Path parent = har.toAbsolutePath().getParent();
+		if (parent != null) {
+			Files.createDirectories(parent);
+		}
+		try (Writer file = Files.newBufferedWriter(har, StandardCharsets.UTF_8);
+				JsonWriter json = new JsonWriter(file)) {
+			json.beginObject().name("log").beginObject();
+			json.name("version").value("1.2");
+			json.name("creator").beginObject().name("name").value("java-api-testlib").name("version").value("1.0").endObject();
+			json.name("entries").beginArray();
+			Iterator<CapturedExchange> entries = exchanges.iterator();
+			while (entries.hasNext()) {
+				entry(json, entries.next());
+			}
+			json.endArray();
+			json.endObject().endObject();
+		}
+	}
+
+	private static void entry(JsonWriter json, CapturedExchange exchange) throws IOException {
+		double millis = exchange.getDurationMicros() / 1000.0;
+		json.beginObject();
+		json.name("startedDateTime").value(Instant.EPOCH.plus(exchange.getStartedAtMicros(), ChronoUnit.MICROS).toString());
+		json.name("time").value(millis);
+
+		json.name("request").beginObject();
+		json.name("method").value(exchange.getMethod());
+		json.name("url").value(exchange.getUri());
+		json.name("httpVersion").value("HTTP/1.1");
+		json.name("cookies").beginArray().endArray();
+		headers(json, exchange.getRequestHeaders());
+		json.name("queryString").beginArray();
+		String query = URI.create(exchange.getUri()).getRawQuery();
+		if (query != null) {
+			for (String pair : query.split("&")) {
+				json.beginObject()
+						.name("name").value(StringUtils.substringBefore(pair, "="))
+						.name("value").value(pair.contains("=") ? StringUtils.substringAfter(pair, "=") : "")
+						.endObject();
+			}
+		}
+		json.endArray();
+		if (exchange.getRequestBody().length > 0) {
+			json.name("postData").beginObject()
+					.name("mimeType").value(StringUtils.defaultString(exchange.requestHeader("Content-Type")))
+					.name("text").value(new String(exchange.getRequestBody(), StandardCharsets.UTF_8))
+					.endObject();
+		}
+		json.name("headersSize").value(-1);
+		json.name("bodySize").value(exchange.getRequestBody().length);
+		json.endObject();
+
+		json.name("response").beginObject();
+		json.name("status").value(exchange.getStatus());
+		json.name("statusText").value(statusText(exchange.getStatusLine()));
+		json.name("httpVersion").value(StringUtils.defaultIfBlank(StringUtils.substringBefore(exchange.getStatusLine(), " "), "HTTP/1.1"));
+		json.name("cookies").beginArray().endArray();
+		headers(json, exchange.getResponseHeaders());
+		json.name("content").beginObject();
+		json.name("size").value(exchange.getResponseBody().length);
+		json.name("mimeType").value(StringUtils.defaultString(exchange.responseHeader("Content-Type")));
+		if (exchange.getResponseBody().length > 0) {
+			byte[] body = exchange.getResponseBody();
+			if (isUtf8(body)) {
+				json.name("text").value(new String(body, StandardCharsets.UTF_8));
+			} else {
+				json.name("text").value(Base64.getEncoder().encodeToString(body));
+				json.name("encoding").value("base64");
+			}
+		}
+		json.endObject();
+		json.name("redirectURL").value(StringUtils.defaultString(exchange.responseHeader("Location")));
+		json.name("headersSize").value(-1);
+		json.name("bodySize").value(exchange.getResponseBody().length);
+		json.endObject();
+
+		json.name("cache").beginObject().endObject();
+		json.name("timings").beginObject()
+				.name("send").value(0)
+				.name("wait").value(millis)
+				.name("receive").value(0)
+				.endObject();
+		json.endObject();
+	}
+
+	private static void headers(JsonWriter json, List<Header> headers) throws IOException {
+		json.name("headers").beginArray();
+		for (Header header : headers) {
+			json.beginObject()
+					.name("name").value(header.getName())
+					.name("value").value(SensitiveHeaders.redact(header.getName(), header.getValue()))
+					.endObject();
+		}
+		json.endArray();
+	}
+
+	// "HTTP/1.1 404 Not Found" -> "Not Found"
+	private static String statusText(String statusLine) {
+		String[] parts = StringUtils.defaultString(statusLine).split(" ", 3);
+		return parts.length == 3 ? parts[2] : "";
+	}
+
+	private static boolean isUtf8(byte[] bytes) {
+		try {
+			StandardCharsets.UTF_8.newDecoder().decode(ByteBuffer.wrap(bytes));
+			return true;
+		} catch (CharacterCodingException e) {
+			return false;
+		}
+	}
+}
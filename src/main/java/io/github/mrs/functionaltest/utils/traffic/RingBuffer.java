@@ -0,0 +1,76 @@
+package io.github.mrs.functionaltest.utils.traffic;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded queue for many producers and a single consumer, without locks. Each slot carries a sequence number
+ * saying whether it's free for the producer whose turn it is or filled for the consumer, so producers only
+ * contend on claiming a position and never wait: when the buffer is full, {@link #offer} fails straight away.
+ */
+final class RingBuffer<E> {
+
+	private final Object[] items;
+	private final AtomicLongArray sequences;
+	private final int mask;
+	private final AtomicLong tail = new AtomicLong();
+	private long head = 0;  // only touched by the consumer
+
+	/**
+	 * @param capacity slots, rounded up to a power of two
+	 */
+	RingBuffer(int capacity) {
+		int size = capacity <= 2 ? 2 : Integer.highestOneBit(capacity - 1) << 1;
+		this.items = new Object[size];
+		this.sequences = new AtomicLongArray(size);
+		this.mask = size - 1;
+		for (int i = 0; i < size; i++) {
+			sequences.set(i, i);
+		}
+	}
+
+	int capacity() {
+		return items.length;
+	}
+
+	/**
+	 * @return false if the buffer was full and the item was not added
+	 */
+	boolean offer(E item) {
+		long position = tail.get();
+		while (true) {
+			int slot = (int) (position & mask);
+			long available = sequences.get(slot) - position;
+			if (available == 0) {
+				if (tail.compareAndSet(position, position + 1)) {
+					items[slot] = item;
+					sequences.set(slot, position + 1);  // publishes the item to the consumer
+					return true;
+				}
+				position = tail.get();
+			} else if (available < 0) {
+				return false;
+			} else {
+				position = tail.get();
+			}
+		}
+	}
+
+	/**
+	 * Only ever call from the one consumer thread.
+	 *
+	 * @return oldest item, null if empty
+	 */
+	@SuppressWarnings("unchecked")
+	E poll() {
+		int slot = (int) (head & mask);
+		if (sequences.get(slot) != head + 1) {
+			return null;
+		}
+		E item = (E) items[slot];
+		items[slot] = null;
+		sequences.set(slot, head + items.length);  // hands the slot back to producers a lap later
+		head++;
+		return item;
+	}
+}
@@ -0,0 +1,78 @@
+package io.github.mrs.functionaltest.utils.traffic;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import io.restassured.http.Header;
+
+/**
+ * Headers that carry credentials, and how traffic logs and captures hide their values: <tt>Authorization</tt>
+ * keeps its scheme (<tt>Bearer [redacted]</tt>), cookies become <tt>[redacted]</tt>.
+ */
+public final class SensitiveHeaders {
+
+	public static final String REDACTED = "[redacted]";
+
+	private static final Set<String> NAMES = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+
+	static {
+		NAMES.addAll(Arrays.asList("Authorization", "Proxy-Authorization", "Cookie", "Set-Cookie"));
+	}
+
+	private SensitiveHeaders() {
+	}
+
+	/**
+	 * @param name header name, any case
+	 * @return true if the header's value carries credentials
+	 */
+	public static boolean isSensitive(String name) {
+		return NAMES.contains(name);
+	}
+
+	/**
+	 * @param header header as sent or received
+	 * @return true if the header was redacted by {@link #redact(Header)}
+	 */
+	public static boolean isRedacted(Header header) {
+		return isSensitive(header.getName()) && header.getValue().endsWith(REDACTED);
+	}
+
+	/**
+	 * @param name header name
+	 * @param value header value
+	 * @return value to log or store: the value itself unless the header carries credentials
+	 */
+	public static String redact(String name, String value) {
+		if (!isSensitive(name)) {
+			return value;
+		}
+		int space = name.toLowerCase().endsWith("authorization") ? value.indexOf(' ') : -1;
+		return (space > 0 ? value.substring(0, space + 1) : "") + REDACTED;
+	}
+
+	public static Header redact(Header header) {
+		return isSensitive(header.getName()) ? new Header(header.getName(), redact(header.getName(), header.getValue()))
+				: header;
+	}
+
+	/**
+	 * @return the same list if nothing needed redacting, otherwise a redacted copy
+	 */
+	public static List<Header> redact(List<Header> headers) {
+		List<Header> redacted = null;
+		for (int i = 0; i < headers.size(); i++) {
+			Header header = headers.get(i);
+			if (isSensitive(header.getName())) {
+				if (redacted == null) {
+					redacted = new ArrayList<>(headers);
+				}
+				redacted.set(i, redact(header));
+			}
+		}
+		return redacted == null ? headers : redacted;
+	}
+}
@@ -0,0 +1,402 @@
+package io.github.mrs.functionaltest.utils.traffic;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import io.restassured.filter.Filter;
+import io.restassured.filter.FilterContext;
+import io.restassured.http.Header;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Captures every exchange made through {@link #filter()} to a compact binary file, for replaying later as a
+ * workload with <tt>TrafficReplay</tt> or exporting with {@link HarExport}.
+ *
+ * Like {@link TrafficRecorder}, the request thread only hands the exchange to a ring buffer and a background
+ * thread encodes it and appends it through a <tt>FileChannel</tt>. Unlike the recorder nothing is dropped while
+ * the writer keeps up: if it falls behind, requests wait for room in the buffer, for up to 10 seconds each. If
+ * writing fails, e.g. on a full disk, capturing stops and requests carry on uncaptured. The file is append-only,
+ * so captures from several runs can go to the same file. Bodies over 1 MB are cut short.
+ *
+ * Credentials in <tt>Authorization</tt> and cookie headers are redacted as in {@link SensitiveHeaders}, unless
+ * capturing was started with <tt>keepCredentials</tt>. Replay gets fresh tokens from <tt>TokenProvider</tt>, so it
+ * doesn't need them.
+ *
+ * The format is a 4-byte magic and a version, then one length-prefixed record per exchange; strings are UTF-8
+ * with an int length prefix.
+ */
+public class TrafficCapture {
+
+	private static final Logger LOGGER = LogManager.getLogger(TrafficCapture.class);
+
+	private static final int MAGIC = 0x52545243;  // "RTRC"
+	private static final int VERSION = 1;
+	private static final int MAX_BODY_BYTES = 1 << 20;
+	private static final int BUFFER_SIZE = 4096;
+	private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(2);
+	private static final long OFFER_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+	private static final AtomicReference<TrafficCapture> RUNNING = new AtomicReference<>();
+	private static boolean shutdownHookAdded = false;
+
+	private static final Filter FILTER = (requestSpec, responseSpec, ctx) -> {
+		TrafficCapture capture = RUNNING.get();
+		return capture == null ? ctx.next(requestSpec, responseSpec) : capture.capture(requestSpec, responseSpec, ctx);
+	};
+
+	private final Path file;
+	private final Path har;
+	private final boolean keepCredentials;
+	private final RingBuffer<CapturedExchange> buffer;
+	final FileChannel channel;  // package-private so tests can make writes fail
+	private final ByteBuffer out = ByteBuffer.allocateDirect(256 * 1024);
+	private final Thread writer;
+	private final AtomicLong dropped = new AtomicLong();
+	private volatile boolean stopping = false;
+	private volatile boolean failed = false;
+	private long captured = 0;  // only touched by the writer
+
+	private TrafficCapture(Path file, Path har, boolean keepCredentials, int bufferSize) throws IOException {
+		this.file = file;
+		this.har = har;
+		this.keepCredentials = keepCredentials;
+		this.buffer = new RingBuffer<>(bufferSize);
+		Path parent = file.toAbsolutePath().getParent();
+		if (parent != null) {
+			Files.createDirectories(parent);
+		}
+		this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.APPEND);
+		if (channel.size() == 0) {
+			out.putInt(MAGIC).putInt(VERSION);
+		}
+		this.writer = new Thread(this::drain, "traffic-capture");
+		this.writer.setDaemon(true);
+	}
+
+	/**
+	 * Start capturing, replacing any capture already running.
+	 *
+	 * @param file binary capture file, appended to if it exists
+	 * @param har HAR file to export the whole capture file to when capturing stops, null for none
+	 * @throws IOException if the file can't be opened
+	 */
+	public static void start(Path file, Path har) throws IOException {
+		start(file, har, false);
+	}
+
+	/**
+	 * Start capturing, replacing any capture already running.
+	 *
+	 * @param file binary capture file, appended to if it exists
+	 * @param har HAR file to export the whole capture file to when capturing stops, null for none; always redacted
+	 * @param keepCredentials store <tt>Authorization</tt> and cookie values as sent instead of redacting them
+	 * @throws IOException if the file can't be opened
+	 */
+	public static void start(Path file, Path har, boolean keepCredentials) throws IOException {
+		start(file, har, keepCredentials, BUFFER_SIZE);
+	}
+
+	static synchronized void start(Path file, Path har, boolean keepCredentials, int bufferSize) throws IOException {
+		stop();
+		TrafficCapture capture = new TrafficCapture(file, har, keepCredentials, bufferSize);
+		capture.writer.start();
+		RUNNING.set(capture);
+		if (!shutdownHookAdded) {
+			shutdownHookAdded = true;
+			Runtime.getRuntime().addShutdownHook(new Thread(TrafficCapture::stop, "traffic-capture-shutdown"));
+		}
+		LOGGER.info("Capturing traffic to {}", file.toAbsolutePath());
+	}
+
+	/**
+	 * Stop capturing and wait for every captured exchange to be written, then export HAR if asked to.
+	 */
+	public static synchronized void stop() {
+		TrafficCapture capture = RUNNING.getAndSet(null);
+		if (capture == null) {
+			return;
+		}
+		capture.stopping = true;
+		LockSupport.unpark(capture.writer);
+		try {
+			capture.writer.join(TimeUnit.SECONDS.toMillis(30));
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		LOGGER.info("Captured {} exchanges to {}{}", capture.captured, capture.file.toAbsolutePath(),
+				capture.dropped.get() == 0 ? "" : ", dropped " + capture.dropped.get());
+		if (capture.har != null) {
+			try (Stream<CapturedExchange> exchanges = read(capture.file)) {
+				HarExport.write(exchanges, capture.har);
+				LOGGER.info("Exported captured traffic to {}", capture.har.toAbsolutePath());
+			} catch (IOException | UncheckedIOException e) {
+				LOGGER.warn("Failed to export captured traffic as HAR: {}", e.getMessage());
+			}
+		}
+	}
+
+	// null when not capturing, or after the writer failed
+	static TrafficCapture current() {
+		return RUNNING.get();
+	}
+
+	/**
+	 * @return RestAssured filter that captures each exchange while capturing is on
+	 */
+	public static Filter filter() {
+		return FILTER;
+	}
+
+	/**
+	 * @param file capture file
+	 * @return exchanges in the order they were captured, read lazily; close the stream when done
+	 * @throws IOException if the file can't be opened or isn't a capture file
+	 */
+	public static Stream<CapturedExchange> read(Path file) throws IOException {
+		FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+		DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel), 64 * 1024));
+		try {
+			if (in.readInt() != MAGIC) {
+				throw new IOException(file + " is not a traffic capture");
+			}
+			int version = in.readInt();
+			if (version != VERSION) {
+				throw new IOException(file + " is capture format version " + version + ", expected " + VERSION);
+			}
+		} catch (IOException e) {
+			in.close();
+			throw e;
+		}
+		Spliterator<CapturedExchange> records = new Spliterators.AbstractSpliterator<CapturedExchange>(
+				Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+			@Override
+			public boolean tryAdvance(Consumer<? super CapturedExchange> action) {
+				try {
+					int length;
+					try {
+						length = in.readInt();
+					} catch (EOFException e) {
+						return false;
+					}
+					byte[] record = new byte[length];
+					in.readFully(record);
+					action.accept(decode(record));
+					return true;
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			}
+		};
+		return StreamSupport.stream(records, false).onClose(() -> {
+			try {
+				in.close();
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		});
+	}
+
+	private Response capture(FilterableRequestSpecification requestSpec, FilterableResponseSpecification responseSpec,
+			FilterContext ctx) {
+		Instant started = Instant.now();
+		long start = System.nanoTime();
+		Response response = ctx.next(requestSpec, responseSpec);
+		long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start);
+		List<Header> requestHeaders = new ArrayList<>(requestSpec.getHeaders().asList());
+		List<Header> responseHeaders = response.headers().asList();
+		CapturedExchange exchange = new CapturedExchange(
+				ChronoUnit.MICROS.between(Instant.EPOCH, started), micros,
+				requestSpec.getMethod(), requestSpec.getURI(),
+				keepCredentials ? requestHeaders : SensitiveHeaders.redact(requestHeaders), requestBody(requestSpec),
+				response.statusCode(), response.statusLine(),
+				keepCredentials ? responseHeaders : SensitiveHeaders.redact(responseHeaders),
+				truncate(response.asByteArray()));
+		long deadline = System.nanoTime() + OFFER_TIMEOUT_NANOS;
+		while (!failed && !buffer.offer(exchange)) {
+			// wait for the writer to make room, but never hang the request on a writer that is stuck
+			if (System.nanoTime() - deadline > 0) {
+				if (dropped.getAndIncrement() == 0) {
+					LOGGER.warn("Traffic capture writer is not keeping up, dropping exchanges that can't be buffered");
+				}
+				break;
+			}
+			LockSupport.parkNanos(IDLE_PARK_NANOS);
+		}
+		return response;
+	}
+
+	private void drain() {
+		try {
+			while (true) {
+				CapturedExchange exchange = buffer.poll();
+				if (exchange != null) {
+					append(encode(exchange));
+					continue;
+				}
+				flush();
+				if (stopping) {
+					exchange = buffer.poll();
+					if (exchange == null) {
+						break;
+					}
+					append(encode(exchange));
+					continue;
+				}
+				LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+			}
+		} catch (IOException e) {
+			// stop taking exchanges first, so no request waits on a buffer nothing drains
+			failed = true;
+			RUNNING.compareAndSet(this, null);
+			LOGGER.warn("Failed to write traffic capture, no more traffic will be captured: {}", e.toString());
+		} finally {
+			try {
+				channel.close();
+			} catch (IOException e) {
+				// already reported or nothing to flush
+			}
+		}
+	}
+
+	private void append(byte[] record) throws IOException {
+		if (out.remaining() < record.length + 4) {
+			flush();
+		}
+		if (out.remaining() < record.length + 4) {
+			// bigger than the whole buffer, write it straight through
+			ByteBuffer large = ByteBuffer.allocate(record.length + 4).putInt(record.length).put(record);
+			large.flip();
+			while (large.hasRemaining()) {
+				channel.write(large);
+			}
+		} else {
+			out.putInt(record.length).put(record);
+		}
+		captured++;
+	}
+
+	private void flush() throws IOException {
+		out.flip();
+		while (out.hasRemaining()) {
+			channel.write(out);
+		}
+		out.clear();
+	}
+
+	private static byte[] requestBody(FilterableRequestSpecification requestSpec) {
+		Object body = requestSpec.getBody();
+		if (body == null) {
+			return new byte[0];
+		}
+		if (body instanceof byte[]) {
+			return truncate((byte[]) body);
+		}
+		return truncate(String.valueOf(body).getBytes(charset(requestSpec.getContentType())));
+	}
+
+	private static Charset charset(String contentType) {
+		String name = StringUtils.substringAfter(StringUtils.defaultString(contentType).toLowerCase(), "charset=");
+		try {
+			return name.isEmpty() ? StandardCharsets.UTF_8 : Charset.forName(name.split(";")[0].trim());
+		} catch (IllegalArgumentException e) {
+			return StandardCharsets.UTF_8;
+		}
+	}
+
+	private static byte[] truncate(byte[] body) {
+		return body.length > MAX_BODY_BYTES ? Arrays.copyOf(body, MAX_BODY_BYTES) : body;
+	}
+
+	static byte[] encode(CapturedExchange exchange) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(256 + exchange.getRequestBody().length
+				+ exchange.getResponseBody().length);
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeLong(exchange.getStartedAtMicros());
+		out.writeLong(exchange.getDurationMicros());
+		writeString(out, exchange.getMethod());
+		writeString(out, exchange.getUri());
+		writeHeaders(out, exchange.getRequestHeaders());
+		writeBytes(out, exchange.getRequestBody());
+		out.writeInt(exchange.getStatus());
+		writeString(out, exchange.getStatusLine());
+		writeHeaders(out, exchange.getResponseHeaders());
+		writeBytes(out, exchange.getResponseBody());
+		return bytes.toByteArray();
+	}
+
+	static CapturedExchange decode(byte[] record) throws IOException {
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(record));
+		return new CapturedExchange(in.readLong(), in.readLong(), readString(in), readString(in), readHeaders(in),
+				readBytes(in), in.readInt(), readString(in), readHeaders(in), readBytes(in));
+	}
+
+	private static void writeHeaders(DataOutputStream out, List<Header> headers) throws IOException {
+		out.writeInt(headers.size());
+		for (Header header : headers) {
+			writeString(out, header.getName());
+			writeString(out, header.getValue());
+		}
+	}
+
+	private static List<Header> readHeaders(DataInputStream in) throws IOException {
+		int count = in.readInt();
+		List<Header> headers = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			headers.add(new Header(readString(in), readString(in)));
+		}
+		return headers;
+	}
+
+	private static void writeString(DataOutputStream out, String value) throws IOException {
+		writeBytes(out, StringUtils.defaultString(value).getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static String readString(DataInputStream in) throws IOException {
+		return new String(readBytes(in), StandardCharsets.UTF_8);
+	}
+
+	private static void writeBytes(DataOutputStream out, byte[] value) throws IOException {
+		out.writeInt(value.length);
+		out.write(value);
+	}
+
+	private static byte[] readBytes(DataInputStream in) throws IOException {
+		byte[] value = new byte[in.readInt()];
+		in.readFully(value);
+		return value;
+	}
+}
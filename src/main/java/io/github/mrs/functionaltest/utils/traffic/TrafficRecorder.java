@@ -0,0 +1,385 @@
+package io.github.mrs.functionaltest.utils.traffic;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import io.restassured.filter.Filter;
+import io.restassured.filter.FilterContext;
+import io.restassured.http.Header;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+import lombok.Getter;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Request/response log for debug runs that doesn't slow the requests down. The filter only copies what it needs
+ * into a lock-free ring buffer; a background thread formats the exchanges and writes them to the traffic log,
+ * rotating it when it grows too large.
+ *
+ * Bodies are cut short after <tt>traffic.maxBodyBytes</tt>, and under heavy load only a
+ * <tt>traffic.sampleRate</tt> share of exchanges can be kept, though failed (4xx/5xx) ones always are. If the
+ * writer falls behind and the buffer fills, exchanges are dropped and counted rather than holding up the tests.
+ * Credentials in <tt>Authorization</tt> and cookie headers are redacted, see {@link SensitiveHeaders}.
+ */
+public class TrafficRecorder {
+
+	private static final Logger LOGGER = LogManager.getLogger(TrafficRecorder.class);
+
+	private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(2);
+
+	private static volatile TrafficRecorder running;
+	private static boolean shutdownHookAdded = false;
+
+	private static final Filter FILTER = (requestSpec, responseSpec, ctx) -> {
+		TrafficRecorder recorder = running;
+		return recorder == null ? ctx.next(requestSpec, responseSpec) : recorder.record(requestSpec, responseSpec, ctx);
+	};
+
+	private final Settings settings;
+	private final RingBuffer<Exchange> buffer;
+	private final Thread writer;
+	private volatile boolean stopping = false;
+
+	private final LongAdder written = new LongAdder();
+	private final LongAdder dropped = new LongAdder();
+	private final LongAdder skipped = new LongAdder();
+
+	private OutputStream out;
+	private long fileBytes;
+
+	private TrafficRecorder(Settings settings) throws IOException {
+		this.settings = settings;
+		this.buffer = new RingBuffer<>(settings.bufferSize);
+		Path parent = settings.file.toAbsolutePath().getParent();
+		if (parent != null) {
+			Files.createDirectories(parent);
+		}
+		this.out = open();
+		this.writer = new Thread(this::drain, "traffic-writer");
+		this.writer.setDaemon(true);
+	}
+
+	/**
+	 * Start recording every request that goes through {@link #filter()}, replacing any recorder already running.
+	 *
+	 * @param settings where and how much to record
+	 * @return the new recorder
+	 * @throws IOException if the log file can't be created
+	 */
+	public static synchronized TrafficRecorder start(Settings settings) throws IOException {
+		stop();
+		TrafficRecorder recorder = new TrafficRecorder(settings);
+		recorder.writer.start();
+		running = recorder;
+		if (!shutdownHookAdded) {
+			shutdownHookAdded = true;
+			Runtime.getRuntime().addShutdownHook(new Thread(TrafficRecorder::stop, "traffic-writer-shutdown"));
+		}
+		LOGGER.info("Recording traffic to {}", settings.file.toAbsolutePath());
+		return recorder;
+	}
+
+	/**
+	 * Stop recording, and wait for everything already recorded to be written.
+	 */
+	public static synchronized void stop() {
+		TrafficRecorder recorder = running;
+		if (recorder == null) {
+			return;
+		}
+		running = null;
+		recorder.stopping = true;
+		LockSupport.unpark(recorder.writer);
+		try {
+			recorder.writer.join(TimeUnit.SECONDS.toMillis(10));
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		LOGGER.info("Traffic log: {} exchanges written, {} dropped with the buffer full, {} not sampled",
+				recorder.getWritten(), recorder.getDropped(), recorder.getSkipped());
+	}
+
+	/**
+	 * @return recorder in use, null if none
+	 */
+	public static TrafficRecorder running() {
+		return running;
+	}
+
+	/**
+	 * @return RestAssured filter that records each exchange while a recorder is running
+	 */
+	public static Filter filter() {
+		return FILTER;
+	}
+
+	public long getWritten() {
+		return written.sum();
+	}
+
+	public long getDropped() {
+		return dropped.sum();
+	}
+
+	public long getSkipped() {
+		return skipped.sum();
+	}
+
+	private Response record(FilterableRequestSpecification requestSpec, FilterableResponseSpecification responseSpec,
+			FilterContext ctx) {
+		boolean sampled = settings.sampleRate >= 1 || ThreadLocalRandom.current().nextDouble() < settings.sampleRate;
+		long timestamp = System.currentTimeMillis();
+		long start = System.nanoTime();
+		Response response;
+		try {
+			response = ctx.next(requestSpec, responseSpec);
+		} catch (RuntimeException e) {
+			enqueue(new Exchange(timestamp, requestSpec, settings.maxBodyBytes, null, System.nanoTime() - start, e));
+			throw e;
+		}
+		if (sampled || response.statusCode() >= 400) {
+			enqueue(new Exchange(timestamp, requestSpec, settings.maxBodyBytes, response, System.nanoTime() - start, null));
+		} else {
+			skipped.increment();
+		}
+		return response;
+	}
+
+	private void enqueue(Exchange exchange) {
+		if (!buffer.offer(exchange)) {
+			dropped.increment();
+		}
+	}
+
+	private void drain() {
+		try {
+			while (true) {
+				Exchange exchange = buffer.poll();
+				if (exchange != null) {
+					write(exchange);
+					continue;
+				}
+				out.flush();
+				if (stopping) {
+					// producers may have finished an offer after our last poll
+					exchange = buffer.poll();
+					if (exchange == null) {
+						break;
+					}
+					write(exchange);
+					continue;
+				}
+				LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+			}
+		} catch (IOException e) {
+			LOGGER.warn("Failed to write traffic log, no more traffic will be recorded: {}", e.getMessage());
+		} finally {
+			try {
+				out.close();
+			} catch (IOException e) {
+				// already reported or nothing to flush
+			}
+		}
+	}
+
+	private void write(Exchange exchange) throws IOException {
+		byte[] bytes = exchange.format().getBytes(StandardCharsets.UTF_8);
+		if (fileBytes > 0 && fileBytes + bytes.length > settings.maxFileBytes) {
+			rotate();
+		}
+		out.write(bytes);
+		fileBytes += bytes.length;
+		written.increment();
+	}
+
+	// traffic.log -> traffic.log.1 -> traffic.log.2 ..., keeping maxFiles files including the current one
+	private void rotate() throws IOException {
+		out.close();
+		Path file = settings.file;
+		if (settings.maxFiles > 1) {
+			Files.deleteIfExists(rotated(file, settings.maxFiles - 1));
+			for (int i = settings.maxFiles - 2; i >= 1; i--) {
+				if (Files.exists(rotated(file, i))) {
+					Files.move(rotated(file, i), rotated(file, i + 1), StandardCopyOption.REPLACE_EXISTING);
+				}
+			}
+			Files.move(file, rotated(file, 1), StandardCopyOption.REPLACE_EXISTING);
+		}
+		out = open();
+	}
+
+	private OutputStream open() throws IOException {
+		fileBytes = 0;
+		return new BufferedOutputStream(Files.newOutputStream(settings.file, StandardOpenOption.CREATE,
+				StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING), 64 * 1024);
+	}
+
+	private static Path rotated(Path file, int index) {
+		return file.resolveSibling(file.getFileName() + "." + index);
+	}
+
+	/**
+	 * What to record and where, read from the environment properties.
+	 */
+	@Getter
+	public static class Settings {
+		private final Path file;
+		private final int bufferSize;
+		private final double sampleRate;
+		private final int maxBodyBytes;
+		private final long maxFileBytes;
+		private final int maxFiles;
+
+		private Settings(Path file, int bufferSize, double sampleRate, int maxBodyBytes, long maxFileBytes, int maxFiles) {
+			this.file = file;
+			this.bufferSize = bufferSize;
+			this.sampleRate = sampleRate;
+			this.maxBodyBytes = maxBodyBytes;
+			this.maxFileBytes = maxFileBytes;
+			this.maxFiles = maxFiles;
+		}
+
+		/**
+		 * @param props properties with optional <tt>traffic.file</tt> (default <tt>test-output/traffic.log</tt>),
+		 *     <tt>traffic.bufferSize</tt> (8192 exchanges), <tt>traffic.sampleRate</tt> (1.0),
+		 *     <tt>traffic.maxBodyBytes</tt> (4096), <tt>traffic.maxFileBytes</tt> (50 MB) and
+		 *     <tt>traffic.maxFiles</tt> (5)
+		 * @return parsed settings
+		 */
+		public static Settings fromProperties(Properties props) {
+			return new Settings(
+					Paths.get(props.getProperty("traffic.file", "test-output/traffic.log")),
+					Integer.parseInt(props.getProperty("traffic.bufferSize", "8192")),
+					Double.parseDouble(props.getProperty("traffic.sampleRate", "1.0")),
+					Integer.parseInt(props.getProperty("traffic.maxBodyBytes", "4096")),
+					Long.parseLong(props.getProperty("traffic.maxFileBytes", String.valueOf(50L * 1024 * 1024))),
+					Integer.parseInt(props.getProperty("traffic.maxFiles", "5")));
+		}
+	}
+
+	// everything needed to log an exchange, copied on the request thread and formatted on the writer
+	private static final class Exchange {
+		private final long timestamp;
+		private final String thread;
+		private final String method;
+		private final String uri;
+		private final List<Header> requestHeaders;
+		private final Map<String, ?> formParams;
+		private final Body requestBody;
+		private final String statusLine;
+		private final int status;
+		private final List<Header> responseHeaders;
+		private final Body responseBody;
+		private final long elapsedNanos;
+		private final Throwable failure;
+
+		Exchange(long timestamp, FilterableRequestSpecification request, int maxBodyBytes, Response response,
+				long elapsedNanos, Throwable failure) {
+			this.timestamp = timestamp;
+			this.thread = Thread.currentThread().getName();
+			this.method = request.getMethod();
+			this.uri = request.getURI();
+			this.requestHeaders = new ArrayList<>(request.getHeaders().asList());
+			this.formParams = request.getFormParams().isEmpty() ? null : new LinkedHashMap<>(request.getFormParams());
+			this.requestBody = Body.of(request.getBody(), maxBodyBytes);
+			this.statusLine = response == null ? null : response.statusLine();
+			this.status = response == null ? 0 : response.statusCode();
+			this.responseHeaders = response == null ? null : response.headers().asList();
+			this.responseBody = response == null ? null : Body.of(response.asByteArray(), maxBodyBytes);
+			this.elapsedNanos = elapsedNanos;
+			this.failure = failure;
+		}
+
+		String format() {
+			StringBuilder text = new StringBuilder(512)
+					.append("--- ").append(Instant.ofEpochMilli(timestamp))
+					.append(" [").append(thread).append("] ")
+					.append(method).append(' ').append(uri).append(" -> ")
+					.append(failure != null ? failure.toString() : String.valueOf(status))
+					.append(String.format(" (%.1f ms)%n", elapsedNanos / 1_000_000.0));
+			appendHeaders(text, "> ", requestHeaders);
+			if (formParams != null) {
+				text.append("> form: ").append(formParams).append(System.lineSeparator());
+			}
+			if (requestBody != null) {
+				requestBody.append(text.append('>').append(System.lineSeparator()), "> ");
+			}
+			if (statusLine != null) {
+				text.append("< ").append(statusLine).append(System.lineSeparator());
+				appendHeaders(text, "< ", responseHeaders);
+				if (responseBody != null) {
+					responseBody.append(text.append('<').append(System.lineSeparator()), "< ");
+				}
+			}
+			return text.append(System.lineSeparator()).toString();
+		}
+
+		private static void appendHeaders(StringBuilder text, String prefix, List<Header> headers) {
+			for (Header header : headers) {
+				text.append(prefix).append(header.getName()).append(": ")
+						.append(SensitiveHeaders.redact(header.getName(), header.getValue()))
+						.append(System.lineSeparator());
+			}
+		}
+	}
+
+	private static final class Body {
+		private final String text;
+		private final int length;
+		private final boolean truncated;
+
+		private Body(String text, int length, boolean truncated) {
+			this.text = text;
+			this.length = length;
+			this.truncated = truncated;
+		}
+
+		// null for no body
+		static Body of(Object body, int maxBytes) {
+			if (body == null) {
+				return null;
+			}
+			if (body instanceof byte[]) {
+				byte[] bytes = (byte[]) body;
+				if (bytes.length == 0) {
+					return null;
+				}
+				int kept = Math.min(bytes.length, maxBytes);
+				return new Body(new String(bytes, 0, kept, StandardCharsets.UTF_8), bytes.length, kept < bytes.length);
+			}
+			String text = String.valueOf(body);
+			if (text.isEmpty()) {
+				return null;
+			}
+			return text.length() > maxBytes ? new Body(text.substring(0, maxBytes), text.length(), true)
+					: new Body(text, text.length(), false);
+		}
+
+		void append(StringBuilder out, String prefix) {
+			out.append(prefix).append(text.replace("\n", System.lineSeparator() + prefix));
+			if (truncated) {
+				out.append("... [").append(length).append(" total]");
+			}
+			out.append(System.lineSeparator());
+		}
+	}
+}
@@ -0,0 +1,70 @@
+package io.github.mrs.functionaltest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class CleanupTest {
+
+	private final List<String> events = new CopyOnWriteArrayList<>();
+
+	@BeforeMethod
+	public void clearEvents() {
+		events.clear();
+	}
+
+	@Test
+	public void runsIndependentCleanupsTogetherAndDependentOnesAfter() {
+		Recording users = new Recording("users", Collections.emptyList());
+		Recording groups = new Recording("groups", Collections.emptyList());
+		Recording accounts = new Recording("accounts", Arrays.asList(Recording.class));
+
+		Cleanup.run(Arrays.asList(accounts, users, groups));
+
+		// users and groups overlap, accounts waits for both
+		assertThat(events.indexOf("start users")).isLessThan(events.indexOf("end groups"));
+		assertThat(events.indexOf("start groups")).isLessThan(events.indexOf("end users"));
+		assertThat(events.indexOf("start accounts"))
+				.isGreaterThan(events.indexOf("end users"))
+				.isGreaterThan(events.indexOf("end groups"));
+	}
+
+	@Test
+	public void fallsBackToRegistrationOrderOnCycle() {
+		Recording first = new Recording("first", Arrays.asList(Recording.class));
+		Recording second = new Recording("second", Arrays.asList(Recording.class));
+
+		Cleanup.run(Arrays.asList(first, second));
+
+		assertThat(events).containsExactly("start first", "end first", "start second", "end second");
+	}
+
+	private class Recording extends ServiceCleanup {
+		private final String name;
+		private final Collection<Class<? extends ServiceCleanup>> runsAfter;
+
+		Recording(String name, Collection<Class<? extends ServiceCleanup>> runsAfter) {
+			this.name = name;
+			this.runsAfter = runsAfter;
+		}
+
+		@Override
+		public Collection<Class<? extends ServiceCleanup>> runsAfter() {
+			return runsAfter;
+		}
+
+		@Override
+		public void run() throws Exception {
+			events.add("start " + name);
+			Thread.sleep(200);
+			events.add("end " + name);
+		}
+	}
+}
@@ -0,0 +1,64 @@
+package io.github.mrs.functionaltest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.testng.annotations.Test;
+
+public class FakeDataTest {
+
+	@Test
+	public void seededBulkStreamsAreReproducibleInParallel() {
+		List<String> sequential = new FakeData(42).emails(500).collect(Collectors.toList());
+		List<String> parallel = new FakeData(42).emails(500).parallel().collect(Collectors.toList());
+		List<String> otherSeed = new FakeData(43).emails(500).collect(Collectors.toList());
+
+		assertThat(parallel).isEqualTo(sequential);
+		assertThat(otherSeed).isNotEqualTo(sequential);
+		assertThat(sequential).allMatch(email -> email.contains("@"));
+	}
+
+	@Test
+	public void seededValuesAreReproducibleOnTheSameThread() {
+		FakeData first = new FakeData(7);
+		FakeData second = new FakeData(7);
+		for (int i = 0; i < 20; i++) {
+			assertThat(first.coffee()).isEqualTo(second.coffee());
+			assertThat(first.uuid()).isEqualTo(second.uuid());
+			assertThat(first.numbers(8)).isEqualTo(second.numbers(8));
+		}
+		assertThat(first.uuid()).matches("[0-9a-f]{8}-[0-9a-f]{4}-4[0-9a-f]{3}-[89ab][0-9a-f]{3}-[0-9a-f]{12}");
+	}
+
+	@Test
+	public void bulkStreamsLeaveTheThreadSequenceAlone() {
+		FakeData streamed = new FakeData(7);
+		FakeData plain = new FakeData(7);
+		assertThat(streamed.firstName()).isEqualTo(plain.firstName());
+
+		assertThat(streamed.emails(20).collect(Collectors.toList())).hasSize(20);
+		for (int i = 0; i < 20; i++) {
+			assertThat(streamed.firstName()).isEqualTo(plain.firstName());
+			assertThat(streamed.email()).isEqualTo(plain.email());
+		}
+	}
+
+	@Test
+	public void tableBackedFakesComeFromFakerValues() {
+		FakeData fake = new FakeData();
+		for (int i = 0; i < 50; i++) {
+			assertThat(fake.verb()).isNotBlank().doesNotContain("#{");
+			assertThat(fake.vegetable()).isNotBlank();
+			assertThat(fake.number(3, 5)).isBetween(3, 5);
+		}
+	}
+
+	@Test
+	public void padToOnlyPadsShortStrings() {
+		FakeData fake = new FakeData();
+		assertThat(fake.padTo("ab", 5)).isEqualTo("ab***");
+		assertThat(fake.padTo("abcdef", 5)).isEqualTo("abcdef");
+	}
+}
@@ -0,0 +1,124 @@
+package io.github.mrs.functionaltest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang3.builder.EqualsBuilder;
+import org.apache.commons.lang3.builder.EqualsExclude;
+import org.apache.commons.lang3.builder.HashCodeBuilder;
+import org.apache.commons.lang3.builder.HashCodeExclude;
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.apache.commons.lang3.builder.ToStringExclude;
+import org.testng.annotations.Test;
+
+public class FieldPlanTest {
+
+	static class Base extends Serializer {
+		static int counter = 5;
+		String name;
+		long version;
+		transient String cached = "ignored";
+
+		@Override
+		public String[] getDeletionIdentifiers() {
+			return new String[0];
+		}
+	}
+
+	static class Record extends Base {
+		int id;
+		boolean active;
+		double score;
+		List<String> tags;
+		List<List<Integer>> nested;
+		Map<String, String> support;
+		int[] counts;
+		boolean[] flags;
+		long[] stamps;
+		double[] weights;
+		char[] code;
+		String[][] grid;
+		Base child;
+		@EqualsExclude
+		String notCompared;
+		@HashCodeExclude
+		String notHashed;
+		@ToStringExclude
+		String notPrinted;
+	}
+
+	class Inner extends Serializer {
+		String value = "inner";
+
+		@Override
+		public String[] getDeletionIdentifiers() {
+			return new String[0];
+		}
+	}
+
+	static class Empty extends Serializer {
+		@Override
+		public String[] getDeletionIdentifiers() {
+			return new String[0];
+		}
+	}
+
+	private static Record record(int seed) {
+		Record r = new Record();
+		r.name = seed % 3 == 0 ? null : "name" + seed;
+		r.version = seed * 100_000_000_000L;
+		r.id = seed;
+		r.active = seed % 2 == 0;
+		r.score = seed / 3.0;
+		r.tags = seed % 4 == 0 ? null : Arrays.asList("a" + seed, "b");
+		r.nested = seed % 2 == 0 ? Collections.emptyList() : Arrays.asList(Arrays.asList(seed, null), Collections.emptyList());
+		r.support = Collections.singletonMap("url", "https://example.com/" + seed);
+		r.counts = new int[] { seed, -seed };
+		r.flags = new boolean[] { true, seed % 2 == 0 };
+		r.stamps = new long[] { Long.MAX_VALUE - seed };
+		r.weights = new double[] { 0.5, seed };
+		r.code = new char[] { 'x', (char) ('a' + seed % 26) };
+		r.grid = new String[][] { { "r" + seed, null }, {} };
+		r.child = new Base();
+		r.child.name = "child" + seed;
+		r.notCompared = "c" + seed;
+		r.notHashed = "h" + seed;
+		r.notPrinted = "p" + seed;
+		return r;
+	}
+
+	private static void assertMatchesCommonsLang(Object lhs, Object rhs) {
+		assertThat(lhs.equals(rhs)).as("equals %s %s", lhs, rhs).isEqualTo(EqualsBuilder.reflectionEquals(lhs, rhs));
+		assertThat(lhs.hashCode()).isEqualTo(HashCodeBuilder.reflectionHashCode(lhs));
+		assertThat(lhs.toString()).isEqualTo(ToStringBuilder.reflectionToString(lhs));
+	}
+
+	@Test
+	public void matchesCommonsLangReflection() {
+		for (int i = 0; i < 12; i++) {
+			Record record = record(i);
+			assertMatchesCommonsLang(record, record(i));
+			assertMatchesCommonsLang(record, record(i + 1));
+			assertMatchesCommonsLang(record, record.child);
+			assertMatchesCommonsLang(record.child, record);
+			assertMatchesCommonsLang(record, null);
+		}
+		assertMatchesCommonsLang(new Inner(), new Inner());
+		assertMatchesCommonsLang(new Empty(), new Empty());
+		assertMatchesCommonsLang(new Empty(), new Base());
+	}
+
+	@Test
+	public void excludedFieldsAreIgnored() {
+		Record lhs = record(1);
+		Record rhs = record(1);
+		rhs.notCompared = "different";
+		rhs.cached = "different";
+		assertThat(lhs).isEqualTo(rhs);
+		assertThat(lhs.toString()).doesNotContain("notPrinted").doesNotContain("cached").contains("notHashed=h1");
+	}
+}
@@ -5,6 +5,8 @@ import io.restassured.response.ValidatableResponse;
 import org.testng.internal.collections.Pair;
 
 import io.github.mrs.functionaltest.utils.HttpCaller;
+import io.github.mrs.functionaltest.utils.stub.StubResponse;
+import io.github.mrs.functionaltest.utils.stub.StubServer;
 
 public class SampleService extends ServiceArea<SampleSerializer> {
 
@@ -17,6 +19,15 @@ public class SampleService extends ServiceArea<SampleSerializer> {
 		return Pair.of(ss, response);
 	}
 
+	@Override
+	public void stubRoutes(StubServer stub) {
+		// same shape as the live reqres.in page
+		stub.get(CONTEXT_PATH).respond(StubResponse.json(200, "{\"page\":2,\"per_page\":2,\"total\":4,\"total_pages\":2,"
+				+ "\"data\":[{\"id\":3,\"email\":\"emma.wong@reqres.in\",\"first_name\":\"Emma\",\"last_name\":\"Wong\"},"
+				+ "{\"id\":4,\"email\":\"eve.holt@reqres.in\",\"first_name\":\"Eve\",\"last_name\":\"Holt\"}],"
+				+ "\"support\":{\"url\":\"https://reqres.in/#support-heading\"}}"));
+	}
+
 	@Override
 	public ValidatableResponse remove(Pair<HttpCaller, SampleSerializer> item) throws Exception {
 		throw new UnsupportedOperationException("Deletion not supported: "+ this.getClass().getName());
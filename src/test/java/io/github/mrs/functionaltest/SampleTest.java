@@ -4,6 +4,8 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.testng.AssertJUnit.assertEquals;
 
 import io.restassured.response.ValidatableResponse;
+import java.util.Collections;
+import java.util.List;
 import java.util.Properties;
 
 import org.testng.internal.collections.Pair;
@@ -27,6 +29,11 @@ public class SampleTest extends FunctionalTest {
 		assertEquals("bar", properties.get("foo"));
 	}
 
+	@Override
+	protected List<ServiceArea<?>> stubbedServices() {
+		return Collections.singletonList(new SampleService());
+	}
+
 	@Override
 	protected String getExtraPropertyFileName(String redwoodEnv) {
 		return "test.properties";
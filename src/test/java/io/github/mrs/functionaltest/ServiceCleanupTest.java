@@ -0,0 +1,71 @@
+package io.github.mrs.functionaltest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import io.github.mrs.functionaltest.utils.HttpCaller;
+import io.restassured.response.ValidatableResponse;
+import org.testng.annotations.Test;
+import org.testng.internal.collections.Pair;
+
+public class ServiceCleanupTest {
+
+	@Test
+	public void removesInChunksAndRetriesLeftoversOneAtATime() throws Exception {
+		ItemService service = new ItemService();
+		HttpCaller caller = new HttpCaller();
+		List<Pair<HttpCaller, Item>> items = new ArrayList<>();
+		for (int i = 1; i <= 7; i++) {
+			items.add(Pair.of(caller, new Item(String.valueOf(i))));
+		}
+
+		new ServiceCleanup() {
+			@Override
+			public void run() {
+			}
+		}.removeAll(items, 204, service);
+
+		assertThat(service.chunkSizes).containsExactlyInAnyOrder(3, 3, 1);
+		// the bulk endpoint refuses item 5, so only that one falls back to a single delete
+		assertThat(service.singleRemovals).containsExactly("5");
+	}
+
+	private static class Item extends Serializer {
+		private final String id;
+
+		Item(String id) {
+			this.id = id;
+		}
+
+		@Override
+		public String[] getDeletionIdentifiers() {
+			return new String[] { id };
+		}
+	}
+
+	private static class ItemService extends ServiceArea<Item> {
+		private final List<Integer> chunkSizes = Collections.synchronizedList(new ArrayList<>());
+		private final List<String> singleRemovals = Collections.synchronizedList(new ArrayList<>());
+
+		@Override
+		public int bulkRemoveSize() {
+			return 3;
+		}
+
+		@Override
+		public List<Item> removeBulk(HttpCaller caller, List<Item> items) {
+			chunkSizes.add(items.size());
+			return items.stream().filter(item -> item.id.equals("5")).collect(Collectors.toList());
+		}
+
+		@Override
+		public ValidatableResponse remove(Pair<HttpCaller, Item> item) {
+			singleRemovals.add(item.second().id);
+			throw new IllegalStateException("no live service in this test");
+		}
+	}
+}
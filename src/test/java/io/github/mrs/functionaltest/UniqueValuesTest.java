@@ -0,0 +1,79 @@
+package io.github.mrs.functionaltest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.testng.annotations.Test;
+
+public class UniqueValuesTest {
+
+	@Test
+	public void tokensNeverRepeatAcrossThreads() throws Exception {
+		int threads = 16;
+		int perThread = 20_000;
+		Set<String> seen = ConcurrentHashMap.newKeySet();
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<?>> futures = IntStream.range(0, threads)
+					.mapToObj(t -> pool.submit(() -> {
+						for (int i = 0; i < perThread; i++) {
+							seen.add(UniqueValues.token());
+						}
+					}))
+					.collect(Collectors.toList());
+			for (Future<?> future : futures) {
+				future.get(30, TimeUnit.SECONDS);
+			}
+		} finally {
+			pool.shutdownNow();
+		}
+		assertThat(seen).hasSize(threads * perThread);
+	}
+
+	@Test
+	public void valuesCarryTheRunId() {
+		assertThat(UniqueValues.token()).startsWith(UniqueValues.runId().length() + UniqueValues.runId())
+				.matches("[a-z0-9]+");
+		assertThat(UniqueValues.uuid().version()).isEqualTo(4);
+		assertThat(UniqueValues.uuid()).isNotEqualTo(UniqueValues.uuid());
+	}
+
+	@Test
+	public void runIdsSharingAPrefixNeverShareTokens() {
+		assertThat(UniqueValues.token("shard1", 105)).isNotEqualTo(UniqueValues.token("shard12", 33));
+		Set<String> shard1 = new HashSet<>();
+		Set<String> shard12 = new HashSet<>();
+		for (long i = 0; i < 100_000; i++) {
+			shard1.add(UniqueValues.token("shard1", i));
+			shard12.add(UniqueValues.token("shard12", i));
+		}
+		assertThat(shard1).doesNotContainAnyElementsOf(shard12);
+	}
+
+	@Test
+	public void configuredRunIdsMustBeAlphanumeric() {
+		assertThat(UniqueValues.checkRunId(" Shard1 ")).isEqualTo("shard1");
+		assertThatThrownBy(() -> UniqueValues.checkRunId("CI-shard 1")).isInstanceOf(IllegalArgumentException.class)
+				.hasMessageContaining("CI-shard 1");
+		assertThatThrownBy(() -> UniqueValues.checkRunId("x".repeat(36))).isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	public void fakeDataUniqueValues() {
+		FakeData fake = new FakeData(42);
+		assertThat(fake.username()).matches("[a-z0-9]+").isNotEqualTo(fake.username());
+		assertThat(fake.uniqueEmail()).matches("[a-z0-9]+\\.[a-z0-9]+\\.[a-z0-9]+@[a-z0-9.-]+");
+		assertThat(fake.uniqueEmails(500).distinct().count()).isEqualTo(500);
+	}
+}
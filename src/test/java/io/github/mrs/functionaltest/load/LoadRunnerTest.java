@@ -0,0 +1,39 @@
+package io.github.mrs.functionaltest.load;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.annotations.Test;
+
+public class LoadRunnerTest {
+
+	@Test
+	public void closedModelCountsRequestsAndErrors() throws Exception {
+		AtomicInteger calls = new AtomicInteger();
+		LoadResult result = LoadRunner.closedModel(4)
+				.duration(Duration.ofMillis(300))
+				.run("closed", () -> {
+					Thread.sleep(2);
+					if (calls.incrementAndGet() % 10 == 0) {
+						throw new AssertionError("every tenth call fails");
+					}
+				});
+
+		assertThat(result.getRequests()).isEqualTo(calls.get());
+		assertThat(result.getErrors()).isEqualTo(calls.get() / 10);
+		assertThat(result.percentileMillis(50)).isGreaterThanOrEqualTo(2.0);
+	}
+
+	@Test
+	public void openModelHoldsTargetRate() throws Exception {
+		LoadResult result = LoadRunner.openModel(200)
+				.duration(Duration.ofSeconds(1))
+				.run("open", () -> Thread.sleep(1));
+
+		// arrivals follow the schedule, not how fast requests complete: one every 5 ms for a second
+		assertThat(result.getRequests()).isEqualTo(200L);
+		assertThat(result.errorRate()).isZero();
+	}
+}
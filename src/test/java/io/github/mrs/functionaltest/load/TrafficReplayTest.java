@@ -0,0 +1,115 @@
+package io.github.mrs.functionaltest.load;
+
+import static io.restassured.RestAssured.given;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.LongSummaryStatistics;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+import io.github.mrs.functionaltest.utils.stub.StubRequest;
+import io.github.mrs.functionaltest.utils.stub.StubResponse;
+import io.github.mrs.functionaltest.utils.stub.StubServer;
+import io.github.mrs.functionaltest.utils.traffic.CapturedExchange;
+import io.github.mrs.functionaltest.utils.traffic.TrafficCapture;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+public class TrafficReplayTest {
+
+	private StubServer original;
+	private StubServer target;
+	private final List<String> replayed = new CopyOnWriteArrayList<>();
+	private Path capture;
+
+	@BeforeClass
+	public void captureSession() throws Exception {
+		original = stub(null);
+		target = stub(replayed);
+		String originalUrl = original.url();
+
+		capture = Files.createTempDirectory("replay").resolve("session.capture");
+		TrafficCapture.start(capture, null);
+		given().filter(TrafficCapture.filter()).get(originalUrl + "/things/1?full=true");
+		Thread.sleep(400);
+		given().filter(TrafficCapture.filter()).body("{\"name\":\"a\"}").post(originalUrl + "/things");
+		given().filter(TrafficCapture.filter()).get(originalUrl + "/things/missing");
+		TrafficCapture.stop();
+	}
+
+	@AfterClass(alwaysRun = true)
+	public void stopStubs() {
+		original.stop();
+		target.stop();
+	}
+
+	@Test
+	public void replaysAgainstTargetAtAcceleratedPace() throws Exception {
+		replayed.clear();
+		LoadResult result = TrafficReplay.of(capture)
+				.target(target.url() + "/")
+				.speed(2)
+				.run("replay");
+
+		assertThat(replayed).containsExactlyInAnyOrder("GET /things/1?full=true", "POST /things {\"name\":\"a\"}",
+				"GET /things/missing");
+		assertThat(result.getRequests()).isEqualTo(3);
+		assertThat(result.getErrors()).isZero();
+		// pauses halved, but not squeezed out
+		assertThat(result.getElapsed().toMillis()).isBetween(capturedMillis() / 2, capturedMillis() - 100);
+	}
+
+	@Test
+	public void idleGapsAreCappedAndChangedStatusesAreErrors() throws Exception {
+		target.reset();
+		for (String method : new String[] { "GET", "POST" }) {
+			target.on(method, "/things").respond(StubResponse.json(500, "{}"));
+			target.on(method, "/things/{id}").respond(StubResponse.json(500, "{}"));
+		}
+		try {
+			LoadResult result = TrafficReplay.of(capture)
+					.target(target.url())
+					.maxIdle(Duration.ofMillis(10))
+					.run("replay errors");
+
+			assertThat(result.getRequests()).isEqualTo(3);
+			assertThat(result.getErrors()).isEqualTo(3);
+			assertThat(result.getElapsed().toMillis()).isLessThan(300L);
+		} finally {
+			target.reset();
+			route(target, replayed);
+		}
+	}
+
+	private long capturedMillis() throws IOException {
+		try (Stream<CapturedExchange> exchanges = TrafficCapture.read(capture)) {
+			LongSummaryStatistics started = exchanges.mapToLong(CapturedExchange::getStartedAtMicros).summaryStatistics();
+			return (started.getMax() - started.getMin()) / 1000;
+		}
+	}
+
+	private static StubServer stub(List<String> seen) throws IOException {
+		StubServer stub = StubServer.start();
+		route(stub, seen);
+		return stub;
+	}
+
+	private static void route(StubServer stub, List<String> seen) {
+		stub.get("/things/missing").respond(request -> answer(seen, request, 404));
+		stub.get("/things/{id}").respond(request -> answer(seen, request, 200));
+		stub.post("/things").respond(request -> answer(seen, request, 201));
+	}
+
+	private static StubResponse answer(List<String> seen, StubRequest request, int status) {
+		if (seen != null) {
+			seen.add(request + (request.getBody().isEmpty() ? "" : " " + request.getBody()));
+		}
+		return StubResponse.json(status, "{\"ok\":true}");
+	}
+}
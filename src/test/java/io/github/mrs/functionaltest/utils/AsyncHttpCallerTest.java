@@ -0,0 +1,153 @@
+package io.github.mrs.functionaltest.utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.google.gson.JsonObject;
+
+import io.github.mrs.functionaltest.utils.cache.ResponseCache;
+import io.github.mrs.functionaltest.utils.stub.StubResponse;
+import io.github.mrs.functionaltest.utils.stub.StubServer;
+import io.restassured.response.ValidatableResponse;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+public class AsyncHttpCallerTest {
+
+	private static final int MAX_PER_HOST = 3;
+
+	private final AtomicInteger inFlight = new AtomicInteger();
+	private final AtomicInteger maxInFlight = new AtomicInteger();
+	private final AtomicInteger listed = new AtomicInteger();
+	private StubServer stub;
+	private ConfigOverride config;
+
+	@BeforeClass
+	public void startStub() throws IOException {
+		stub = StubServer.start();
+		for (String method : new String[] { "GET", "PUT" }) {
+			stub.on(method, "/echo").respond(request -> {
+				JsonObject echo = new JsonObject();
+				for (String name : new String[] { "Accept", "Content-Type", "X-Tenant" }) {
+					echo.addProperty(name, request.header(name));
+				}
+				echo.addProperty("body", request.getBody());
+				return StubResponse.json(200, echo.toString());
+			});
+		}
+		stub.get("/text").respond(StubResponse.status(200).withHeader("Content-Type", "text/plain"));
+		stub.get("/missing").respond(StubResponse.json(404, "{}"));
+		stub.get("/slow").respond(StubResponse.json(200, "{}")).latency(Duration.ofMillis(300));
+		stub.get("/counted").respond(request -> {
+			maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+			try {
+				Thread.sleep(30);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} finally {
+				inFlight.decrementAndGet();
+			}
+			return StubResponse.json(200, "{}");
+		});
+		stub.get("/things").respond(request -> StubResponse.json(200, "[" + listed.incrementAndGet() + "]")
+				.withHeader("Cache-Control", "max-age=60"));
+		stub.post("/things").respond(StubResponse.json(201, "{}"));
+
+		Properties props = new Properties();
+		props.setProperty("base.url", stub.url());
+		props.setProperty("client.id", "");
+		props.setProperty("client.secret", "");
+		props.setProperty("http.pool.maxPerHost", String.valueOf(MAX_PER_HOST));
+		config = ConfigOverride.assign("async-test", props);
+		AsyncHttpCaller.shutdown();
+	}
+
+	@AfterClass(alwaysRun = true)
+	public void stopStub() {
+		if (config != null) {
+			config.restore();
+		}
+		AsyncHttpCaller.shutdown();
+		ResponseCache.configure(0, 0);
+		stub.stop();
+	}
+
+	@Test
+	public void sendsTheCallersMergedHeaders() throws Exception {
+		AsyncHttpCaller caller = new AsyncHttpCaller(Collections.singletonMap("X-Tenant", "a"))
+				.withHeaders(Collections.singletonMap("x-tenant", "b"));
+
+		JsonObject read = caller.sync().toJson(caller.doGet("/echo", 200).get());
+		JsonObject written = caller.sync().toJson(caller.doPut("/echo", "{\"n\":1}", 200).get());
+
+		assertThat(read.get("X-Tenant").getAsString()).isEqualTo("b");
+		assertThat(read.get("Accept").getAsString()).isEqualTo("application/json");
+		assertThat(read.get("Content-Type").isJsonNull()).isTrue();
+		assertThat(written.get("Content-Type").getAsString()).startsWith("application/json");
+		assertThat(written.get("body").getAsString()).isEqualTo("{\"n\":1}");
+	}
+
+	@Test
+	public void failedChecksCompleteExceptionally() {
+		AsyncHttpCaller caller = new AsyncHttpCaller();
+
+		assertThatThrownBy(() -> caller.doGet("/missing", 200).get())
+				.isInstanceOf(ExecutionException.class)
+				.hasCauseInstanceOf(AssertionError.class);
+		assertThatThrownBy(() -> caller.doGet("/text", 200).get())
+				.isInstanceOf(ExecutionException.class)
+				.hasCauseInstanceOf(AssertionError.class);
+	}
+
+	@Test
+	public void returnsBeforeTheResponseArrives() throws Exception {
+		CompletableFuture<ValidatableResponse> slow = new AsyncHttpCaller().doGet("/slow", 200);
+
+		assertThat(slow).isNotDone();
+		assertThat(slow.get().extract().statusCode()).isEqualTo(200);
+	}
+
+	@Test
+	public void callersShareOneClientCappedPerHost() throws Exception {
+		HttpClient client = AsyncHttpCaller.client();
+		AsyncHttpCaller first = new AsyncHttpCaller();
+		AsyncHttpCaller second = first.withHeaders(Collections.singletonMap("X-Tenant", "b"));
+		List<CompletableFuture<ValidatableResponse>> responses = new ArrayList<>();
+		for (int i = 0; i < 30; i++) {
+			responses.add((i % 2 == 0 ? first : second).doGet("/counted", 200));
+		}
+		CompletableFuture.allOf(responses.toArray(new CompletableFuture<?>[0])).get();
+
+		assertThat(AsyncHttpCaller.client()).isSameAs(client);
+		assertThat(maxInFlight.get()).isBetween(1, MAX_PER_HOST);
+	}
+
+	@Test
+	public void writesDropCachedResponses() throws Exception {
+		ResponseCache.configure(16, 0);
+		try {
+			HttpCaller caller = new HttpCaller();
+			assertThat(caller.doGet("/things", 200).extract().asString()).isEqualTo("[1]");
+			assertThat(caller.doGet("/things", 200).extract().asString()).isEqualTo("[1]");
+
+			new AsyncHttpCaller(caller).doPost("/things", "{}", 201).get();
+
+			assertThat(caller.doGet("/things", 200).extract().asString()).isEqualTo("[2]");
+			assertThat(listed).hasValue(2);
+		} finally {
+			ResponseCache.configure(0, 0);
+		}
+	}
+}
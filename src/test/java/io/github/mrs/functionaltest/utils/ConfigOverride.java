@@ -0,0 +1,59 @@
+package io.github.mrs.functionaltest.utils;
+
+import java.util.Properties;
+
+/**
+ * Assign a test class its own {@link Config} and put back whatever was assigned before, so pointing
+ * <tt>base.url</tt> at a class's stub doesn't change what later tests and the suite's <tt>@AfterSuite</tt> checks
+ * see.
+ *
+ * <pre>
+ * &#64;BeforeClass  config = ConfigOverride.assign("my-test", props);
+ * &#64;AfterClass   config.restore();
+ * </pre>
+ */
+public final class ConfigOverride {
+
+	private final String environment;
+	private final Properties properties;
+	private final boolean debug;
+
+	private ConfigOverride(String environment, Properties properties, boolean debug) {
+		this.environment = environment;
+		this.properties = properties;
+		this.debug = debug;
+	}
+
+	/**
+	 * @param environment environment name for the override
+	 * @param props properties to assign until {@link #restore()}
+	 * @return handle that restores the previous config
+	 */
+	public static ConfigOverride assign(String environment, Properties props) {
+		ConfigOverride previous = new ConfigOverride(Config.getEnvironment(), Config.properties(), Config.DEBUG);
+		Config.assign(environment, props, false);
+		return previous;
+	}
+
+	/**
+	 * @param environment environment name for the override
+	 * @param baseUrl URL to point <tt>base.url</tt> at, with no client credentials
+	 * @return handle that restores the previous config
+	 */
+	public static ConfigOverride baseUrl(String environment, String baseUrl) {
+		Properties props = new Properties();
+		props.setProperty("base.url", baseUrl);
+		props.setProperty("client.id", "");
+		props.setProperty("client.secret", "");
+		return assign(environment, props);
+	}
+
+	/**
+	 * Assign the config that was in place before the override; nothing to do if there was none.
+	 */
+	public void restore() {
+		if (properties != null) {
+			Config.assign(environment, properties, debug);
+		}
+	}
+}
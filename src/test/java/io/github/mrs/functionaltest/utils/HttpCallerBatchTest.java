@@ -0,0 +1,75 @@
+package io.github.mrs.functionaltest.utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import io.github.mrs.functionaltest.utils.stub.StubResponse;
+import io.github.mrs.functionaltest.utils.stub.StubServer;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+public class HttpCallerBatchTest {
+
+	private final AtomicInteger inFlight = new AtomicInteger();
+	private final AtomicInteger maxInFlight = new AtomicInteger();
+	private StubServer stub;
+	private ConfigOverride config;
+
+	@BeforeClass
+	public void startStub() throws IOException {
+		stub = StubServer.start();
+		stub.post("/items").respond(request -> {
+			maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+			try {
+				Thread.sleep(20);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} finally {
+				inFlight.decrementAndGet();
+			}
+			return StubResponse.json(request.getBody().contains("bad") ? 400 : 201, request.getBody());
+		});
+
+		config = ConfigOverride.baseUrl("batch-test", stub.url());
+	}
+
+	@AfterClass(alwaysRun = true)
+	public void stopStub() {
+		if (config != null) {
+			config.restore();
+		}
+		stub.stop();
+	}
+
+	@Test
+	public void resultsKeepRequestOrderWithinTheWindow() {
+		List<BatchRequest> requests = IntStream.range(0, 40)
+				.mapToObj(i -> BatchRequest.post("/items", "{\"n\":" + i + (i % 10 == 3 ? ",\"bad\":true" : "") + "}", 201))
+				.collect(Collectors.toList());
+
+		List<BatchResult> results = new HttpCaller().doBatch(requests, 4);
+
+		assertThat(results).hasSize(40);
+		assertThat(maxInFlight.get()).isBetween(2, 4);
+		for (BatchResult result : results) {
+			assertThat(result.getRequest()).isSameAs(requests.get(result.getIndex()));
+			if (result.getIndex() % 10 == 3) {
+				assertThat(result.isSuccess()).isFalse();
+				assertThat(result.getFailure()).isInstanceOf(AssertionError.class);
+			} else {
+				assertThat(result.getResponse().extract().asString()).startsWith("{\"n\":" + result.getIndex() + "}");
+			}
+		}
+		assertThatThrownBy(() -> BatchResult.responses(results))
+				.isInstanceOf(AssertionError.class)
+				.hasMessageStartingWith("4 of 40 batched requests failed")
+				.hasMessageContaining("request 13 (POST /items)");
+	}
+}
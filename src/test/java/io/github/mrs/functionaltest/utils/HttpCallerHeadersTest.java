@@ -0,0 +1,95 @@
+package io.github.mrs.functionaltest.utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.google.gson.JsonObject;
+
+import io.github.mrs.functionaltest.utils.stub.StubResponse;
+import io.github.mrs.functionaltest.utils.stub.StubServer;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+public class HttpCallerHeadersTest {
+
+	private StubServer stub;
+	private ConfigOverride config;
+
+	@BeforeClass
+	public void startStub() throws IOException {
+		stub = StubServer.start();
+		// echo back the headers the test cares about, with how many times each arrived
+		for (String method : new String[] { "GET", "POST", "PUT" }) {
+			stub.on(method, "/echo").respond(request -> {
+				JsonObject echo = new JsonObject();
+				for (String name : new String[] { "Accept", "Content-Type", "X-Tenant" }) {
+					List<String> values = request.getHeaders().get(name);
+					echo.addProperty(name, values == null ? null : String.join(",", values));
+				}
+				return StubResponse.json(method.equals("POST") ? 201 : 200, echo.toString());
+			});
+		}
+		config = ConfigOverride.baseUrl("headers-test", stub.url());
+	}
+
+	@AfterClass(alwaysRun = true)
+	public void stopStub() {
+		if (config != null) {
+			config.restore();
+		}
+		stub.stop();
+	}
+
+	@Test
+	public void writesDoNotLeakContentTypeIntoReads() throws Exception {
+		HttpCaller caller = new HttpCaller();
+		JsonObject posted = caller.toJson(caller.doPost("/echo", "{}", 201));
+		JsonObject fetched = caller.toJson(caller.doGet("/echo", 200));
+
+		assertThat(posted.get("Content-Type").getAsString()).startsWith("application/json");
+		assertThat(fetched.get("Accept").getAsString()).isEqualTo("application/json");
+		assertThat(fetched.get("Content-Type").isJsonNull()).isTrue();
+		assertThat(caller.getHeader("Accept")).isEmpty();
+	}
+
+	@Test
+	public void headersAreCaseInsensitive() throws Exception {
+		HttpCaller caller = new HttpCaller(Collections.singletonMap("x-tenant", "a"))
+				.withHeaders(Collections.singletonMap("X-TENANT", "b"));
+
+		assertThat(caller.getHeader("X-Tenant")).isEqualTo("b");
+		assertThat(caller.toJson(caller.doGet("/echo", 200)).get("X-Tenant").getAsString()).isEqualTo("b");
+		assertThat(caller.withHeaders(Collections.emptyMap())).isSameAs(caller);
+	}
+
+	@Test
+	public void oneCallerIsSafeToShareAcrossThreads() throws Exception {
+		HttpCaller caller = new HttpCaller(Collections.singletonMap("X-Tenant", "shared"));
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<JsonObject>> reads = new ArrayList<>();
+			List<Future<JsonObject>> writes = new ArrayList<>();
+			for (int i = 0; i < 40; i++) {
+				reads.add(executor.submit(() -> caller.toJson(caller.doGet("/echo", 200))));
+				writes.add(executor.submit(() -> caller.toJson(caller.doPut("/echo", "{}", 200))));
+			}
+			for (Future<JsonObject> read : reads) {
+				assertThat(read.get().get("X-Tenant").getAsString()).isEqualTo("shared");
+				assertThat(read.get().get("Content-Type").isJsonNull()).isTrue();
+			}
+			for (Future<JsonObject> write : writes) {
+				assertThat(write.get().get("Content-Type").getAsString()).startsWith("application/json");
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+}
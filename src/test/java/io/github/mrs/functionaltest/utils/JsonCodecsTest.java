@@ -0,0 +1,43 @@
+package io.github.mrs.functionaltest.utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.google.gson.JsonPrimitive;
+import com.google.gson.JsonSerializer;
+
+import org.testng.annotations.Test;
+
+public class JsonCodecsTest {
+
+	static class Money {
+		final long cents;
+
+		Money(long cents) {
+			this.cents = cents;
+		}
+	}
+
+	static class Invoice {
+		Money total = new Money(1250);
+		String note = null;
+	}
+
+	@Test
+	public void codecsAreSharedAndPickUpRegisteredAdapters() {
+		assertThat(JsonCodecs.defaults()).isSameAs(JsonCodecs.defaults());
+
+		JsonCodecs.register("test-pretty", builder -> builder.setPrettyPrinting());
+		JsonCodecs.registerTypeAdapter(Money.class,
+				(JsonSerializer<Money>) (money, type, context) -> new JsonPrimitive(money.cents / 100.0));
+
+		assertThat(JsonCodecs.defaults().toJson(new Invoice())).isEqualTo("{\"total\":12.5}");
+		assertThat(JsonCodecs.withNulls().toJson(new Invoice())).isEqualTo("{\"total\":12.5,\"note\":null}");
+		assertThat(JsonCodecs.get("test-pretty").toJson(new Invoice())).isEqualTo("{\n  \"total\": 12.5\n}");
+	}
+
+	@Test
+	public void unknownCodecIsRejected() {
+		assertThatThrownBy(() -> JsonCodecs.get("no-such-codec")).isInstanceOf(IllegalArgumentException.class);
+	}
+}
@@ -0,0 +1,52 @@
+package io.github.mrs.functionaltest.utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.google.gson.stream.JsonReader;
+
+import org.testng.annotations.Test;
+
+public class JsonStreamsTest {
+
+	static class Item {
+		int id;
+	}
+
+	private static JsonReader reader(String json) {
+		return JsonStreams.reader(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), StandardCharsets.UTF_8);
+	}
+
+	@Test
+	public void streamsTopLevelArray() {
+		try (Stream<Item> items = JsonStreams.streamArray(JsonCodecs.defaults(), reader("[{\"id\":1},{\"id\":2}]"), Item.class)) {
+			assertThat(items.map(item -> item.id).collect(Collectors.toList())).containsExactly(1, 2);
+		}
+	}
+
+	@Test
+	public void streamsNestedFieldLazily() {
+		// everything after the second element is malformed; it's never read
+		String json = "{\"page\":1,\"meta\":{\"x\":[1,2]},\"result\":{\"total\":3,\"items\":[{\"id\":7},{\"id\":8},{\"id\":";
+		try (Stream<Item> items = JsonStreams.streamArray(JsonCodecs.defaults(), reader(json), "result.items", Item.class)) {
+			assertThat(items.limit(2).map(item -> item.id).collect(Collectors.toList())).containsExactly(7, 8);
+		}
+	}
+
+	@Test
+	public void missingOrNullFieldIsEmpty() {
+		assertThat(JsonStreams.streamArray(JsonCodecs.defaults(), reader("{\"data\":null}"), "data", Item.class)).isEmpty();
+		assertThat(JsonStreams.streamArray(JsonCodecs.defaults(), reader("{\"other\":[1]}"), "data", Item.class)).isEmpty();
+	}
+
+	@Test
+	public void charsetComesFromContentType() {
+		assertThat(JsonStreams.charset("application/json; charset=ISO-8859-1")).isEqualTo(StandardCharsets.ISO_8859_1);
+		assertThat(JsonStreams.charset("application/json")).isEqualTo(StandardCharsets.UTF_8);
+		assertThat(JsonStreams.charset(null)).isEqualTo(StandardCharsets.UTF_8);
+	}
+}
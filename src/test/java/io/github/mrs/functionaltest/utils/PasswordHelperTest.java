@@ -0,0 +1,33 @@
+package io.github.mrs.functionaltest.utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.testng.annotations.Test;
+
+public class PasswordHelperTest {
+
+	@Test
+	public void defaultPolicyHasEveryClass() {
+		List<String> passwords = PasswordHelper.DEFAULT.generate(2_000, 8).parallel().collect(Collectors.toList());
+		assertThat(passwords).hasSize(2_000).doesNotHaveDuplicates().allSatisfy(password -> {
+			assertThat(password).hasSize(8)
+					.containsPattern("[a-z]").containsPattern("[A-Z]").containsPattern("[0-9]").containsPattern("[\\^$?!@#%&]");
+		});
+		// shuffled, so the required characters don't always sit in the first four places
+		assertThat(passwords).anyMatch(password -> !Character.isLowerCase(password.charAt(0)));
+		assertThat(PasswordHelper.generatePassword(2)).hasSize(6);
+	}
+
+	@Test
+	public void customPolicy() {
+		PasswordHelper digitsAndUpper = PasswordHelper.DEFAULT
+				.withClasses(PasswordHelper.NUMBERS, PasswordHelper.UPPERCASE)
+				.withMinLength(12)
+				.withShuffle(false);
+		String password = digitsAndUpper.generate(4);
+		assertThat(password).hasSize(12).matches("[0-9][A-Z][0-9A-Z]{10}");
+	}
+}
@@ -0,0 +1,37 @@
+package io.github.mrs.functionaltest.utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.testng.annotations.Test;
+
+public class SchemaValidatorsTest {
+
+	private static final ObjectMapper MAPPER = new ObjectMapper();
+
+	@Test
+	public void schemaIsCompiledOnceAndFollowsRelativeRefs() throws Exception {
+		assertThat(SchemaValidators.schema("schemas/user.json")).isSameAs(SchemaValidators.schema("schemas/user.json"));
+
+		SchemaValidators.validate("schemas/user.json",
+				MAPPER.readTree("{\"id\":1,\"email\":\"a@example.com\",\"address\":{\"city\":\"Austin\"}}"));
+
+		assertThatThrownBy(() -> SchemaValidators.validate("schemas/user.json",
+				MAPPER.readTree("{\"id\":\"one\",\"email\":\"a@example.com\",\"address\":{}}")))
+				.isInstanceOf(AssertionError.class)
+				.hasMessageContaining("/id")
+				.hasMessageContaining("/address")
+				.hasMessageContaining("city");
+	}
+
+	@Test
+	public void missingSchemaIsReported() {
+		assertThat(SchemaValidators.exists("schemas/user.json")).isTrue();
+		assertThat(SchemaValidators.exists("schemas/missing.json")).isFalse();
+		assertThatThrownBy(() -> SchemaValidators.schema("schemas/missing.json"))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessageContaining("not found");
+	}
+}
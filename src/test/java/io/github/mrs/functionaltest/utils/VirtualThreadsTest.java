@@ -0,0 +1,69 @@
+package io.github.mrs.functionaltest.utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.testng.SkipException;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class VirtualThreadsTest {
+
+	private static final String PROPERTY = "functional.virtual.threads";
+
+	@BeforeMethod
+	public void requestVirtualThreads() {
+		if (System.getenv("FUNCTIONAL_VIRTUAL_THREADS") != null) {
+			throw new SkipException("FUNCTIONAL_VIRTUAL_THREADS is set in the environment");
+		}
+		System.setProperty(PROPERTY, "true");
+	}
+
+	@AfterMethod(alwaysRun = true)
+	public void clearRequest() {
+		System.clearProperty(PROPERTY);
+	}
+
+	@Test
+	public void threadFactoryFallsBackToDaemonPlatformThreads() {
+		if (VirtualThreads.isSupported()) {
+			throw new SkipException("this JVM has virtual threads, nothing to fall back from");
+		}
+		assertThat(VirtualThreads.isEnabled()).isTrue();
+
+		Thread thread = VirtualThreads.threadFactory("vt-test-").newThread(() -> { });
+
+		assertThat(thread.isDaemon()).isTrue();
+		assertThat(thread.getName()).isEqualTo("vt-test-1");
+	}
+
+	@Test
+	public void executorFallsBackToWorkingPlatformThreads() throws Exception {
+		if (VirtualThreads.isSupported()) {
+			throw new SkipException("this JVM has virtual threads, nothing to fall back from");
+		}
+		ExecutorService executor = VirtualThreads.newExecutor("vt-test-", 2);
+		try {
+			Future<Thread> ran = executor.submit(Thread::currentThread);
+
+			assertThat(ran.get().isDaemon()).isTrue();
+			assertThat(ran.get().getName()).startsWith("vt-test-");
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void threadCountDefaultsAndCanBeRaised() {
+		assertThat(VirtualThreads.threadCount()).isEqualTo(256);
+		System.setProperty("functional.thread.count", "512");
+		try {
+			assertThat(VirtualThreads.threadCount()).isEqualTo(512);
+		} finally {
+			System.clearProperty("functional.thread.count");
+		}
+	}
+}
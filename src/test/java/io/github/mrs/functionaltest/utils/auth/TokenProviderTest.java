@@ -0,0 +1,134 @@
+package io.github.mrs.functionaltest.utils.auth;
+
+import static io.restassured.RestAssured.given;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import io.github.mrs.functionaltest.utils.stub.StubResponse;
+import io.github.mrs.functionaltest.utils.stub.StubServer;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class TokenProviderTest {
+
+	private StubServer stub;
+	private String baseUrl;
+	private final AtomicInteger issued = new AtomicInteger();
+	private volatile String lastAuthorization;
+	private volatile String lastBody;
+
+	@BeforeClass
+	public void startStub() throws IOException {
+		stub = StubServer.start();
+		stub.post("/token").respond(request -> {
+			lastAuthorization = request.header("Authorization");
+			lastBody = request.getBody();
+			return StubResponse.json(200, "{\"access_token\":\"token-" + issued.incrementAndGet()
+					+ "\",\"token_type\":\"bearer\",\"expires_in\":120}");
+		}).latency(Duration.ofMillis(100));  // slow enough for concurrent callers to pile up
+		stub.get("/echo").respond(request -> StubResponse.json(200, String.valueOf(request.header("Authorization"))));
+		baseUrl = stub.url();
+	}
+
+	@AfterClass(alwaysRun = true)
+	public void stopStub() {
+		TokenProvider.install(null);
+		stub.stop();
+	}
+
+	@BeforeMethod
+	public void reset() {
+		issued.set(0);
+	}
+
+	@Test
+	public void concurrentCallersShareOneFetch() throws Exception {
+		TokenProvider provider = provider(Clock.systemUTC());
+		ExecutorService pool = Executors.newFixedThreadPool(16);
+		try {
+			List<Future<String>> tokens = IntStream.range(0, 16)
+					.mapToObj(i -> pool.submit(provider::token))
+					.collect(Collectors.toList());
+			for (Future<String> token : tokens) {
+				assertThat(token.get()).isEqualTo("token-1");
+			}
+		} finally {
+			pool.shutdownNow();
+		}
+		assertThat(issued).hasValue(1);
+		assertThat(lastAuthorization).isEqualTo("Basic Y2xpZW50OnNlY3JldA==");
+		assertThat(lastBody).contains("grant_type=client_credentials").contains("scope=read");
+	}
+
+	@Test
+	public void refreshesBeforeExpiry() {
+		MutableClock clock = new MutableClock();
+		TokenProvider provider = provider(clock);
+		assertThat(provider.token()).isEqualTo("token-1");
+		clock.advance(Duration.ofSeconds(50));
+		assertThat(provider.token()).isEqualTo("token-1");
+		// 120s lifetime, refreshed 30s before: the first call past 90s fetches a new token
+		clock.advance(Duration.ofSeconds(45));
+		assertThat(provider.token()).isEqualTo("token-2");
+		assertThat(provider.authorization()).isEqualTo("Bearer token-2");
+		provider.invalidate();
+		assertThat(provider.token()).isEqualTo("token-3");
+	}
+
+	@Test
+	public void filterAuthorizesRequests() {
+		TokenProvider.install(provider(Clock.systemUTC()));
+		try {
+			assertThat(given().filter(TokenProvider.filter()).get(baseUrl + "/echo").asString())
+					.isEqualTo("Bearer token-1");
+			// explicit headers win
+			assertThat(given().filter(TokenProvider.filter()).header("Authorization", "Basic abc")
+					.get(baseUrl + "/echo").asString()).isEqualTo("Basic abc");
+		} finally {
+			TokenProvider.install(null);
+		}
+		assertThat(given().filter(TokenProvider.filter()).get(baseUrl + "/echo").asString()).isEqualTo("null");
+	}
+
+	private TokenProvider provider(Clock clock) {
+		return new TokenProvider(baseUrl + "/token", "client", "secret", "read", Duration.ofSeconds(30), clock);
+	}
+
+	private static class MutableClock extends Clock {
+		private Instant now = Instant.parse("2024-01-01T00:00:00Z");
+
+		void advance(Duration duration) {
+			now = now.plus(duration);
+		}
+
+		@Override
+		public ZoneId getZone() {
+			return ZoneOffset.UTC;
+		}
+
+		@Override
+		public Clock withZone(ZoneId zone) {
+			return this;
+		}
+
+		@Override
+		public Instant instant() {
+			return now;
+		}
+	}
+}
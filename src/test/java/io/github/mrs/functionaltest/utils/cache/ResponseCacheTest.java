@@ -0,0 +1,109 @@
+package io.github.mrs.functionaltest.utils.cache;
+
+import static io.restassured.RestAssured.given;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.github.mrs.functionaltest.utils.stub.StubResponse;
+import io.github.mrs.functionaltest.utils.stub.StubServer;
+import io.restassured.response.Response;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class ResponseCacheTest {
+
+	private StubServer stub;
+	private String baseUrl;
+	private final AtomicInteger served = new AtomicInteger();
+	private final AtomicInteger notModified = new AtomicInteger();
+
+	@BeforeClass
+	public void startStub() throws IOException {
+		stub = StubServer.start();
+		stub.get("/countries").respond(request -> serve(200, "[\"NZ\",\"AU\"]").withHeader("Cache-Control", "max-age=60"));
+		stub.get("/settings").respond(request -> {
+			if ("\"v1\"".equals(request.header("If-None-Match"))) {
+				notModified.incrementAndGet();
+				return StubResponse.status(304).withHeader("ETag", "\"v1\"").withHeader("Cache-Control", "no-cache");
+			}
+			return serve(200, "{\"theme\":\"dark\"}").withHeader("ETag", "\"v1\"").withHeader("Cache-Control", "no-cache");
+		});
+		stub.get("/users").respond(request -> serve(200, "[]").withHeader("Cache-Control", "max-age=60"));
+		stub.post("/users").respond(request -> serve(201, "[]").withHeader("Cache-Control", "max-age=60"));
+		stub.get("/live").respond(request -> serve(200, "{}").withHeader("Cache-Control", "no-store"));
+		baseUrl = stub.url();
+	}
+
+	@AfterClass(alwaysRun = true)
+	public void stopStub() {
+		ResponseCache.configure(0, 0);
+		stub.stop();
+	}
+
+	@BeforeMethod
+	public void reset() {
+		ResponseCache.configure(16, 0);
+		served.set(0);
+		notModified.set(0);
+	}
+
+	@Test
+	public void freshResponsesAreServedFromCache() {
+		long hits = ResponseCache.stats().getHits();
+		for (int i = 0; i < 5; i++) {
+			Response response = get("/countries");
+			assertThat(response.statusCode()).isEqualTo(200);
+			assertThat(response.asString()).isEqualTo("[\"NZ\",\"AU\"]");
+		}
+		assertThat(served).hasValue(1);
+		assertThat(ResponseCache.stats().getHits() - hits).isEqualTo(4);
+
+		// a different Accept is a different entry
+		given().filter(ResponseCache.filter()).accept("text/plain").get(baseUrl + "/countries");
+		assertThat(served).hasValue(2);
+	}
+
+	@Test
+	public void staleResponsesAreRevalidated() {
+		assertThat(get("/settings").asString()).isEqualTo("{\"theme\":\"dark\"}");
+		Response revalidated = get("/settings");
+		assertThat(revalidated.statusCode()).isEqualTo(200);
+		assertThat(revalidated.asString()).isEqualTo("{\"theme\":\"dark\"}");
+		assertThat(served).hasValue(1);
+		assertThat(notModified).hasValue(1);
+	}
+
+	@Test
+	public void writesAndNoStoreSkipTheCache() {
+		get("/users");
+		get("/users");
+		given().filter(ResponseCache.filter()).body("{}").post(baseUrl + "/users");
+		get("/users");
+		assertThat(served).hasValue(3);
+
+		get("/live");
+		get("/live");
+		assertThat(served).hasValue(5);
+	}
+
+	@Test
+	public void disabledByDefault() {
+		ResponseCache.configure(0, 0);
+		get("/countries");
+		get("/countries");
+		assertThat(served).hasValue(2);
+	}
+
+	private Response get(String path) {
+		return given().filter(ResponseCache.filter()).get(baseUrl + path);
+	}
+
+	private StubResponse serve(int status, String json) {
+		served.incrementAndGet();
+		return StubResponse.json(status, json);
+	}
+}
@@ -0,0 +1,129 @@
+package io.github.mrs.functionaltest.utils.db;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+public class DbConnectTest {
+
+	private DbConnect db;
+
+	@BeforeClass
+	public void createTable() throws Exception {
+		Properties props = new Properties();
+		props.setProperty("db.pooltest.jdbcUrl", "jdbc:h2:mem:pooltest;DB_CLOSE_DELAY=-1");
+		props.setProperty("db.pooltest.username", "sa");
+		props.setProperty("db.pooltest.password", "");
+		props.setProperty("db.pooltest.pool.maxSize", "2");
+		props.setProperty("db.pooltest.pool.borrowTimeout", "200");
+		db = DbConnect.getInstance(new DatabaseConfig("pooltest", props));
+		db.executeUpdate("CREATE TABLE users (id INT PRIMARY KEY, name VARCHAR(50))");
+	}
+
+	@AfterClass(alwaysRun = true)
+	public void release() throws Exception {
+		db.release();
+	}
+
+	@Test
+	public void borrowingIsBoundedByMaxSize() throws Exception {
+		try (Connection first = db.borrowConnection(); Connection second = db.borrowConnection()) {
+			assertThat(first).isNotSameAs(second);
+			assertThatThrownBy(db::borrowConnection).isInstanceOf(SQLTimeoutException.class);
+		}
+		try (Connection again = db.borrowConnection()) {
+			assertThat(again.isValid(1)).isTrue();
+		}
+	}
+
+	@Test
+	public void returnedConnectionCannotBeUsed() throws Exception {
+		Connection connection = db.borrowConnection();
+		connection.close();
+		assertThat(connection.isClosed()).isTrue();
+		assertThatThrownBy(connection::createStatement).isInstanceOf(SQLException.class);
+	}
+
+	@Test
+	public void concurrentCallersShareThePool() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(16);
+		List<Future<Integer>> inserts = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			int id = 1000 + i;
+			inserts.add(executor.submit(() -> db.executeUpdate("INSERT INTO users VALUES (" + id + ", 'user" + id + "')")));
+		}
+		for (Future<Integer> insert : inserts) {
+			assertThat(insert.get()).isEqualTo(1);
+		}
+		executor.shutdown();
+
+		assertThat(db.getNumberOfRows("SELECT * FROM users WHERE id >= 1000 AND id < 2000")).isEqualTo(100);
+	}
+
+	@Test
+	public void batchUpdateAndParameterizedQueryReuseStatements() throws Exception {
+		List<Object[]> rows = new ArrayList<>();
+		for (int i = 0; i < 1200; i++) {
+			rows.add(new Object[] { 5000 + i, "batch" + i });
+		}
+		int[] counts = db.batchUpdate("INSERT INTO users VALUES (?, ?)", rows);
+		assertThat(Arrays.stream(counts).sum()).isEqualTo(1200);
+
+		for (int i = 0; i < 3; i++) {
+			ResultSet rs = db.query("SELECT name FROM users WHERE id = ?", 5000 + i);
+			assertThat(rs.next()).isTrue();
+			assertThat(rs.getString("name")).isEqualTo("batch" + i);
+		}
+		assertThat(db.update("UPDATE users SET name = ? WHERE id >= ? AND id < ?", "renamed", 5000, 5010)).isEqualTo(10);
+	}
+
+	@Test
+	public void failedBatchIsRolledBack() throws Exception {
+		List<Object[]> rows = Arrays.asList(new Object[] { 9000, "first" }, new Object[] { 9000, "duplicate" });
+		assertThatThrownBy(() -> db.batchUpdate("INSERT INTO users VALUES (?, ?)", rows)).isInstanceOf(SQLException.class);
+		assertThat(db.query("SELECT * FROM users WHERE id = ?", 9000).next()).isFalse();
+	}
+
+	@Test
+	public void streamsRowsLazilyAndReleasesTheConnection() throws Exception {
+		List<Object[]> rows = new ArrayList<>();
+		for (int i = 0; i < 50; i++) {
+			rows.add(new Object[] { 20000 + i, "stream" + i });
+		}
+		db.batchUpdate("INSERT INTO users VALUES (?, ?)", rows);
+
+		try (Stream<String> names = db.stream("SELECT name FROM users WHERE id >= ? ORDER BY id", rs -> rs.getString(1), 20000)) {
+			assertThat(names.limit(3).collect(Collectors.toList())).containsExactly("stream0", "stream1", "stream2");
+		}
+		try (Stream<List<DataField>> fields = db.streamRows("SELECT id, name FROM users WHERE id = ?", 20001)) {
+			List<DataField> row = fields.findFirst().get();
+			assertThat(row).extracting(DataField::getPath).containsExactly("ID", "NAME");
+			assertThat(row.get(1).getValue()).isEqualTo("stream1");
+		}
+		// an exhausted stream gives its connection back even without close
+		assertThat(db.stream("SELECT id FROM users WHERE id >= ?", rs -> rs.getInt(1), 20000).count()).isEqualTo(50);
+
+		// both pooled connections must be free again
+		try (Connection first = db.borrowConnection(); Connection second = db.borrowConnection()) {
+			assertThat(first.isValid(1) && second.isValid(1)).isTrue();
+		}
+		assertThat(db.count("SELECT * FROM users WHERE id >= ?;", 20000)).isEqualTo(50);
+	}
+}
@@ -0,0 +1,48 @@
+package io.github.mrs.functionaltest.utils.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+
+import org.HdrHistogram.Histogram;
+import org.testng.annotations.Test;
+
+public class LatencyBudgetsTest {
+
+	@Test
+	public void reportsOnlyExceededBudgets() {
+		Properties props = new Properties();
+		props.setProperty("base.url", "http://localhost:8000");
+		props.setProperty("slo.GET./api/users.p99", "150ms");
+		props.setProperty("slo.GET./api/users/42.p99.9", "0.1s");
+		props.setProperty("slo.post./api/users.max", "2s");
+		LatencyBudgets budgets = LatencyBudgets.fromProperties(props);
+
+		List<EndpointLatency> latencies = Arrays.asList(
+				latency("GET", "/api/users", 120),
+				latency("GET", "/api/users/{id}", 180),
+				latency("POST", "/api/users", 1500));
+
+		assertThat(budgets.violations(latencies))
+				.singleElement().asString()
+				.startsWith("GET /api/users/{id} p99.9 was 180.")
+				.endsWith("budget 100.0 ms");
+		assertThatThrownBy(() -> budgets.verify(latencies)).isInstanceOf(AssertionError.class);
+	}
+
+	@Test
+	public void rejectsMalformedBudgets() {
+		Properties props = new Properties();
+		props.setProperty("slo.GET./api/users.p75", "150ms");
+		assertThatThrownBy(() -> LatencyBudgets.fromProperties(props)).isInstanceOf(IllegalArgumentException.class);
+	}
+
+	private static EndpointLatency latency(String method, String path, long millis) {
+		Histogram histogram = new Histogram(3);
+		histogram.recordValue(millis * 1000);
+		return new EndpointLatency(method, path, histogram);
+	}
+}
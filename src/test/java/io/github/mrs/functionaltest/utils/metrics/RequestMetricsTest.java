@@ -0,0 +1,40 @@
+package io.github.mrs.functionaltest.utils.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.TimeUnit;
+
+import org.testng.annotations.Test;
+
+public class RequestMetricsTest {
+
+	@Test
+	public void templatePathStripsIdentifiers() {
+		assertThat(RequestMetrics.templatePath("https://reqres.in/api/users/42?page=2"))
+				.isEqualTo("/api/users/{id}");
+		assertThat(RequestMetrics.templatePath("/api/users/3f2504e0-4f89-11d3-9a0c-0305e82c3301/roles"))
+				.isEqualTo("/api/users/{id}/roles");
+		assertThat(RequestMetrics.templatePath("/api/docs/507f1f77bcf86cd799439011"))
+				.isEqualTo("/api/docs/{id}");
+		assertThat(RequestMetrics.templatePath("/api/v2/users")).isEqualTo("/api/v2/users");
+		assertThat(RequestMetrics.templatePath("http://localhost:8000")).isEqualTo("/");
+	}
+
+	@Test
+	public void recordsLatencyPerTemplatedEndpoint() {
+		RequestMetrics.record("GET", "http://localhost/metrics-test/1", TimeUnit.MILLISECONDS.toNanos(10));
+		RequestMetrics.record("GET", "http://localhost/metrics-test/2", TimeUnit.MILLISECONDS.toNanos(30));
+
+		EndpointLatency latency = RequestMetrics.snapshot().stream()
+				.filter(l -> l.getEndpoint().equals("GET /metrics-test/{id}"))
+				.findFirst().orElseThrow();
+		assertThat(latency.getCount()).isEqualTo(2);
+		assertThat(latency.getMax()).isBetween(29.9, 30.1);
+
+		// snapshots are cumulative, not reset between calls
+		assertThat(RequestMetrics.snapshot())
+				.filteredOn(l -> l.getEndpoint().equals("GET /metrics-test/{id}"))
+				.extracting(EndpointLatency::getCount)
+				.containsExactly(2L);
+	}
+}
@@ -0,0 +1,113 @@
+package io.github.mrs.functionaltest.utils.stub;
+
+import static io.restassured.RestAssured.given;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Properties;
+
+import io.restassured.response.Response;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+public class StubServerTest {
+
+	private StubServer stub;
+
+	@BeforeClass
+	public void startStub() throws IOException {
+		stub = StubServer.start();
+	}
+
+	@AfterMethod(alwaysRun = true)
+	public void resetStub() {
+		stub.reset();
+		stub.faults(StubServer.Faults.none());
+	}
+
+	@AfterClass(alwaysRun = true)
+	public void stopStub() {
+		stub.stop();
+	}
+
+	@Test
+	public void matchesRoutesAndPathParams() {
+		stub.get("/api/users/{id}").respond(request -> StubResponse.json(200,
+				"{\"id\":" + request.pathParam("id") + ",\"q\":\"" + request.getQuery() + "\"}"));
+		StubRoute create = stub.post("/api/users").respond(request -> StubResponse.json(201, request.getBody())
+				.withHeader("Location", "/api/users/7"));
+
+		Response fetched = given().get(stub.url() + "/api/users/42?full=true");
+		assertThat(fetched.statusCode()).isEqualTo(200);
+		assertThat(fetched.jsonPath().getInt("id")).isEqualTo(42);
+		assertThat(fetched.jsonPath().getString("q")).isEqualTo("full=true");
+
+		Response created = given().body("{\"name\":\"a\"}").post(stub.url() + "/api/users/");
+		assertThat(created.statusCode()).isEqualTo(201);
+		assertThat(created.header("Location")).isEqualTo("/api/users/7");
+		assertThat(created.asString()).isEqualTo("{\"name\":\"a\"}");
+		assertThat(create.hits()).isEqualTo(1);
+
+		assertThat(status(given().get(stub.url() + "/api/users"))).isEqualTo(404);
+		assertThat(status(given().delete(stub.url() + "/api/users/42"))).isEqualTo(404);
+	}
+
+	@Test
+	public void routeThatThrowsAnswers500() {
+		stub.get("/boom").respond(request -> {
+			throw new IllegalStateException("broken stub");
+		});
+
+		assertThat(status(given().get(stub.url() + "/boom"))).isEqualTo(500);
+	}
+
+	@Test
+	public void injectsLatencyPerRoute() {
+		stub.get("/slow").respond(StubResponse.status(204)).latency(Duration.ofMillis(150));
+		stub.get("/fast").respond(StubResponse.status(204));
+
+		long start = System.nanoTime();
+		assertThat(status(given().get(stub.url() + "/slow"))).isEqualTo(204);
+		assertThat(Duration.ofNanos(System.nanoTime() - start).toMillis()).isGreaterThanOrEqualTo(150);
+
+		start = System.nanoTime();
+		assertThat(status(given().get(stub.url() + "/fast"))).isEqualTo(204);
+		assertThat(Duration.ofNanos(System.nanoTime() - start).toMillis()).isLessThan(150);
+	}
+
+	@Test
+	public void injectsErrorsServerWideFromProperties() {
+		Properties props = new Properties();
+		props.setProperty("stub.errorRate", "1.0");
+		props.setProperty("stub.errorStatus", "502");
+		stub.faults(StubServer.Faults.fromProperties(props));
+		StubRoute flaky = stub.get("/flaky").respond(StubResponse.status(200));
+		stub.get("/steady").respond(StubResponse.status(200)).errors(0, 500);
+
+		assertThat(status(given().get(stub.url() + "/flaky"))).isEqualTo(502);
+		assertThat(status(given().get(stub.url() + "/steady"))).isEqualTo(200);
+		assertThat(flaky.hits()).isEqualTo(1);
+	}
+
+	@Test
+	public void errorRateFailsAboutThatFraction() {
+		stub.get("/half").respond(StubResponse.status(200)).errors(0.5, 503);
+
+		int failed = 0;
+		for (int i = 0; i < 200; i++) {
+			if (status(given().get(stub.url() + "/half")) == 503) {
+				failed++;
+			}
+		}
+		assertThat(failed).isBetween(60, 140);
+	}
+
+	// read the body too, or the pooled connection isn't released
+	private static int status(Response response) {
+		response.asByteArray();
+		return response.statusCode();
+	}
+}
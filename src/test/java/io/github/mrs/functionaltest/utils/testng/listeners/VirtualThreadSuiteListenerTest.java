@@ -0,0 +1,64 @@
+package io.github.mrs.functionaltest.utils.testng.listeners;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.testng.SkipException;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.testng.xml.XmlSuite;
+
+public class VirtualThreadSuiteListenerTest {
+
+	private static final String PROPERTY = "functional.virtual.threads";
+
+	@BeforeMethod
+	public void checkEnvironment() {
+		if (System.getenv("FUNCTIONAL_VIRTUAL_THREADS") != null) {
+			throw new SkipException("FUNCTIONAL_VIRTUAL_THREADS is set in the environment");
+		}
+	}
+
+	@AfterMethod(alwaysRun = true)
+	public void clearRequest() {
+		System.clearProperty(PROPERTY);
+	}
+
+	@Test
+	public void leavesSuitesAloneWhenDisabled() {
+		XmlSuite suite = suite(XmlSuite.ParallelMode.NONE, 5);
+
+		new VirtualThreadSuiteListener().alter(Collections.singletonList(suite));
+
+		assertThat(suite.getParallel()).isEqualTo(XmlSuite.ParallelMode.NONE);
+		assertThat(suite.getThreadCount()).isEqualTo(5);
+		assertThat(suite.getDataProviderThreadCount()).isEqualTo(5);
+	}
+
+	@Test
+	public void runsMethodsInParallelWhenEnabled() {
+		System.setProperty(PROPERTY, "true");
+		XmlSuite serial = suite(XmlSuite.ParallelMode.NONE, 5);
+		XmlSuite byClass = suite(XmlSuite.ParallelMode.CLASSES, 1000);
+
+		new VirtualThreadSuiteListener().alter(Arrays.asList(serial, byClass));
+
+		assertThat(serial.getParallel()).isEqualTo(XmlSuite.ParallelMode.METHODS);
+		assertThat(serial.getThreadCount()).isEqualTo(256);
+		assertThat(serial.getDataProviderThreadCount()).isEqualTo(256);
+		assertThat(byClass.getParallel()).isEqualTo(XmlSuite.ParallelMode.CLASSES);
+		assertThat(byClass.getThreadCount()).isEqualTo(1000);
+	}
+
+	private static XmlSuite suite(XmlSuite.ParallelMode parallel, int threadCount) {
+		XmlSuite suite = new XmlSuite();
+		suite.setName("suite");
+		suite.setParallel(parallel);
+		suite.setThreadCount(threadCount);
+		suite.setDataProviderThreadCount(threadCount);
+		return suite;
+	}
+}
@@ -0,0 +1,72 @@
+package io.github.mrs.functionaltest.utils.traffic;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.testng.annotations.Test;
+
+public class RingBufferTest {
+
+	@Test
+	public void rejectsWhenFullAndReusesSlots() {
+		RingBuffer<Integer> buffer = new RingBuffer<>(3);
+		assertThat(buffer.capacity()).isEqualTo(4);
+		for (int i = 0; i < 4; i++) {
+			assertThat(buffer.offer(i)).isTrue();
+		}
+		assertThat(buffer.offer(4)).isFalse();
+		assertThat(buffer.poll()).isEqualTo(0);
+		assertThat(buffer.offer(4)).isTrue();
+		List<Integer> rest = new ArrayList<>();
+		for (Integer item = buffer.poll(); item != null; item = buffer.poll()) {
+			rest.add(item);
+		}
+		assertThat(rest).containsExactly(1, 2, 3, 4);
+	}
+
+	@Test
+	public void manyProducersLoseNothing() throws Exception {
+		int producers = 8;
+		int perProducer = 50_000;
+		RingBuffer<Long> buffer = new RingBuffer<>(1024);
+		CountDownLatch done = new CountDownLatch(producers);
+		for (int p = 0; p < producers; p++) {
+			long base = (long) p * perProducer;
+			Thread producer = new Thread(() -> {
+				for (int i = 0; i < perProducer; i++) {
+					while (!buffer.offer(base + i)) {
+						Thread.onSpinWait();
+					}
+				}
+				done.countDown();
+			});
+			producer.setDaemon(true);
+			producer.start();
+		}
+		boolean[] seen = new boolean[producers * perProducer];
+		long[] lastPerProducer = new long[producers];
+		Arrays.fill(lastPerProducer, -1);
+		int received = 0;
+		while (received < seen.length) {
+			Long item = buffer.poll();
+			if (item == null) {
+				Thread.onSpinWait();
+				continue;
+			}
+			int producer = (int) (item / perProducer);
+			assertThat(item).isGreaterThan(lastPerProducer[producer]);  // each producer's items stay in order
+			lastPerProducer[producer] = item;
+			seen[item.intValue()] = true;
+			received++;
+		}
+		done.await();
+		assertThat(buffer.poll()).isNull();
+		for (boolean s : seen) {
+			assertThat(s).isTrue();
+		}
+	}
+}
@@ -0,0 +1,173 @@
+package io.github.mrs.functionaltest.utils.traffic;
+
+import static io.restassured.RestAssured.given;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import io.github.mrs.functionaltest.utils.stub.StubResponse;
+import io.github.mrs.functionaltest.utils.stub.StubServer;
+import io.restassured.response.Response;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+public class TrafficCaptureTest {
+
+	private StubServer stub;
+	private String baseUrl;
+	private Path dir;
+
+	@BeforeClass
+	public void startStub() throws IOException {
+		stub = StubServer.start();
+		stub.get("/things/binary").respond(StubResponse.body(200, "application/json", new byte[] {(byte) 0xff, 0, (byte) 0xfe}));
+		stub.get("/things").respond(StubResponse.json(200, "{\"ok\":true}"));
+		stub.get("/things/{id}").respond(StubResponse.json(200, "{\"ok\":true}"));
+		stub.post("/things").respond(StubResponse.json(201, "{\"ok\":true}"));
+		baseUrl = stub.url();
+		dir = Files.createTempDirectory("capture");
+	}
+
+	@AfterMethod(alwaysRun = true)
+	public void stopCapture() {
+		TrafficCapture.stop();
+	}
+
+	@AfterClass(alwaysRun = true)
+	public void stopStub() {
+		stub.stop();
+	}
+
+	@Test
+	public void readsBackEveryExchangeAcrossSessions() throws IOException {
+		Path file = dir.resolve("session.capture");
+		TrafficCapture.start(file, null);
+		given().filter(TrafficCapture.filter()).header("X-Trace", "abc")
+				.body("{\"name\":\"a\"}").post(baseUrl + "/things");
+		TrafficCapture.stop();
+		TrafficCapture.start(file, null);
+		given().filter(TrafficCapture.filter()).get(baseUrl + "/things/1?full=true");
+		TrafficCapture.stop();
+
+		List<CapturedExchange> exchanges;
+		try (Stream<CapturedExchange> stream = TrafficCapture.read(file)) {
+			exchanges = stream.collect(Collectors.toList());
+		}
+		assertThat(exchanges).extracting(CapturedExchange::getMethod).containsExactly("POST", "GET");
+		CapturedExchange post = exchanges.get(0);
+		assertThat(post.getUri()).isEqualTo(baseUrl + "/things");
+		assertThat(post.getStatus()).isEqualTo(201);
+		assertThat(post.requestHeader("x-trace")).isEqualTo("abc");
+		assertThat(new String(post.getRequestBody(), StandardCharsets.UTF_8)).isEqualTo("{\"name\":\"a\"}");
+		assertThat(new String(post.getResponseBody(), StandardCharsets.UTF_8)).isEqualTo("{\"ok\":true}");
+		assertThat(post.responseHeader("Content-Type")).isEqualTo("application/json");
+		assertThat(exchanges.get(1).getUri()).isEqualTo(baseUrl + "/things/1?full=true");
+		assertThat(exchanges.get(1).getStartedAtMicros()).isGreaterThanOrEqualTo(post.getStartedAtMicros());
+	}
+
+	@Test
+	public void exportsHarWhenStopped() throws IOException {
+		Path file = dir.resolve("har.capture");
+		Path har = dir.resolve("session.har");
+		TrafficCapture.start(file, har);
+		given().filter(TrafficCapture.filter()).get(baseUrl + "/things");
+		given().filter(TrafficCapture.filter()).get(baseUrl + "/things/binary");
+		TrafficCapture.stop();
+
+		String text = new String(Files.readAllBytes(har), StandardCharsets.UTF_8);
+		assertThat(text).contains("\"version\":\"1.2\"")
+				.contains("\"url\":\"" + baseUrl + "/things\"")
+				.contains("\"status\":200")
+				.contains("{\\\"ok\\\":true}")
+				.contains("\"encoding\":\"base64\"");
+	}
+
+	@Test
+	public void roundTripsThroughTheBinaryFormat() throws IOException {
+		Path file = dir.resolve("roundtrip.capture");
+		TrafficCapture.start(file, null);
+		given().filter(TrafficCapture.filter()).header("Accept", "application/json").get(baseUrl + "/things");
+		TrafficCapture.stop();
+
+		try (Stream<CapturedExchange> stream = TrafficCapture.read(file)) {
+			CapturedExchange exchange = stream.findFirst().get();
+			assertThat(TrafficCapture.decode(TrafficCapture.encode(exchange))).usingRecursiveComparison()
+					.isEqualTo(exchange);
+		}
+	}
+
+	@Test
+	public void redactsCredentialsUnlessAskedToKeepThem() throws IOException {
+		Path redacted = dir.resolve("redacted.capture");
+		TrafficCapture.start(redacted, dir.resolve("redacted.har"));
+		given().filter(TrafficCapture.filter()).header("Authorization", "Bearer secret-token")
+				.header("Cookie", "session=secret-cookie").get(baseUrl + "/things");
+		TrafficCapture.stop();
+		Path kept = dir.resolve("kept.capture");
+		TrafficCapture.start(kept, dir.resolve("kept.har"), true);
+		given().filter(TrafficCapture.filter()).header("Authorization", "Bearer secret-token").get(baseUrl + "/things");
+		TrafficCapture.stop();
+
+		try (Stream<CapturedExchange> stream = TrafficCapture.read(redacted)) {
+			CapturedExchange exchange = stream.findFirst().get();
+			assertThat(exchange.requestHeader("Authorization")).isEqualTo("Bearer [redacted]");
+			assertThat(exchange.requestHeader("Cookie")).isEqualTo("[redacted]");
+		}
+		try (Stream<CapturedExchange> stream = TrafficCapture.read(kept)) {
+			assertThat(stream.findFirst().get().requestHeader("Authorization")).isEqualTo("Bearer secret-token");
+		}
+		for (String har : new String[] { "redacted.har", "kept.har" }) {
+			assertThat(new String(Files.readAllBytes(dir.resolve(har)), StandardCharsets.UTF_8))
+					.contains("Bearer [redacted]")
+					.doesNotContain("secret-token")
+					.doesNotContain("secret-cookie");
+		}
+	}
+
+	@Test(timeOut = 60_000)
+	public void requestsCarryOnWhenTheWriterFails() throws Exception {
+		// a small buffer fills quickly once nothing drains it
+		TrafficCapture.start(dir.resolve("failing.capture"), null, false, 16);
+		ExecutorService clients = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<Integer>> statuses = new ArrayList<>();
+			for (int i = 0; i < 300; i++) {
+				if (i == 20) {
+					// as if the disk filled up: every write from now on fails
+					TrafficCapture.current().channel.close();
+				}
+				statuses.add(clients.submit(() -> status(given().filter(TrafficCapture.filter()).get(baseUrl + "/things"))));
+			}
+			for (Future<Integer> status : statuses) {
+				assertThat(status.get()).isEqualTo(200);
+			}
+		} finally {
+			clients.shutdownNow();
+		}
+
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (TrafficCapture.current() != null && System.nanoTime() < deadline) {
+			Thread.sleep(10);
+		}
+		assertThat(TrafficCapture.current()).isNull();
+	}
+
+	// read the body too, or the pooled connection isn't released
+	private static int status(Response response) {
+		response.asByteArray();
+		return response.statusCode();
+	}
+}
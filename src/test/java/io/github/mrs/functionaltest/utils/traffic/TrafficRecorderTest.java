@@ -0,0 +1,93 @@
+package io.github.mrs.functionaltest.utils.traffic;
+
+import static io.restassured.RestAssured.given;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+
+import io.github.mrs.functionaltest.utils.stub.StubResponse;
+import io.github.mrs.functionaltest.utils.stub.StubServer;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+public class TrafficRecorderTest {
+
+	private StubServer stub;
+	private String baseUrl;
+	private Path dir;
+
+	@BeforeClass
+	public void startStub() throws IOException {
+		stub = StubServer.start();
+		stub.get("/things").respond(request -> request.getQuery() != null && request.getQuery().contains("big")
+				? StubResponse.json(200, "x".repeat(10_000))
+				: StubResponse.json(200, "{\"ok\":true}"));
+		stub.post("/things").respond(StubResponse.json(200, "{\"ok\":true}"));
+		stub.get("/things/missing").respond(StubResponse.json(404, "{\"ok\":true}"));
+		baseUrl = stub.url();
+		dir = Files.createTempDirectory("traffic");
+	}
+
+	@AfterMethod(alwaysRun = true)
+	public void stopRecorder() {
+		TrafficRecorder.stop();
+	}
+
+	@AfterClass(alwaysRun = true)
+	public void stopStub() {
+		stub.stop();
+	}
+
+	@Test
+	public void writesTruncatedAndRedactedExchanges() throws IOException {
+		Path log = dir.resolve("traffic.log");
+		TrafficRecorder recorder = TrafficRecorder.start(settings(log, "1.0", "100000"));
+		given().filter(TrafficRecorder.filter()).header("Authorization", "Bearer secret-token")
+				.body("{\"name\":\"a\"}").post(baseUrl + "/things");
+		given().filter(TrafficRecorder.filter()).get(baseUrl + "/things?big=1");
+		TrafficRecorder.stop();
+
+		String text = new String(Files.readAllBytes(log), StandardCharsets.UTF_8);
+		assertThat(recorder.getWritten()).isEqualTo(2);
+		assertThat(text).contains("POST " + baseUrl + "/things -> 200")
+				.contains("> Authorization: Bearer [redacted]")
+				.doesNotContain("secret-token")
+				.contains("> {\"name\":\"a\"}")
+				.contains("< {\"ok\":true}")
+				.contains("x".repeat(64) + "... [10000 total]")
+				.doesNotContain("x".repeat(65));
+	}
+
+	@Test
+	public void samplesButKeepsFailuresAndRotates() throws IOException {
+		Path log = dir.resolve("sampled.log");
+		TrafficRecorder recorder = TrafficRecorder.start(settings(log, "0.0", "600"));
+		for (int i = 0; i < 5; i++) {
+			given().filter(TrafficRecorder.filter()).get(baseUrl + "/things");
+			given().filter(TrafficRecorder.filter()).get(baseUrl + "/things/missing");
+		}
+		TrafficRecorder.stop();
+
+		assertThat(recorder.getSkipped()).isEqualTo(5);
+		assertThat(recorder.getWritten()).isEqualTo(5);
+		assertThat(log.resolveSibling("sampled.log.1")).exists();
+		assertThat(log.resolveSibling("sampled.log.2")).doesNotExist();
+		assertThat(new String(Files.readAllBytes(log), StandardCharsets.UTF_8)).contains("-> 404");
+	}
+
+	private static TrafficRecorder.Settings settings(Path file, String sampleRate, String maxFileBytes) {
+		Properties props = new Properties();
+		props.setProperty("traffic.file", file.toString());
+		props.setProperty("traffic.sampleRate", sampleRate);
+		props.setProperty("traffic.maxBodyBytes", "64");
+		props.setProperty("traffic.maxFileBytes", maxFileBytes);
+		props.setProperty("traffic.maxFiles", "2");
+		return TrafficRecorder.Settings.fromProperties(props);
+	}
+}